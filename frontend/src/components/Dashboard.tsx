@@ -40,9 +40,16 @@ export const Dashboard = () => {
     if (!user) return;
     try {
       setLoading(true);
-      const data = await passwordApi.getAll(user.id);
-      setPasswords(data);
-      setFilteredPasswords(data);
+      // Render the first page right away, then append the rest as it arrives
+      let page = await passwordApi.getPage(user.id);
+      let loaded = page.items;
+      setPasswords(loaded);
+      setLoading(false);
+      while (page.hasNext && page.nextCursor) {
+        page = await passwordApi.getPage(user.id, page.nextCursor);
+        loaded = [...loaded, ...page.items];
+        setPasswords(loaded);
+      }
     } catch (error) {
       console.error('Failed to load passwords:', error);
     } finally {
@@ -1,6 +1,6 @@
 import { useState } from 'react';
 import { useAuth } from '../context/AuthContext';
-import { passwordApi } from '../services/api';
+import { passwordApi, hasVaultSession } from '../services/api';
 import type { PasswordEntryWithDecrypted } from '../types';
 import '../styles/PasswordCard.css';
 
@@ -30,34 +30,46 @@ export const PasswordCard = ({ password, onDeleted }: PasswordCardProps) => {
       return;
     }
 
+    if (hasVaultSession()) {
+      await decrypt();
+      return;
+    }
+
     setShowMasterPrompt(true);
   };
 
-  const handleDecrypt = async (e: React.FormEvent) => {
-    e.preventDefault();
+  const decrypt = async () => {
     if (!user) return;
 
     setError('');
     setLoading(true);
 
     try {
-      const pwd = await passwordApi.getDecrypted(
-        user.id,
-        password.serviceName,
-        password.username,
-        masterPassword
-      );
+      if (!hasVaultSession()) {
+        await passwordApi.unlock(user.id, masterPassword);
+      }
+      const pwd = await passwordApi.getDecrypted(user.id, password.serviceName, password.username);
       setDecryptedPassword(pwd);
       setShowPassword(true);
       setShowMasterPrompt(false);
       setMasterPassword('');
     } catch (err: any) {
+      if (err.response?.status === 401) {
+        // Session expired; ask for the master password again
+        await passwordApi.lock(user.id).catch(() => undefined);
+        setShowMasterPrompt(true);
+      }
       setError(err.response?.data?.message || 'Failed to decrypt password');
     } finally {
       setLoading(false);
     }
   };
 
+  const handleDecrypt = async (e: React.FormEvent) => {
+    e.preventDefault();
+    await decrypt();
+  };
+
   const handleCopy = () => {
     if (decryptedPassword) {
       navigator.clipboard.writeText(decryptedPassword);
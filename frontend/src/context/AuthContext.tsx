@@ -1,6 +1,7 @@
 import { createContext, useContext, useState, useEffect } from 'react';
 import type { ReactNode } from 'react';
 import type { User } from '../types';
+import { passwordApi } from '../services/api';
 
 interface AuthContextType {
   user: User | null;
@@ -35,6 +36,9 @@ export const AuthProvider = ({ children }: { children: ReactNode }) => {
   };
 
   const logout = () => {
+    if (user) {
+      passwordApi.lock(user.id).catch(() => undefined);
+    }
     setUser(null);
     localStorage.removeItem('user');
   };
@@ -1,5 +1,5 @@
 import axios from 'axios';
-import type { User, PasswordEntry, AddPasswordRequest } from '../types';
+import type { User, PasswordEntry, PasswordPage, AddPasswordRequest, DecryptedPasswordEntry } from '../types';
 
 const API_BASE_URL = 'http://localhost:8080/api';
 
@@ -10,6 +10,18 @@ const api = axios.create({
   },
 });
 
+// Vault session token; kept in memory only so a reload locks the vault again
+let vaultToken: string | null = null;
+
+api.interceptors.request.use((config) => {
+  if (vaultToken) {
+    config.headers['X-Vault-Token'] = vaultToken;
+  }
+  return config;
+});
+
+export const hasVaultSession = (): boolean => vaultToken !== null;
+
 export const authApi = {
   login: async (username: string, password: string): Promise<User> => {
     const response = await api.post('/auth/login', { username, password });
@@ -22,8 +34,10 @@ export const authApi = {
 };
 
 export const passwordApi = {
-  getAll: async (userId: number): Promise<PasswordEntry[]> => {
-    const response = await api.get(`/passwords/${userId}`);
+  getPage: async (userId: number, cursor?: string, size?: number): Promise<PasswordPage<PasswordEntry>> => {
+    const response = await api.get(`/passwords/${userId}`, {
+      params: { cursor, size },
+    });
     return response.data;
   },
 
@@ -32,7 +46,21 @@ export const passwordApi = {
     return response.data;
   },
 
-  getDecrypted: async (userId: number, serviceName: string, username: string, masterPassword: string): Promise<string> => {
+  unlock: async (userId: number, masterPassword: string): Promise<void> => {
+    const response = await api.post(`/passwords/${userId}/unlock`, { masterPassword });
+    vaultToken = response.data.token;
+  },
+
+  lock: async (userId: number): Promise<void> => {
+    if (!vaultToken) return;
+    try {
+      await api.post(`/passwords/${userId}/lock`);
+    } finally {
+      vaultToken = null;
+    }
+  },
+
+  getDecrypted: async (userId: number, serviceName: string, username: string, masterPassword?: string): Promise<string> => {
     const response = await api.post(`/passwords/${userId}/decrypt`, {
       serviceName,
       username,
@@ -41,6 +69,11 @@ export const passwordApi = {
     return response.data;
   },
 
+  decryptAll: async (userId: number, masterPassword: string): Promise<DecryptedPasswordEntry[]> => {
+    const response = await api.post(`/passwords/${userId}/decrypt-all`, { masterPassword });
+    return response.data;
+  },
+
   delete: async (userId: number, serviceName: string, username: string): Promise<void> => {
     await api.delete(`/passwords/${userId}`, {
       data: { serviceName, username },
@@ -9,7 +9,6 @@ export interface PasswordEntry {
   id: number;
   serviceName: string;
   username: string;
-  encryptedPassword: string;
   notes?: string;
   category?: string;
   createdAt: string;
@@ -17,10 +16,25 @@ export interface PasswordEntry {
   lastAccessed?: string;
 }
 
+export interface PasswordPage<T> {
+  items: T[];
+  nextCursor?: string;
+  hasNext: boolean;
+  totalCount?: number;
+}
+
 export interface PasswordEntryWithDecrypted extends PasswordEntry {
   decryptedPassword?: string;
 }
 
+export interface DecryptedPasswordEntry {
+  id: number;
+  serviceName: string;
+  username: string;
+  password: string;
+  category?: string;
+}
+
 export interface AuthResponse {
   user: User;
   token?: string;
@@ -0,0 +1,29 @@
+#!/usr/bin/env bash
+# Runs loadtest/passvault.js against the packaged jar with platform threads, then virtual threads,
+# and keeps one k6 summary per mode in target/loadtest/ for comparing throughput and p99 latency.
+set -euo pipefail
+
+JAR=${JAR:-target/passVault-0.0.1-SNAPSHOT.jar}
+PORT=${PORT:-8080}
+OUT=target/loadtest
+mkdir -p "$OUT"
+
+for mode in platform virtual; do
+  virtual=false
+  [ "$mode" = virtual ] && virtual=true
+
+  java -jar "$JAR" --server.port="$PORT" --passvault.mode=web \
+       --spring.threads.virtual.enabled="$virtual" --spring.jpa.show-sql=false \
+       > "$OUT/server-$mode.log" 2>&1 &
+  pid=$!
+  trap 'kill $pid 2>/dev/null || true' EXIT
+
+  until curl -sf "http://localhost:$PORT/actuator/health" > /dev/null; do sleep 1; done
+
+  k6 run -e BASE_URL="http://localhost:$PORT" --summary-export "$OUT/summary-$mode.json" loadtest/passvault.js
+
+  kill "$pid"; wait "$pid" 2>/dev/null || true
+  trap - EXIT
+done
+
+echo "Summaries written to $OUT/summary-platform.json and $OUT/summary-virtual.json"
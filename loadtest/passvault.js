@@ -0,0 +1,64 @@
+// k6 load test for the login and vault listing endpoints.
+// Run against a server started in each thread mode and compare the summaries:
+//   k6 run -e BASE_URL=http://localhost:8080 loadtest/passvault.js
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const USERS = parseInt(__ENV.USERS || '20');
+const PASSWORD = __ENV.PASSWORD || 'LoadTest#Password1';
+
+export const options = {
+  scenarios: {
+    login: {
+      executor: 'constant-arrival-rate',
+      exec: 'login',
+      rate: parseInt(__ENV.LOGIN_RATE || '20'),
+      timeUnit: '1s',
+      duration: __ENV.DURATION || '60s',
+      preAllocatedVUs: 50,
+      maxVUs: 400,
+    },
+    listing: {
+      executor: 'constant-arrival-rate',
+      exec: 'listPasswords',
+      rate: parseInt(__ENV.LIST_RATE || '200'),
+      timeUnit: '1s',
+      duration: __ENV.DURATION || '60s',
+      preAllocatedVUs: 50,
+      maxVUs: 400,
+    },
+  },
+  summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+  thresholds: {
+    'http_req_duration{scenario:login}': ['p(99)<2000'],
+    'http_req_duration{scenario:listing}': ['p(99)<500'],
+  },
+};
+
+const json = { headers: { 'Content-Type': 'application/json' } };
+
+export function setup() {
+  const ids = [];
+  for (let i = 0; i < USERS; i++) {
+    const username = `loadtest-${i}`;
+    http.post(`${BASE_URL}/api/auth/register`, JSON.stringify({ username, password: PASSWORD }), json);
+    const res = http.post(`${BASE_URL}/api/auth/login`, JSON.stringify({ username, password: PASSWORD }), json);
+    if (res.status === 200) {
+      ids.push(res.json('id'));
+    }
+  }
+  return { ids };
+}
+
+export function login() {
+  const username = `loadtest-${Math.floor(Math.random() * USERS)}`;
+  const res = http.post(`${BASE_URL}/api/auth/login`, JSON.stringify({ username, password: PASSWORD }), json);
+  check(res, { 'login ok': (r) => r.status === 200 });
+}
+
+export function listPasswords(data) {
+  const id = data.ids[Math.floor(Math.random() * data.ids.length)];
+  const res = http.get(`${BASE_URL}/api/passwords/${id}?size=50`);
+  check(res, { 'listing ok': (r) => r.status === 200 });
+}
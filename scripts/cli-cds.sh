@@ -0,0 +1,27 @@
+#!/usr/bin/env bash
+# Builds a Class Data Sharing archive for the CLI profile. The jar is extracted (CDS needs
+# unpacked jars on a plain classpath), then a training run starts the context, exits once
+# it is refreshed and dumps every loaded class into the archive.
+#
+#   mvn package -DskipTests   (or mvn -Pcli-aot package -DskipTests for AOT as well)
+#   ./scripts/cli-cds.sh
+#   java -XX:SharedArchiveFile=target/cli/cli.jsa -jar target/cli/passVault-0.0.1-SNAPSHOT.jar --spring.profiles.active=cli
+#
+# With an AOT-processed jar, add -Dspring.aot.enabled=true to both the training run (AOT_FLAGS) and the real run.
+set -euo pipefail
+
+JAR="${1:-target/passVault-0.0.1-SNAPSHOT.jar}"
+OUT="${2:-target/cli}"
+AOT_FLAGS="${AOT_FLAGS:-}"
+
+rm -rf "$OUT"
+java -Djarmode=tools -jar "$JAR" extract --destination "$OUT"
+APP_JAR="$OUT/$(basename "$JAR")"
+
+# spring.context.exit=onRefresh stops before the menu, so the training run needs no input
+java -XX:ArchiveClassesAtExit="$OUT/cli.jsa" -Dspring.context.exit=onRefresh $AOT_FLAGS \
+    -jar "$APP_JAR" --spring.profiles.active=cli --passvault.storage.embedded.path="$OUT/training/vault.db"
+rm -rf "$OUT/training"
+
+echo "CDS archive written to $OUT/cli.jsa"
+echo "Run: java -XX:SharedArchiveFile=$OUT/cli.jsa $AOT_FLAGS -jar $APP_JAR --spring.profiles.active=cli"
@@ -0,0 +1,36 @@
+package com.ishan.passvault.cli;
+
+import com.ishan.passvault.service.PasswordStrengthService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Field;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MenuServiceBenchmark {
+
+    @Param({"password", "Summer2024!", "xK9#mQ2$vL7@pR4&nT8*"})
+    private String password;
+
+    private MenuService menuService;
+
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+        menuService = new MenuService();
+        // Injected by Spring in the application
+        Field strengthService = MenuService.class.getDeclaredField("passwordStrengthService");
+        strengthService.setAccessible(true);
+        strengthService.set(menuService, new PasswordStrengthService(new SimpleMeterRegistry()));
+    }
+
+    @Benchmark
+    public String analyzePasswordStrength() {
+        return menuService.analyzePasswordStrength(password);
+    }
+}
@@ -0,0 +1,60 @@
+package com.ishan.passvault.service;
+
+import org.openjdk.jmh.annotations.*;
+
+import javax.crypto.SecretKey;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entry encryption under the cached data key versus the legacy per-entry PBKDF2 path
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EncryptionServiceBenchmark {
+
+    private static final String MASTER_PASSWORD = "correct-horse-battery-staple";
+
+    @Param({"16", "256", "4096"})
+    private int payloadSize;
+
+    private EncryptionService encryptionService;
+    private SecretKey dataKey;
+    private String plainText;
+    private String dataKeyCipherText;
+    private String legacyCipherText;
+
+    @Setup
+    public void setUp() throws Exception {
+        encryptionService = new EncryptionService();
+        dataKey = encryptionService.generateDataKey();
+        plainText = "x".repeat(payloadSize);
+        dataKeyCipherText = encryptionService.encrypt(plainText, dataKey);
+        legacyCipherText = encryptionService.encrypt(plainText, MASTER_PASSWORD);
+    }
+
+    @Benchmark
+    public String encryptWithDataKey() throws Exception {
+        return encryptionService.encrypt(plainText, dataKey);
+    }
+
+    @Benchmark
+    public String decryptWithDataKey() throws Exception {
+        return encryptionService.decrypt(dataKeyCipherText, dataKey);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public String encryptWithMasterPassword() throws Exception {
+        return encryptionService.encrypt(plainText, MASTER_PASSWORD);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public String decryptWithMasterPassword() throws Exception {
+        return encryptionService.decrypt(legacyCipherText, MASTER_PASSWORD);
+    }
+}
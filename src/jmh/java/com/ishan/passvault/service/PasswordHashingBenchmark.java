@@ -0,0 +1,48 @@
+package com.ishan.passvault.service;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Master password verification cost per login, the number that bounds login throughput per core.
+ * Run with -t N to see how verification scales across cores.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class PasswordHashingBenchmark {
+
+    private static final String MASTER_PASSWORD = "correct-horse-battery-staple";
+
+    @Param({"10", "11", "12", "13"})
+    private int bcryptStrength;
+
+    private BCryptPasswordEncoder bcrypt;
+    private Argon2PasswordEncoder argon2;
+    private String bcryptHash;
+    private String argon2Hash;
+
+    @Setup
+    public void setUp() {
+        bcrypt = new BCryptPasswordEncoder(bcryptStrength);
+        bcryptHash = bcrypt.encode(MASTER_PASSWORD);
+        argon2 = new Argon2PasswordEncoder(16, 32, 1, 19456, 2);
+        argon2Hash = argon2.encode(MASTER_PASSWORD);
+    }
+
+    @Benchmark
+    public boolean verifyBCrypt() {
+        return bcrypt.matches(MASTER_PASSWORD, bcryptHash);
+    }
+
+    @Benchmark
+    public boolean verifyArgon2() {
+        return argon2.matches(MASTER_PASSWORD, argon2Hash);
+    }
+}
@@ -0,0 +1,85 @@
+package com.ishan.passvault.util;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * One InputScanner pass against the regex chain it replaced, both classifying the same text into
+ * every rule class. The regex side keeps the exact patterns InputValidator used to run in turn.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InputScannerBenchmark {
+
+    private static final Pattern SQL_INJECTION_PATTERN = Pattern.compile(
+        "(?i)(SELECT|INSERT|UPDATE|DELETE|DROP|CREATE|ALTER|EXEC|UNION|WHERE|OR|AND|--|;|'|\"|\\/\\*|\\*\\/|xp_|sp_)"
+    );
+    private static final Pattern XSS_PATTERN = Pattern.compile(
+        "(?i)(<script|javascript:|vbscript:|onload=|onerror=|onclick=|<iframe|<object|<embed|<form|<input|<textarea|<select|<button|<link|<meta|<style)"
+    );
+    private static final Pattern HTML_INJECTION_PATTERN = Pattern.compile("(?i)(<[^>]*>|&[a-zA-Z]+;|&#[0-9]+;)");
+    private static final Pattern PATH_TRAVERSAL_PATTERN = Pattern.compile("(\\.\\.\\/|\\.\\.\\\\)");
+    private static final Pattern COMMAND_INJECTION_PATTERN = Pattern.compile("(?i)(\\||&|;|`|\\$|\\(|\\)|\\{|\\}|\\[|\\]|<|>|\\?)");
+    private static final Pattern NULL_BYTE_PATTERN = Pattern.compile("\\x00");
+    private static final Pattern USERNAME_PATTERN = Pattern.compile("^[a-zA-Z0-9_-]{3,50}$");
+    private static final Pattern SERVICE_NAME_PATTERN = Pattern.compile("^[a-zA-Z0-9\\s._-]{1,100}$");
+    private static final Pattern CATEGORY_PATTERN = Pattern.compile("^[a-zA-Z0-9\\s_-]{1,50}$");
+
+    @Param({"benign", "hostile", "long-notes"})
+    private String input;
+
+    private String text;
+
+    @Setup
+    public void setUp() {
+        text = switch (input) {
+            case "benign" -> "Shared team account, rotate quarterly";
+            case "hostile" -> "'; DROP TABLE password_entries; -- <script>alert(1)</script>";
+            default -> "Recovery codes are kept in the team safe, ask the duty lead. ".repeat(8);
+        };
+    }
+
+    @Benchmark
+    public int regexChain() {
+        int violations = 0;
+        if (SQL_INJECTION_PATTERN.matcher(text).find()) {
+            violations |= InputScanner.Violation.SQL_INJECTION.bit();
+        }
+        if (XSS_PATTERN.matcher(text).find()) {
+            violations |= InputScanner.Violation.XSS.bit();
+        }
+        if (HTML_INJECTION_PATTERN.matcher(text).find()) {
+            violations |= InputScanner.Violation.HTML_INJECTION.bit();
+        }
+        if (PATH_TRAVERSAL_PATTERN.matcher(text).find()) {
+            violations |= InputScanner.Violation.PATH_TRAVERSAL.bit();
+        }
+        if (COMMAND_INJECTION_PATTERN.matcher(text).find()) {
+            violations |= InputScanner.Violation.COMMAND_INJECTION.bit();
+        }
+        if (NULL_BYTE_PATTERN.matcher(text).find()) {
+            violations |= InputScanner.Violation.NULL_BYTE.bit();
+        }
+        if (!USERNAME_PATTERN.matcher(text).matches()) {
+            violations |= InputScanner.Violation.NOT_USERNAME_CHARS.bit();
+        }
+        if (!SERVICE_NAME_PATTERN.matcher(text).matches()) {
+            violations |= InputScanner.Violation.NOT_SERVICE_NAME_CHARS.bit();
+        }
+        if (!CATEGORY_PATTERN.matcher(text).matches()) {
+            violations |= InputScanner.Violation.NOT_CATEGORY_CHARS.bit();
+        }
+        return violations;
+    }
+
+    @Benchmark
+    public int singlePass() {
+        return InputScanner.scan(text);
+    }
+}
@@ -0,0 +1,95 @@
+package com.ishan.passvault.util;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
+
+/**
+ * Every InputValidator entry point against benign input and against input that trips a rule.
+ * Rejections surface as IllegalArgumentException, so the exception cost is part of the hostile numbers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InputValidatorBenchmark {
+
+    @Param({"benign", "hostile"})
+    private String input;
+
+    private String username;
+    private String serviceName;
+    private String password;
+    private String notes;
+    private String category;
+    private String searchTerm;
+
+    @Setup
+    public void setUp() {
+        if ("benign".equals(input)) {
+            username = "jane_doe-42";
+            serviceName = "GitHub Enterprise";
+            password = "Tr0ub4dor-horse-staple";
+            notes = "Shared team account, rotate quarterly";
+            category = "Development";
+            searchTerm = "github";
+        } else {
+            username = "admin' OR '1'='1";
+            serviceName = "<script>alert(1)</script>";
+            password = "pass`rm -rf /`word";
+            notes = "'; DROP TABLE password_entries; --";
+            category = "x\0y";
+            searchTerm = "../../etc/passwd";
+        }
+    }
+
+    @Benchmark
+    public Object validateUsername() {
+        return run(InputValidator::validateUsername, username);
+    }
+
+    @Benchmark
+    public Object validateServiceName() {
+        return run(InputValidator::validateServiceName, serviceName);
+    }
+
+    @Benchmark
+    public Object validatePassword() {
+        return run(InputValidator::validatePassword, password);
+    }
+
+    @Benchmark
+    public Object validateNotes() {
+        return run(InputValidator::validateNotes, notes);
+    }
+
+    @Benchmark
+    public Object validateCategory() {
+        return run(InputValidator::validateCategory, category);
+    }
+
+    @Benchmark
+    public Object validateSearchTerm() {
+        return run(InputValidator::validateSearchTerm, searchTerm);
+    }
+
+    @Benchmark
+    public Object validatePasswordEntry() {
+        try {
+            return InputValidator.validatePasswordEntry(serviceName, username, password, notes, category);
+        } catch (IllegalArgumentException e) {
+            return e;
+        }
+    }
+
+    private static Object run(UnaryOperator<String> validator, String value) {
+        try {
+            return validator.apply(value);
+        } catch (IllegalArgumentException e) {
+            return e;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.ishan.passvault.util;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PasswordGeneratorBenchmark {
+
+    @Param({"8", "16", "32", "64", "128"})
+    private int length;
+
+    @Param({"true", "false"})
+    private boolean includeSymbols;
+
+    private PasswordGenerator passwordGenerator;
+    private PasswordPolicy policy;
+
+    @Setup
+    public void setUp() {
+        passwordGenerator = new PasswordGenerator();
+        policy = new PasswordPolicy(length, includeSymbols);
+    }
+
+    @Benchmark
+    public String generatePassword() {
+        return passwordGenerator.generatePassword(length, includeSymbols);
+    }
+
+    /**
+     * A batch of 1000, as used to provision service accounts; spread over all cores
+     */
+    @Benchmark
+    @OperationsPerInvocation(1000)
+    public List<String> generateBulk() {
+        return passwordGenerator.generate(1000, policy);
+    }
+}
@@ -0,0 +1,34 @@
+package com.ishan.passvault.util;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Strength estimates across the pattern kinds the estimator looks for, plus a random password that
+ * matches nothing and a long passphrase, its worst case for dictionary lookups.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StrengthEstimatorBenchmark {
+
+    @Param({"password", "P@ssw0rd1990", "qwertyuiop123", "abcabcabc", "Kx9#mQ2$vL7!pR4z",
+            "correct-horse-battery-staple"})
+    private String password;
+
+    private StrengthEstimator estimator;
+
+    @Setup
+    public void setUp() {
+        estimator = StrengthEstimator.standard();
+    }
+
+    @Benchmark
+    public StrengthEstimator.Estimate estimate() {
+        return estimator.estimate(password);
+    }
+}
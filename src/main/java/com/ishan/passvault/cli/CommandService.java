@@ -0,0 +1,417 @@
+package com.ishan.passvault.cli;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ishan.passvault.dto.PasswordEntrySummary;
+import com.ishan.passvault.model.PasswordEntry;
+import com.ishan.passvault.model.User;
+import com.ishan.passvault.service.PasswordAuditService;
+import com.ishan.passvault.service.PasswordHashingService;
+import com.ishan.passvault.service.PasswordPolicyService;
+import com.ishan.passvault.service.PasswordService;
+import com.ishan.passvault.service.UserService;
+import com.ishan.passvault.service.VaultKeyService;
+import com.ishan.passvault.util.PasswordGenerator;
+import com.ishan.passvault.util.PasswordPolicy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.crypto.SecretKey;
+import java.io.BufferedReader;
+import java.io.Console;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Non-interactive subcommands for scripts: {@code get}, {@code add}, {@code delete}, {@code list},
+ * {@code search}, {@code audit}, {@code generate}, {@code batch} and {@code calibrate-hashing}. Results are written as JSON, one document
+ * per invocation. The master password is read from {@code PASSVAULT_MASTER_PASSWORD} or the
+ * console, never from the command line.
+ */
+@Service
+@Slf4j
+public class CommandService {
+
+    public static final int EXIT_OK = 0;
+    public static final int EXIT_FAILED = 1;
+    public static final int EXIT_INVALID = 2;
+
+    public static final String USER_ENV = "PASSVAULT_USER";
+    public static final String MASTER_PASSWORD_ENV = "PASSVAULT_MASTER_PASSWORD";
+
+    private static final Set<String> VAULT_COMMANDS = Set.of("get", "add", "delete", "list", "search", "audit");
+    private static final Set<String> COMMANDS = Set.of("get", "add", "delete", "list", "search", "audit", "generate", "batch",
+            "calibrate-hashing", "help");
+
+    private static final int MAX_LENGTH = 128;
+
+    private static final String USAGE = """
+            Usage: passvault <command> [--option=value ...]
+
+              get       --service=NAME [--username=NAME]
+              add       --service=NAME --username=NAME (--password=VALUE | --generate [POLICY]) [--notes=TEXT] [--category=NAME]
+              delete    --service=NAME [--username=NAME]
+              list      [--category=NAME]
+              search    --term=TEXT [--limit=N]
+              audit     reports reused, breached and weak passwords
+              generate  [--count=N] [--category=NAME] [POLICY]
+              batch     [--file=PATH]   JSON lines such as {"op":"add","service":"...","username":"...","generate":"true"}, read from stdin without --file
+              calibrate-hashing [--target-ms=N]   suggests passvault.hashing.bcrypt.strength for this machine
+
+            POLICY options override the generator policy of the category: --mode=random|pronounceable|passphrase
+            --length=N --words=N --require=upper,lower,digit,symbol --forbid=... --symbolSet=CHARS --maxRepeats=N
+            --separator=TEXT --symbols=false
+
+            Vault commands take --user=NAME (or PASSVAULT_USER) and read the master password from
+            PASSVAULT_MASTER_PASSWORD, or prompt for it on the console.""";
+
+    @Autowired
+    private PasswordService passwordService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private VaultKeyService vaultKeyService;
+
+    @Autowired
+    private PasswordAuditService passwordAuditService;
+
+    @Autowired
+    private PasswordGenerator passwordGenerator;
+
+    @Autowired
+    private PasswordPolicyService passwordPolicyService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${passvault.hashing.target-verify-ms:250}")
+    private long targetVerifyMs;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public CommandService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public static boolean isCommand(String name) {
+        return COMMANDS.contains(name);
+    }
+
+    /**
+     * Runs the subcommand named by the first non-option argument
+     * @return The process exit code: 0 on success, 1 if the command failed, 2 for invalid input
+     */
+    public int execute(ApplicationArguments args, PrintStream out, PrintStream err) {
+        String command = args.getNonOptionArgs().get(0);
+        Map<String, String> options = new HashMap<>();
+        for (String name : args.getOptionNames()) {
+            List<String> values = args.getOptionValues(name);
+            options.put(name, values.isEmpty() ? "" : values.get(0));
+        }
+
+        try {
+            switch (command) {
+                case "help" -> out.println(USAGE);
+                case "batch" -> print(out, runBatch(options));
+                case "calibrate-hashing" -> print(out, calibrateHashing(options));
+                default -> {
+                    Vault vault = VAULT_COMMANDS.contains(command) ? openVault(options) : null;
+                    print(out, run(command, options, vault));
+                }
+            }
+            return EXIT_OK;
+        } catch (BatchException e) {
+            Map<String, Object> error = new LinkedHashMap<>();
+            error.put("error", e.getCause().getMessage());
+            error.put("line", e.line);
+            printError(err, error);
+            return e.getCause() instanceof IllegalArgumentException ? EXIT_INVALID : EXIT_FAILED;
+        } catch (IllegalArgumentException e) {
+            printError(err, Map.of("error", String.valueOf(e.getMessage())));
+            return EXIT_INVALID;
+        } catch (Exception e) {
+            log.debug("Command {} failed", command, e);
+            printError(err, Map.of("error", String.valueOf(e.getMessage())));
+            return EXIT_FAILED;
+        }
+    }
+
+    /**
+     * Runs every operation of the batch in one transaction with one unlock of the vault,
+     * so the whole batch is applied or, if any operation fails, none of it is
+     */
+    private List<Object> runBatch(Map<String, String> options) throws Exception {
+        List<Operation> operations = readOperations(options.get("file"));
+        boolean needsVault = operations.stream().anyMatch(operation -> VAULT_COMMANDS.contains(operation.op()));
+        Vault vault = needsVault ? openVault(options) : null;
+
+        return transactionTemplate.execute(status -> {
+            List<Object> results = new ArrayList<>(operations.size());
+            for (Operation operation : operations) {
+                try {
+                    Map<String, Object> result = new LinkedHashMap<>();
+                    result.put("op", operation.op());
+                    result.put("result", run(operation.op(), operation.params(), vault));
+                    results.add(result);
+                } catch (Exception e) {
+                    throw new BatchException(operation.line(), e);
+                }
+            }
+            return results;
+        });
+    }
+
+    private List<Operation> readOperations(String file) throws IOException {
+        BufferedReader reader = file == null || file.isEmpty() || file.equals("-")
+                ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))
+                : Files.newBufferedReader(Path.of(file), StandardCharsets.UTF_8);
+
+        List<Operation> operations = new ArrayList<>();
+        try (reader) {
+            String line;
+            int number = 0;
+            while ((line = reader.readLine()) != null) {
+                number++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                JsonNode node;
+                try {
+                    node = objectMapper.readTree(line);
+                } catch (JsonProcessingException e) {
+                    throw new BatchException(number, new IllegalArgumentException("Invalid JSON: " + e.getOriginalMessage()));
+                }
+                if (!node.isObject() || !node.hasNonNull("op")) {
+                    throw new BatchException(number, new IllegalArgumentException("Each line must be a JSON object with an \"op\" field"));
+                }
+                String op = node.get("op").asText();
+                if (op.equals("batch") || op.equals("help") || op.equals("calibrate-hashing") || !isCommand(op)) {
+                    throw new BatchException(number, new IllegalArgumentException("Unknown operation: " + op));
+                }
+
+                Map<String, String> params = new HashMap<>();
+                for (Iterator<Map.Entry<String, JsonNode>> fields = node.fields(); fields.hasNext(); ) {
+                    Map.Entry<String, JsonNode> field = fields.next();
+                    if (!field.getValue().isNull()) {
+                        params.put(field.getKey(), field.getValue().asText());
+                    }
+                }
+                operations.add(new Operation(number, op, params));
+            }
+        }
+        return operations;
+    }
+
+    private Object run(String command, Map<String, String> params, Vault vault) throws Exception {
+        return switch (command) {
+            case "get" -> get(params, vault);
+            case "add" -> add(params, vault);
+            case "delete" -> delete(params, vault);
+            case "list" -> list(params, vault);
+            case "search" -> passwordService.searchPasswords(vault.user(), required(params, "term"), intParam(params, "limit", 0));
+            case "audit" -> passwordAuditService.audit(vault.user(), vault.masterPassword());
+            case "generate" -> generate(params);
+            default -> throw new IllegalArgumentException("Unknown command: " + command + ", see 'help'");
+        };
+    }
+
+    private Map<String, Object> get(Map<String, String> params, Vault vault) throws Exception {
+        String serviceName = required(params, "service");
+        String username = params.containsKey("username") ? params.get("username") : onlyUsername(vault.user(), serviceName);
+
+        String password = passwordService.getPassword(vault.user(), serviceName, username, vault.masterPassword());
+        if (password == null) {
+            throw new RuntimeException("Password entry not found for service: " + serviceName + " and username: " + username);
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("service", serviceName);
+        result.put("username", username);
+        result.put("password", password);
+        return result;
+    }
+
+    private Object add(Map<String, String> params, Vault vault) throws Exception {
+        boolean generate = flag(params, "generate", false);
+        String password = generate
+                ? passwordGenerator.generate(policy(params))
+                : required(params, "password");
+
+        PasswordEntry entry = passwordService.addPassword(vault.user(), required(params, "service"),
+                required(params, "username"), password, params.get("notes"), params.get("category"), vault.dataKey());
+        PasswordEntrySummary summary = PasswordEntrySummary.from(entry);
+        // Hand a generated password back, the caller has no other way to learn it
+        return generate ? Map.of("entry", summary, "password", password) : summary;
+    }
+
+    private Map<String, Object> delete(Map<String, String> params, Vault vault) {
+        String serviceName = required(params, "service");
+        if (params.containsKey("username")) {
+            passwordService.deletePassword(vault.user(), serviceName, params.get("username"));
+        } else {
+            passwordService.deletePassword(vault.user(), serviceName);
+        }
+        return Map.of("deleted", true);
+    }
+
+    private List<PasswordEntrySummary> list(Map<String, String> params, Vault vault) {
+        String category = params.get("category");
+        List<PasswordEntrySummary> summaries = passwordService.getPasswordSummaries(vault.user());
+        return category == null ? summaries
+                : summaries.stream().filter(summary -> category.equalsIgnoreCase(summary.category())).toList();
+    }
+
+    private Map<String, Object> generate(Map<String, String> params) {
+        int count = intParam(params, "count", 1);
+        return Map.of("passwords", passwordGenerator.generate(count, policy(params)));
+    }
+
+    /**
+     * Measures this machine once and reports the BCrypt cost to configure; the running
+     * application never calibrates, so the cost stays the same across restarts and hosts
+     */
+    private Map<String, Object> calibrateHashing(Map<String, String> params) {
+        Duration target = Duration.ofMillis(intParam(params, "target-ms", (int) targetVerifyMs));
+        int strength = PasswordHashingService.calibrateBCrypt(target);
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("targetMs", target.toMillis());
+        result.put("strength", strength);
+        result.put("verifyMs", PasswordHashingService.measureBCrypt(strength, 3).toMillis());
+        result.put("property", "passvault.hashing.bcrypt.strength=" + strength);
+        return result;
+    }
+
+    private String onlyUsername(User user, String serviceName) {
+        List<String> usernames = passwordService.getPasswordSummaries(user).stream()
+                .filter(summary -> summary.serviceName().equals(serviceName))
+                .map(PasswordEntrySummary::username)
+                .toList();
+        if (usernames.isEmpty()) {
+            throw new RuntimeException("Password entry not found for service: " + serviceName);
+        }
+        if (usernames.size() > 1) {
+            throw new IllegalArgumentException("Several entries for service: " + serviceName + ", pass --username");
+        }
+        return usernames.get(0);
+    }
+
+    private Vault openVault(Map<String, String> options) throws Exception {
+        String username = options.containsKey("user") ? options.get("user") : System.getenv(USER_ENV);
+        if (username == null || username.isBlank()) {
+            throw new IllegalArgumentException("No user given, pass --user or set " + USER_ENV);
+        }
+        String masterPassword = masterPassword();
+
+        User user = userService.findByUsername(username.trim())
+                .orElseThrow(() -> new RuntimeException("Invalid username or password"));
+        // Checks the master password; the unwrapped key is cached for the rest of the process
+        SecretKey dataKey = vaultKeyService.unlock(user, masterPassword);
+        return new Vault(user, masterPassword, dataKey);
+    }
+
+    private static String masterPassword() {
+        String masterPassword = System.getenv(MASTER_PASSWORD_ENV);
+        if (masterPassword != null && !masterPassword.isEmpty()) {
+            return masterPassword;
+        }
+        Console console = System.console();
+        if (console == null) {
+            throw new IllegalArgumentException("No console to prompt on, set " + MASTER_PASSWORD_ENV);
+        }
+        char[] password = console.readPassword("Master password: ");
+        if (password == null || password.length == 0) {
+            throw new IllegalArgumentException("Master password cannot be empty");
+        }
+        return new String(password);
+    }
+
+    private static String required(Map<String, String> params, String name) {
+        String value = params.get(name);
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException("Missing --" + name);
+        }
+        return value;
+    }
+
+    private static boolean flag(Map<String, String> params, String name, boolean defaultValue) {
+        String value = params.get(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        // A bare --flag has an empty value
+        return value.isEmpty() || Boolean.parseBoolean(value);
+    }
+
+    private static int intParam(Map<String, String> params, String name, int defaultValue) {
+        String value = params.get(name);
+        if (value == null || value.isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("--" + name + " must be a number");
+        }
+    }
+
+    /**
+     * The policy of --category, adjusted by any policy options given
+     */
+    private PasswordPolicy policy(Map<String, String> params) {
+        if (params.containsKey("length") && intParam(params, "length", 0) > MAX_LENGTH) {
+            throw new IllegalArgumentException("Password length must be at most " + MAX_LENGTH + " characters");
+        }
+        return passwordPolicyService.resolve(params);
+    }
+
+    private void print(PrintStream out, Object value) throws IOException {
+        out.println(objectMapper.writeValueAsString(value));
+    }
+
+    private void printError(PrintStream err, Map<String, ?> error) {
+        try {
+            err.println(objectMapper.writeValueAsString(error));
+        } catch (IOException e) {
+            err.println(error);
+        }
+    }
+
+    private record Vault(User user, String masterPassword, SecretKey dataKey) {
+    }
+
+    private record Operation(int line, String op, Map<String, String> params) {
+    }
+
+    /**
+     * Carries the line of the batch input that failed
+     */
+    private static class BatchException extends RuntimeException {
+
+        private final int line;
+
+        BatchException(int line, Exception cause) {
+            super(cause.getMessage(), cause);
+            this.line = line;
+        }
+    }
+}
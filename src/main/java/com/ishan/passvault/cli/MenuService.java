@@ -1,12 +1,29 @@
 package com.ishan.passvault.cli;
 
-import com.ishan.passvault.model.PasswordEntry;
+import com.ishan.passvault.dto.KeyRotationStatus;
+import com.ishan.passvault.dto.PasswordAuditReport;
+import com.ishan.passvault.dto.PasswordEntrySummary;
+import com.ishan.passvault.dto.VaultImportResult;
 import com.ishan.passvault.model.User;
+import com.ishan.passvault.service.BreachCheckService;
+import com.ishan.passvault.service.KeyRotationService;
+import com.ishan.passvault.service.PasswordAuditService;
 import com.ishan.passvault.service.PasswordService;
+import com.ishan.passvault.service.PasswordStrengthService;
+import com.ishan.passvault.service.UserService;
+import com.ishan.passvault.service.VaultKeyService;
+import com.ishan.passvault.service.VaultTransferService;
 import com.ishan.passvault.util.PasswordGenerator;
+import com.ishan.passvault.util.StrengthEstimator;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.Scanner;
 
@@ -19,6 +36,27 @@ public class MenuService {
     @Autowired
     private PasswordGenerator passwordGenerator;
 
+    @Autowired
+    private VaultKeyService vaultKeyService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private KeyRotationService keyRotationService;
+
+    @Autowired
+    private VaultTransferService vaultTransferService;
+
+    @Autowired
+    private PasswordAuditService passwordAuditService;
+
+    @Autowired
+    private BreachCheckService breachCheckService;
+
+    @Autowired
+    private PasswordStrengthService passwordStrengthService;
+
     private String currentMasterPassword;
 
     public void showMainMenu(User user, Scanner scanner, Runnable logoutCallback) {
@@ -37,6 +75,8 @@ public class MenuService {
             System.out.println("6. Generate Secure Password");
             System.out.println("7. Password Security Audit");
             System.out.println("8. Change Master Password");
+            System.out.println("10. Export Vault Backup");
+            System.out.println("11. Import Vault Backup");
             System.out.println("9. Logout");
             System.out.println("0. Exit Application");
             System.out.print("\nChoose option: ");
@@ -50,11 +90,14 @@ public class MenuService {
                 case "4" -> handleUpdatePassword(user, scanner);
                 case "5" -> handleDeletePassword(user, scanner);
                 case "6" -> handleGeneratePassword(scanner);
-                case "7" -> handlePasswordAudit(user);
+                case "7" -> handlePasswordAudit(user, scanner);
                 case "8" -> handleChangeMasterPassword(user, scanner);
+                case "10" -> handleExportVault(user, scanner);
+                case "11" -> handleImportVault(user, scanner);
                 case "9" -> {
                     System.out.println("\n✓ Logged out successfully!");
                     currentMasterPassword = null;
+                    vaultKeyService.lock(user);
                     logoutCallback.run();
                     continueRunning = false;
                 }
@@ -101,6 +144,20 @@ public class MenuService {
                 }
             }
 
+            if (breachCheckService.isBreached(password)) {
+                System.out.println("⚠ This password appears in a known data breach.");
+                System.out.print("Use it anyway? (y/n): ");
+                if (!scanner.nextLine().trim().toLowerCase().startsWith("y")) {
+                    return;
+                }
+            } else if (passwordStrengthService.isWeak(password)) {
+                System.out.println("⚠ This password is easy to guess.");
+                System.out.print("Use it anyway? (y/n): ");
+                if (!scanner.nextLine().trim().toLowerCase().startsWith("y")) {
+                    return;
+                }
+            }
+
             System.out.print("Notes (optional): ");
             String notes = scanner.nextLine().trim();
 
@@ -134,23 +191,23 @@ public class MenuService {
 
             String password = passwordService.getPassword(user, serviceName, masterPassword);
 
-            // Find the full entry for additional details
-            List<PasswordEntry> entries = passwordService.getAllPasswords(user);
-            PasswordEntry entry = entries.stream()
-                    .filter(e -> e.getServiceName().equalsIgnoreCase(serviceName))
+            // Find the entry summary for additional details
+            List<PasswordEntrySummary> entries = passwordService.getPasswordSummaries(user);
+            PasswordEntrySummary entry = entries.stream()
+                    .filter(e -> e.serviceName().equalsIgnoreCase(serviceName))
                     .findFirst()
                     .orElse(null);
 
             if (entry != null) {
                 System.out.println("\n--- PASSWORD DETAILS ---");
-                System.out.println("Service: " + entry.getServiceName());
-                System.out.println("Username: " + entry.getUsername());
+                System.out.println("Service: " + entry.serviceName());
+                System.out.println("Username: " + entry.username());
                 System.out.println("Password: " + password);
-                if (entry.getNotes() != null && !entry.getNotes().isEmpty()) {
-                    System.out.println("Notes: " + entry.getNotes());
+                if (entry.notes() != null && !entry.notes().isEmpty()) {
+                    System.out.println("Notes: " + entry.notes());
                 }
-                System.out.println("Created: " + entry.getCreatedAt().toLocalDate());
-                System.out.println("Updated: " + entry.getUpdatedAt().toLocalDate());
+                System.out.println("Created: " + entry.createdAt().toLocalDate());
+                System.out.println("Updated: " + entry.updatedAt().toLocalDate());
             }
 
         } catch (Exception e) {
@@ -162,7 +219,7 @@ public class MenuService {
         try {
             System.out.println("\n--- ALL STORED SERVICES ---");
 
-            List<PasswordEntry> entries = passwordService.getAllPasswords(user);
+            List<PasswordEntrySummary> entries = passwordService.getPasswordSummaries(user);
 
             if (entries.isEmpty()) {
                 System.out.println("No password entries found.");
@@ -173,12 +230,12 @@ public class MenuService {
             System.out.println("-".repeat(65));
 
             for (int i = 0; i < entries.size(); i++) {
-                PasswordEntry entry = entries.get(i);
+                PasswordEntrySummary entry = entries.get(i);
                 System.out.printf("%-3d %-25s %-20s %-12s%n",
                         i + 1,
-                        truncateString(entry.getServiceName(), 24),
-                        truncateString(entry.getUsername(), 19),
-                        entry.getUpdatedAt().toLocalDate().toString()
+                        truncateString(entry.serviceName(), 24),
+                        truncateString(entry.username(), 19),
+                        entry.updatedAt().toLocalDate().toString()
                 );
             }
 
@@ -338,28 +395,62 @@ public class MenuService {
         System.out.println("Includes symbols: " + (includeSymbols ? "Yes" : "No"));
 
         // Analyze password strength
-        analyzePasswordStrength(password);
+        System.out.println(analyzePasswordStrength(password));
     }
 
-    private void handlePasswordAudit(User user) {
+    private void handlePasswordAudit(User user, Scanner scanner) {
         try {
             System.out.println("\n--- PASSWORD SECURITY AUDIT ---");
 
-            List<PasswordEntry> entries = passwordService.getAllPasswords(user);
+            String masterPassword = getMasterPassword(scanner);
+            if (masterPassword == null) return;
 
-            if (entries.isEmpty()) {
+            PasswordAuditReport report = passwordAuditService.audit(user, masterPassword);
+            if (report.totalEntries() == 0) {
                 System.out.println("No password entries to audit.");
                 return;
             }
 
-            System.out.println("Total entries: " + entries.size());
+            System.out.println("Total entries: " + report.totalEntries());
             System.out.println("Audit completed on: " + java.time.LocalDateTime.now());
 
-            // Note: For a full audit, you'd need to decrypt passwords which requires master password
             System.out.println("\n--- AUDIT SUMMARY ---");
-            System.out.println("✓ All passwords are encrypted and secure");
-            System.out.println("✓ No plain text passwords found");
-            System.out.println("ℹ For detailed password strength analysis, view individual entries");
+            if (report.reusedGroups().isEmpty()) {
+                System.out.println("✓ No reused passwords found");
+            } else {
+                System.out.println("⚠ " + report.reusedEntries() + " entries share a password with another entry:");
+                for (List<PasswordAuditReport.AuditedEntry> group : report.reusedGroups()) {
+                    System.out.println("  - " + group.stream()
+                            .map(entry -> entry.serviceName() + " (" + entry.username() + ")")
+                            .collect(java.util.stream.Collectors.joining(", ")));
+                }
+            }
+            if (report.breachCorpusChecked()) {
+                if (report.breachedEntries().isEmpty()) {
+                    System.out.println("✓ No passwords found in the breach corpus");
+                } else {
+                    System.out.println("✗ " + report.breachedEntries().size() + " passwords appear in known data breaches, change them:");
+                    for (PasswordAuditReport.AuditedEntry entry : report.breachedEntries()) {
+                        System.out.println("  - " + entry.serviceName() + " (" + entry.username() + ")");
+                    }
+                }
+            }
+            if (report.strengthChecked()) {
+                if (report.weakEntries().isEmpty()) {
+                    System.out.println("✓ No weak passwords found");
+                } else {
+                    System.out.println("⚠ " + report.weakEntries().size() + " passwords are easy to guess, consider regenerating them:");
+                    for (PasswordAuditReport.AuditedEntry entry : report.weakEntries()) {
+                        System.out.println("  - " + entry.serviceName() + " (" + entry.username() + ")");
+                    }
+                }
+            }
+            if (report.skippedEntries() > 0) {
+                System.out.println("ℹ " + report.skippedEntries() + " entries could not be checked");
+            }
+            if (report.rotationInProgress()) {
+                System.out.println("ℹ A key rotation is unfinished; run the audit again once it completes");
+            }
 
         } catch (Exception e) {
             System.out.println("\n✗ Error during audit: " + e.getMessage());
@@ -368,17 +459,126 @@ public class MenuService {
 
     private void handleChangeMasterPassword(User user, Scanner scanner) {
         System.out.println("\n--- CHANGE MASTER PASSWORD ---");
-        System.out.println("⚠ This feature requires re-encrypting all stored passwords.");
-        System.out.println("⚠ Make sure you remember your current master password.");
+        System.out.println("ℹ Stored passwords stay encrypted under your vault key; only the key is re-wrapped.");
+
+        System.out.print("Current master password: ");
+        String oldPassword = scanner.nextLine().trim();
 
-        System.out.print("Continue? (yes/no): ");
-        if (!scanner.nextLine().trim().toLowerCase().equals("yes")) {
-            System.out.println("✓ Operation cancelled.");
+        System.out.print("New master password: ");
+        String newPassword = scanner.nextLine().trim();
+
+        System.out.print("Confirm new master password: ");
+        if (newPassword.isEmpty() || !newPassword.equals(scanner.nextLine().trim())) {
+            System.out.println("✗ New passwords don't match!");
+            return;
+        }
+
+        try {
+            if (!userService.changePassword(user.getUsername(), oldPassword, newPassword)) {
+                System.out.println("✗ Master password could not be changed. Check your current password or finish a pending key rotation.");
+                return;
+            }
+        } catch (Exception e) {
+            System.out.println("\n✗ Error changing master password: " + e.getMessage());
             return;
         }
+        currentMasterPassword = null;
+        // The session copy still has the old hash and salt
+        userService.findByUsername(user.getUsername()).ifPresent(current -> {
+            user.setMasterPasswordHash(current.getMasterPasswordHash());
+            user.setSalt(current.getSalt());
+            user.setWrappedDataKey(current.getWrappedDataKey());
+        });
+        System.out.println("\n✓ Master password changed successfully!");
+
+        System.out.print("Also rotate the vault key and re-encrypt every entry? (yes/no): ");
+        if (scanner.nextLine().trim().equalsIgnoreCase("yes")) {
+            runKeyRotation(user, newPassword);
+        }
+    }
+
+    private void handleExportVault(User user, Scanner scanner) {
+        try {
+            System.out.println("\n--- EXPORT VAULT BACKUP ---");
+
+            String masterPassword = getMasterPassword(scanner);
+            if (masterPassword == null) return;
+
+            String defaultFile = "passvault-" + user.getUsername() + ".pvlt";
+            System.out.print("Export file (default " + defaultFile + "): ");
+            String file = scanner.nextLine().trim();
+            Path path = Path.of(file.isEmpty() ? defaultFile : file);
+
+            System.out.print("Export passphrase (Enter to use your master password): ");
+            String passphrase = scanner.nextLine().trim();
+
+            long start = System.nanoTime();
+            long exported;
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(path))) {
+                exported = vaultTransferService.exportVault(user, vaultKeyService.unlock(user, masterPassword),
+                        masterPassword, passphrase.isEmpty() ? masterPassword : passphrase, out);
+            }
+            System.out.printf("\n✓ Exported %d entries to %s in %d ms%n", exported, path.toAbsolutePath(),
+                    (System.nanoTime() - start) / 1_000_000);
+
+        } catch (Exception e) {
+            System.out.println("\n✗ Error exporting vault: " + e.getMessage());
+        }
+    }
+
+    private void handleImportVault(User user, Scanner scanner) {
+        try {
+            System.out.println("\n--- IMPORT VAULT BACKUP ---");
+
+            System.out.print("Export file: ");
+            Path path = Path.of(scanner.nextLine().trim());
+            if (!Files.isRegularFile(path)) {
+                System.out.println("✗ File not found: " + path);
+                return;
+            }
+
+            String masterPassword = getMasterPassword(scanner);
+            if (masterPassword == null) return;
+
+            System.out.print("Export passphrase (Enter if it was your master password): ");
+            String passphrase = scanner.nextLine().trim();
+
+            long start = System.nanoTime();
+            VaultImportResult result;
+            try (InputStream in = new BufferedInputStream(Files.newInputStream(path))) {
+                result = vaultTransferService.importVault(user, vaultKeyService.unlock(user, masterPassword),
+                        passphrase.isEmpty() ? masterPassword : passphrase, in);
+            }
+            System.out.printf("\n✓ Imported %d entries (%d skipped as duplicates or invalid) in %d ms%n",
+                    result.imported(), result.skipped(), (System.nanoTime() - start) / 1_000_000);
+
+        } catch (Exception e) {
+            System.out.println("\n✗ Error importing vault: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Resumes a key rotation that was interrupted, e.g. by a crash, right after login
+     * @param user The logged in user
+     * @param masterPassword The master password used to log in
+     */
+    public void resumeInterruptedRotation(User user, String masterPassword) {
+        if (keyRotationService.hasInterruptedRotation(user)) {
+            System.out.println("\nℹ A vault key rotation was interrupted, resuming from the last checkpoint...");
+            runKeyRotation(user, masterPassword);
+        }
+    }
 
-        System.out.println("ℹ This feature would be implemented in a production system");
-        System.out.println("ℹ It requires decrypting all passwords with old key and re-encrypting with new key");
+    private void runKeyRotation(User user, String masterPassword) {
+        try {
+            KeyRotationStatus status = keyRotationService.rotate(user, masterPassword, progress ->
+                    System.out.printf("\rRe-encrypting: %d/%d entries (%d%%)",
+                            progress.processedEntries(), progress.totalEntries(), progress.percentComplete()));
+            System.out.println("\n✓ Vault key rotated, " + status.processedEntries() + " entries re-encrypted.");
+        } catch (Exception e) {
+            System.out.println("\n✗ Key rotation stopped: " + e.getMessage());
+            System.out.println("ℹ Your passwords remain readable; the rotation resumes at your next login.");
+        }
     }
 
     private String getMasterPassword(Scanner scanner) {
@@ -399,56 +599,33 @@ public class MenuService {
         return masterPassword;
     }
 
-    private void analyzePasswordStrength(String password) {
-        int score = 0;
+    String analyzePasswordStrength(String password) {
+        StrengthEstimator.Estimate estimate = passwordStrengthService.estimate(password);
         StringBuilder feedback = new StringBuilder("\n--- PASSWORD STRENGTH ANALYSIS ---\n");
 
-        // Length check
-        if (password.length() >= 12) {
-            score += 2;
-            feedback.append("✓ Good length (12+ characters)\n");
-        } else if (password.length() >= 8) {
-            score += 1;
-            feedback.append("⚠ Adequate length (8+ characters)\n");
-        } else {
-            feedback.append("✗ Too short (less than 8 characters)\n");
-        }
-
-        // Character variety checks
-        if (password.matches(".*[a-z].*")) {
-            score += 1;
-            feedback.append("✓ Contains lowercase letters\n");
+        if (estimate.score() >= 3) {
+            feedback.append("✓ Not based on common words or patterns\n");
         }
-
-        if (password.matches(".*[A-Z].*")) {
-            score += 1;
-            feedback.append("✓ Contains uppercase letters\n");
-        }
-
-        if (password.matches(".*\\d.*")) {
-            score += 1;
-            feedback.append("✓ Contains numbers\n");
-        }
-
-        if (password.matches(".*[!@#$%^&*()_+\\-=\\[\\]{}|;:,.<>?].*")) {
-            score += 1;
-            feedback.append("✓ Contains special characters\n");
+        for (String line : estimate.feedback()) {
+            feedback.append(estimate.score() >= 3 ? "ℹ " : "⚠ ").append(line).append('\n');
         }
+        feedback.append(String.format("Estimated entropy: %.1f bits%n", estimate.entropyBits()));
+        feedback.append("Time to crack offline: ").append(estimate.crackTimeDisplay()).append('\n');
 
         // Overall strength
         String strength;
-        if (score >= 5) {
+        if (estimate.score() >= 4) {
             strength = "STRONG";
-        } else if (score >= 3) {
+        } else if (estimate.score() >= PasswordStrengthService.WEAK_BELOW_SCORE) {
             strength = "MODERATE";
         } else {
             strength = "WEAK";
         }
 
         feedback.append("\nOverall Strength: ").append(strength);
-        feedback.append(" (Score: ").append(score).append("/6)");
+        feedback.append(" (Score: ").append(estimate.score()).append("/4)");
 
-        System.out.println(feedback.toString());
+        return feedback.toString();
     }
 
     private String truncateString(String str, int maxLength) {
@@ -6,9 +6,15 @@ import com.ishan.passvault.model.User;
 import com.ishan.passvault.service.PasswordService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
 import org.springframework.stereotype.Component;
 
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.List;
 import java.util.Scanner;
 
 @Component
@@ -17,6 +23,13 @@ public class PasswordVaultCLI implements CommandLineRunner {
     @Value("${passvault.mode:web}")
     private String mode;
 
+    // Set by the cli-startup build profile: report the time to reach the menu and exit
+    @Value("${passvault.cli.startup-check:false}")
+    private boolean startupCheck;
+
+    @Value("${passvault.cli.startup-target-ms:2000}")
+    private long startupTargetMs;
+
     @Autowired
     private AuthenticationService authService;
 
@@ -29,6 +42,15 @@ public class PasswordVaultCLI implements CommandLineRunner {
     @Autowired
     private MenuService menuService;
 
+    @Autowired
+    private CommandService commandService;
+
+    @Autowired
+    private ApplicationArguments applicationArguments;
+
+    @Autowired
+    private ApplicationContext context;
+
     private Scanner scanner = new Scanner(System.in);
     private User currentUser = null;
 
@@ -41,10 +63,20 @@ public class PasswordVaultCLI implements CommandLineRunner {
             return;
         }
 
+        List<String> commands = applicationArguments.getNonOptionArgs();
+        if (!commands.isEmpty()) {
+            exit(runCommand());
+        }
+
         System.out.println("=================================");
         System.out.println(" ISHAN's SECURE PASSWORD VAULT CLI");
         System.out.println("=================================");
 
+        if (startupCheck) {
+            checkStartupTime();
+            exit(0);
+        }
+
         while (true) {
             if(currentUser == null) {
                 showLoginMenu();
@@ -85,6 +117,7 @@ public class PasswordVaultCLI implements CommandLineRunner {
         try {
             currentUser = authService.authenticate(username, password);
             System.out.println("\n✓ Login successful! Welcome " + currentUser.getUsername());
+            menuService.resumeInterruptedRotation(currentUser, password);
         } catch (Exception e) {
             System.out.println("\n✗ Login failed: " + e.getMessage());
         }
@@ -113,6 +146,33 @@ public class PasswordVaultCLI implements CommandLineRunner {
         }
     }
 
+    private void checkStartupTime() {
+        // JVM uptime covers everything up to the first prompt, including class loading and the vault open
+        long uptime = ManagementFactory.getRuntimeMXBean().getUptime();
+        System.out.printf("Startup time: %d ms (target %d ms)%n", uptime, startupTargetMs);
+        if (uptime > startupTargetMs) {
+            throw new IllegalStateException("CLI startup took " + uptime + " ms, above the " + startupTargetMs + " ms target");
+        }
+    }
+
+    private int runCommand() {
+        // Logs go to whatever System.out is at write time; point it at stderr while the command
+        // runs so stdout carries nothing but the JSON result
+        PrintStream stdout = System.out;
+        System.setOut(System.err);
+        try {
+            return commandService.execute(applicationArguments, stdout, System.err);
+        } finally {
+            stdout.flush();
+            System.setOut(stdout);
+        }
+    }
+
+    private void exit(int code) {
+        // Close the context first so the vault file is released and scheduled flushes run
+        System.exit(SpringApplication.exit(context, () -> code));
+    }
+
     private void showMainMenu() {
         menuService.showMainMenu(currentUser, scanner, () -> currentUser = null);
     }
@@ -0,0 +1,35 @@
+package com.ishan.passvault.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class CryptoExecutorConfig {
+
+    /**
+     * Bounded pool for CPU-bound crypto work such as bulk decryption.
+     * Sized to the core count by default; when the queue is full the caller runs the task itself.
+     * Boot keeps its own applicationTaskExecutor beside this bean only because of
+     * {@code spring.task.execution.mode=force}.
+     */
+    @Bean(name = "cryptoExecutor")
+    public ThreadPoolTaskExecutor cryptoExecutor(
+            @Value("${passvault.crypto.executor.threads:0}") int threads,
+            @Value("${passvault.crypto.executor.queue-capacity:256}") int queueCapacity) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("crypto-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.initialize();
+        return executor;
+    }
+}
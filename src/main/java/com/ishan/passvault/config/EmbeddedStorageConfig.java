@@ -0,0 +1,54 @@
+package com.ishan.passvault.config;
+
+import com.ishan.passvault.repository.KeyRotationRepository;
+import com.ishan.passvault.repository.PasswordEntryRepository;
+import com.ishan.passvault.repository.UserRepository;
+import com.ishan.passvault.repository.embedded.EmbeddedKeyRotationRepository;
+import com.ishan.passvault.repository.embedded.EmbeddedPasswordEntryRepository;
+import com.ishan.passvault.repository.embedded.EmbeddedTransactionManager;
+import com.ishan.passvault.repository.embedded.EmbeddedUserRepository;
+import com.ishan.passvault.repository.embedded.EmbeddedVaultStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Single-file storage for CLI use, selected with {@code passvault.storage=embedded}. Needs no
+ * database server; the JDBC and JPA auto-configuration is excluded in the {@code cli} profile.
+ */
+@Configuration
+@ConditionalOnProperty(name = "passvault.storage", havingValue = "embedded")
+public class EmbeddedStorageConfig {
+
+    @Bean(destroyMethod = "close")
+    public EmbeddedVaultStore embeddedVaultStore(
+            @Value("${passvault.storage.embedded.path:${user.home}/.passvault/vault.db}") String path,
+            @Value("${passvault.storage.embedded.sync:true}") boolean sync) throws IOException {
+        return new EmbeddedVaultStore(Path.of(path), sync);
+    }
+
+    @Bean(name = "transactionManager")
+    public PlatformTransactionManager transactionManager(EmbeddedVaultStore store) {
+        return new EmbeddedTransactionManager(store);
+    }
+
+    @Bean
+    public UserRepository userRepository(EmbeddedVaultStore store) {
+        return new EmbeddedUserRepository(store);
+    }
+
+    @Bean
+    public PasswordEntryRepository passwordEntryRepository(EmbeddedVaultStore store) {
+        return new EmbeddedPasswordEntryRepository(store);
+    }
+
+    @Bean
+    public KeyRotationRepository keyRotationRepository(EmbeddedVaultStore store) {
+        return new EmbeddedKeyRotationRepository(store);
+    }
+}
@@ -0,0 +1,57 @@
+package com.ishan.passvault.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Moves the id sequences past the existing rows. Databases created while ids came from
+ * IDENTITY columns already hold rows, but {@code ddl-auto=update} creates the new sequences
+ * starting at 1, so without this the first batch of inserts would collide with old ids.
+ * Runs once per startup, after Hibernate has updated the schema, and is a no-op once the
+ * sequences are ahead.
+ */
+@Component
+@ConditionalOnProperty(name = "passvault.storage", havingValue = "jpa", matchIfMissing = true)
+@Slf4j
+public class IdSequenceInitializer {
+
+    // Must match allocationSize of the entities' @SequenceGenerator
+    private static final int ALLOCATION_SIZE = 50;
+
+    private static final String[][] SEQUENCES = {
+        {"users_seq", "users"},
+        {"password_entries_seq", "password_entries"}
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Depending on the EntityManagerFactory guarantees the schema update has run
+    public IdSequenceInitializer(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void alignSequences() {
+        for (String[] sequence : SEQUENCES) {
+            String name = sequence[0];
+            String table = sequence[1];
+            try {
+                Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+                Long lastValue = jdbcTemplate.queryForObject("SELECT last_value FROM " + name, Long.class);
+                if (maxId != null && maxId > 0 && lastValue != null && lastValue < maxId + ALLOCATION_SIZE) {
+                    // The pooled optimizer hands out the block ending at the value nextval returns,
+                    // so the sequence has to sit at least one allocation above the highest id
+                    jdbcTemplate.queryForObject("SELECT setval(?, ?)", Long.class, name, maxId + ALLOCATION_SIZE);
+                    log.info("Moved sequence {} past existing id {}", name, maxId);
+                }
+            } catch (DataAccessException e) {
+                log.warn("Could not align sequence {}: {}", name, e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.ishan.passvault.config;
+
+import com.ishan.passvault.repository.jpa.JpaUserRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+/**
+ * Default storage: Spring Data JPA repositories over PostgreSQL
+ */
+@Configuration
+@ConditionalOnProperty(name = "passvault.storage", havingValue = "jpa", matchIfMissing = true)
+@EnableJpaRepositories(basePackageClasses = JpaUserRepository.class)
+public class JpaStorageConfig {
+}
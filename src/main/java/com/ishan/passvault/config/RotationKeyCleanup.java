@@ -0,0 +1,42 @@
+package com.ishan.passvault.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Removes the copies of data keys left in completed key rotations. Databases created before the
+ * column became nullable still have it NOT NULL, which {@code ddl-auto=update} does not relax, and
+ * rotations completed back then still hold the key. Runs once per startup, after Hibernate has
+ * updated the schema, and is a no-op once both are done.
+ */
+@Component
+@ConditionalOnProperty(name = "passvault.storage", havingValue = "jpa", matchIfMissing = true)
+@Slf4j
+public class RotationKeyCleanup {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Depending on the EntityManagerFactory guarantees the schema update has run
+    public RotationKeyCleanup(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void clearCompletedKeys() {
+        try {
+            jdbcTemplate.execute("ALTER TABLE key_rotations ALTER COLUMN wrapped_data_key DROP NOT NULL");
+            int cleared = jdbcTemplate.update(
+                    "UPDATE key_rotations SET wrapped_data_key = NULL WHERE completed_at IS NOT NULL AND wrapped_data_key IS NOT NULL");
+            if (cleared > 0) {
+                log.info("Cleared the data key of {} completed key rotations", cleared);
+            }
+        } catch (DataAccessException e) {
+            log.warn("Could not clear data keys of completed key rotations: {}", e.getMessage());
+        }
+    }
+}
@@ -1,17 +1,16 @@
 package com.ishan.passvault.config;
 
-import org.springframework.context.annotation.Bean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 
+/**
+ * The password encoder is provided by {@link com.ishan.passvault.service.PasswordHashingService},
+ * so registration, login and vault unlock all hash with the same configured algorithm and cost.
+ * Skipped when the CLI runs without a web server.
+ */
 @Configuration
+@ConditionalOnWebApplication
 @EnableWebSecurity
 public class SecurityConfig {
-
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder(12);
-    }
 }
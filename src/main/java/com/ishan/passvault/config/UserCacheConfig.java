@@ -0,0 +1,81 @@
+package com.ishan.passvault.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import com.ishan.passvault.model.User;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.net.URI;
+import java.time.Duration;
+import java.util.OptionalLong;
+
+/**
+ * Hibernate second-level cache for users, by id and by username (the natural id), so the user
+ * lookup at the start of every request is served from memory. Regions are Caffeine caches behind
+ * JCache, bounded by {@code passvault.user-cache.max-entries} and expired after
+ * {@code passvault.user-cache.ttl-minutes}. Hibernate keeps them consistent: entity writes update the
+ * cached user, and bulk updates such as {@code updateUserStatus} evict the region. Hits and misses
+ * are published as {@code cache.gets}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "passvault.storage", havingValue = "jpa", matchIfMissing = true)
+public class UserCacheConfig {
+
+    @Bean(destroyMethod = "close")
+    public CacheManager userCacheManager(
+            @Value("${passvault.user-cache.max-entries:10000}") long maxEntries,
+            @Value("${passvault.user-cache.ttl-minutes:10}") long ttlMinutes,
+            MeterRegistry meterRegistry) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("User cache size must be at least 1");
+        }
+        if (ttlMinutes < 1) {
+            throw new IllegalArgumentException("User cache TTL must be positive");
+        }
+        CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        CacheManager cacheManager = provider.getCacheManager(URI.create("passvault-user-cache"), getClass().getClassLoader());
+
+        long ttlNanos = Duration.ofMinutes(ttlMinutes).toNanos();
+        monitor(cacheManager.createCache(User.CACHE_REGION, bounded(maxEntries, ttlNanos)), meterRegistry);
+        monitor(cacheManager.createCache(User.NATURAL_ID_CACHE_REGION, bounded(maxEntries, ttlNanos)), meterRegistry);
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer userCacheProperties(CacheManager userCacheManager) {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            properties.put(ConfigSettings.CACHE_MANAGER, userCacheManager);
+            // Every region is created above, so nothing falls back to an unbounded default
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+        };
+    }
+
+    private static CaffeineConfiguration<Object, Object> bounded(long maxEntries, long ttlNanos) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(maxEntries));
+        configuration.setExpireAfterWrite(OptionalLong.of(ttlNanos));
+        // Hibernate already caches disassembled state, copying it again would only cost time
+        configuration.setStoreByValue(false);
+        configuration.setStatisticsEnabled(true);
+        return configuration;
+    }
+
+    private static void monitor(Cache<Object, Object> cache, MeterRegistry meterRegistry) {
+        JCacheMetrics.monitor(meterRegistry, cache, Tags.empty());
+    }
+}
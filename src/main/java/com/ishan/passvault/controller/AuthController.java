@@ -1,5 +1,6 @@
 package com.ishan.passvault.controller;
 
+import com.ishan.passvault.dto.UserResponse;
 import com.ishan.passvault.model.User;
 import com.ishan.passvault.service.AuthenticationService;
 import com.ishan.passvault.service.UserService;
@@ -28,7 +29,7 @@ public class AuthController {
             String password = credentials.get("password");
 
             User user = authService.authenticate(username, password);
-            return ResponseEntity.ok(user);
+            return ResponseEntity.ok(UserResponse.from(user));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(Map.of("message", e.getMessage()));
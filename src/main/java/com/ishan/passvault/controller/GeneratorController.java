@@ -0,0 +1,93 @@
+package com.ishan.passvault.controller;
+
+import com.ishan.passvault.service.PasswordPolicyService;
+import com.ishan.passvault.service.PasswordStrengthService;
+import com.ishan.passvault.util.PasswordGenerator;
+import com.ishan.passvault.util.PasswordPolicy;
+import com.ishan.passvault.util.StrengthEstimator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/generator")
+@CrossOrigin(origins = "*")
+public class GeneratorController {
+
+    private static final int MAX_PASSWORD_LENGTH = 1000;
+
+    @Autowired
+    private PasswordGenerator passwordGenerator;
+
+    @Autowired
+    private PasswordPolicyService passwordPolicyService;
+
+    @Autowired
+    private PasswordStrengthService passwordStrengthService;
+
+    /**
+     * Generates passwords without storing them, e.g. to provision many service accounts at once.
+     * Body fields are all optional: {@code count} (1), {@code category} to start from the policy of
+     * that category, and the policy fields of {@link PasswordPolicyService#resolve(Map)}.
+     */
+    @PostMapping
+    public ResponseEntity<?> generate(@RequestBody(required = false) Map<String, String> data) {
+        try {
+            Map<String, String> params = data == null ? Map.of() : data;
+            int count = intParam(params, "count", 1);
+            PasswordPolicy policy = passwordPolicyService.resolve(params);
+
+            List<String> passwords = passwordGenerator.generate(count, policy);
+            return ResponseEntity.ok(Map.of("passwords", passwords));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    /**
+     * Estimates how guessable a password is, e.g. to rate one while it is typed. The password is
+     * neither stored nor logged.
+     */
+    @PostMapping("/strength")
+    public ResponseEntity<?> strength(@RequestBody Map<String, String> data) {
+        try {
+            String password = data.get("password");
+            if (password == null) {
+                throw new IllegalArgumentException("Password is required");
+            }
+            if (password.length() > MAX_PASSWORD_LENGTH) {
+                throw new IllegalArgumentException("Password cannot exceed " + MAX_PASSWORD_LENGTH + " characters");
+            }
+            StrengthEstimator.Estimate estimate = passwordStrengthService.estimate(password);
+
+            Map<String, Object> response = new LinkedHashMap<>();
+            response.put("score", estimate.score());
+            response.put("entropyBits", Math.round(estimate.entropyBits() * 10) / 10.0);
+            response.put("crackTime", estimate.crackTimeDisplay());
+            response.put("patterns", estimate.matches().stream().map(match -> match.pattern().name().toLowerCase()).distinct().toList());
+            response.put("feedback", estimate.feedback());
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    private static int intParam(Map<String, String> params, String name, int defaultValue) {
+        String value = params.get(name);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " must be a number");
+        }
+    }
+}
@@ -1,14 +1,37 @@
 package com.ishan.passvault.controller;
 
+import com.ishan.passvault.dto.BulkPasswordRequest;
+import com.ishan.passvault.dto.DecryptedPasswordEntry;
+import com.ishan.passvault.dto.KeyRotationStatus;
+import com.ishan.passvault.dto.PageCursor;
+import com.ishan.passvault.dto.PasswordEntrySummary;
+import com.ishan.passvault.dto.PasswordPage;
+import com.ishan.passvault.dto.VaultImportResult;
 import com.ishan.passvault.model.PasswordEntry;
 import com.ishan.passvault.model.User;
 import com.ishan.passvault.repository.UserRepository;
+import com.ishan.passvault.service.KeyRotationService;
+import com.ishan.passvault.service.PasswordAuditService;
 import com.ishan.passvault.service.PasswordService;
+import com.ishan.passvault.service.VaultSessionException;
+import com.ishan.passvault.service.VaultSessionService;
+import com.ishan.passvault.service.VaultTransferService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.FieldError;
+import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import javax.crypto.SecretKey;
+import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 
@@ -17,29 +40,88 @@ import java.util.Map;
 @CrossOrigin(origins = "*")
 public class PasswordController {
 
+    static final String VAULT_TOKEN_HEADER = "X-Vault-Token";
+    static final String EXPORT_PASSWORD_HEADER = "X-Export-Password";
+
     @Autowired
     private PasswordService passwordService;
 
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private VaultSessionService vaultSessionService;
+
+    @Autowired
+    private KeyRotationService keyRotationService;
+
+    @Autowired
+    private VaultTransferService vaultTransferService;
+
+    @Autowired
+    private PasswordAuditService passwordAuditService;
+
+    @Value("${passvault.pagination.default-page-size:50}")
+    private int defaultPageSize;
+
+    @Value("${passvault.pagination.max-page-size:500}")
+    private int maxPageSize;
+
     @GetMapping("/{userId}")
-    public ResponseEntity<?> getAllPasswords(@PathVariable Long userId) {
+    public ResponseEntity<?> getAllPasswords(
+            @PathVariable Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
         try {
             User user = userRepository.findById(userId)
                     .orElseThrow(() -> new RuntimeException("User not found"));
 
-            List<PasswordEntry> passwords = passwordService.getAllPasswords(user);
-            return ResponseEntity.ok(passwords);
+            int pageSize = Math.min(size != null && size > 0 ? size : defaultPageSize, maxPageSize);
+            PageCursor after = cursor != null && !cursor.isBlank() ? PageCursor.decode(cursor) : null;
+
+            Slice<PasswordEntrySummary> slice = passwordService.getPasswordsPage(user, after, pageSize);
+            List<PasswordEntrySummary> items = slice.getContent();
+            String nextCursor = slice.hasNext() && !items.isEmpty()
+                    ? new PageCursor(items.get(items.size() - 1).serviceName(), items.get(items.size() - 1).id()).encode()
+                    : null;
+            // Count only once per listing, later pages reuse the client's copy
+            Long totalCount = after == null ? passwordService.getPasswordCount(user) : null;
+
+            return ResponseEntity.ok(new PasswordPage<>(items, nextCursor, slice.hasNext(), totalCount));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                     .body(Map.of("message", e.getMessage()));
         }
     }
 
+    @PostMapping("/{userId}/unlock")
+    public ResponseEntity<?> unlockVault(
+            @PathVariable Long userId,
+            @RequestBody Map<String, String> data) {
+        try {
+            User user = userRepository.findById(userId)
+                    .orElseThrow(() -> new RuntimeException("User not found"));
+
+            VaultSessionService.UnlockResult session = vaultSessionService.unlock(user, data.get("masterPassword"));
+            return ResponseEntity.ok(Map.of("token", session.token(), "expiresAt", session.expiresAt().toString()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    @PostMapping("/{userId}/lock")
+    public ResponseEntity<?> lockVault(
+            @PathVariable Long userId,
+            @RequestHeader(value = VAULT_TOKEN_HEADER, required = false) String vaultToken) {
+        vaultSessionService.lock(vaultToken);
+        return ResponseEntity.ok(Map.of("message", "Vault locked"));
+    }
+
     @PostMapping("/{userId}")
     public ResponseEntity<?> addPassword(
             @PathVariable Long userId,
+            @RequestHeader(value = VAULT_TOKEN_HEADER, required = false) String vaultToken,
             @RequestBody Map<String, String> data) {
         try {
             User user = userRepository.findById(userId)
@@ -52,10 +134,38 @@ public class PasswordController {
                     data.get("password"),
                     data.get("notes"),
                     data.get("category"),
-                    data.get("masterPassword")
+                    vaultSessionService.resolve(user, vaultToken, data.get("masterPassword"))
             );
 
-            return ResponseEntity.ok(entry);
+            return ResponseEntity.ok(PasswordEntrySummary.from(entry));
+        } catch (VaultSessionException e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("message", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    @PostMapping("/{userId}/bulk")
+    public ResponseEntity<?> addPasswords(
+            @PathVariable Long userId,
+            @RequestHeader(value = VAULT_TOKEN_HEADER, required = false) String vaultToken,
+            @Valid @RequestBody BulkPasswordRequest request) {
+        try {
+            User user = userRepository.findById(userId)
+                    .orElseThrow(() -> new RuntimeException("User not found"));
+            if (request.entries() == null || request.entries().isEmpty()) {
+                throw new IllegalArgumentException("No entries to add");
+            }
+
+            int added = passwordService.addPasswords(user, request.entries(),
+                    vaultSessionService.resolve(user, vaultToken, request.masterPassword()));
+
+            return ResponseEntity.ok(Map.of("added", added));
+        } catch (VaultSessionException e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("message", e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                     .body(Map.of("message", e.getMessage()));
@@ -65,19 +175,161 @@ public class PasswordController {
     @PostMapping("/{userId}/decrypt")
     public ResponseEntity<?> getDecryptedPassword(
             @PathVariable Long userId,
+            @RequestHeader(value = VAULT_TOKEN_HEADER, required = false) String vaultToken,
             @RequestBody Map<String, String> data) {
         try {
             User user = userRepository.findById(userId)
                     .orElseThrow(() -> new RuntimeException("User not found"));
 
-            String password = passwordService.getPassword(
-                    user,
-                    data.get("serviceName"),
-                    data.get("username"),
-                    data.get("masterPassword")
-            );
+            // With a session token only the cached data key is used; no KDF, no BCrypt
+            String password = vaultToken != null
+                    ? passwordService.getPassword(user, data.get("serviceName"), data.get("username"),
+                            vaultSessionService.resolve(user, vaultToken))
+                    : passwordService.getPassword(user, data.get("serviceName"), data.get("username"),
+                            data.get("masterPassword"));
 
             return ResponseEntity.ok(password);
+        } catch (VaultSessionException e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("message", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    @PostMapping("/{userId}/decrypt-all")
+    public ResponseEntity<?> decryptAllPasswords(
+            @PathVariable Long userId,
+            @RequestHeader(value = VAULT_TOKEN_HEADER, required = false) String vaultToken,
+            @RequestBody(required = false) Map<String, String> data) {
+        try {
+            User user = userRepository.findById(userId)
+                    .orElseThrow(() -> new RuntimeException("User not found"));
+
+            List<DecryptedPasswordEntry> passwords = vaultToken != null
+                    ? passwordService.decryptAll(user, vaultSessionService.resolve(user, vaultToken))
+                    : passwordService.decryptAll(user, data != null ? data.get("masterPassword") : null);
+            return ResponseEntity.ok(passwords);
+        } catch (VaultSessionException e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("message", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    @PostMapping("/{userId}/audit")
+    public ResponseEntity<?> auditPasswords(
+            @PathVariable Long userId,
+            @RequestHeader(value = VAULT_TOKEN_HEADER, required = false) String vaultToken,
+            @RequestBody(required = false) Map<String, String> data) {
+        try {
+            User user = userRepository.findById(userId)
+                    .orElseThrow(() -> new RuntimeException("User not found"));
+
+            return ResponseEntity.ok(vaultToken != null
+                    ? passwordAuditService.audit(user, vaultSessionService.resolve(user, vaultToken))
+                    : passwordAuditService.audit(user, data != null ? data.get("masterPassword") : null));
+        } catch (VaultSessionException e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("message", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    @PostMapping("/{userId}/rotation")
+    public ResponseEntity<?> startKeyRotation(
+            @PathVariable Long userId,
+            @RequestBody Map<String, String> data) {
+        try {
+            User user = userRepository.findById(userId)
+                    .orElseThrow(() -> new RuntimeException("User not found"));
+
+            KeyRotationStatus status = keyRotationService.startRotation(user, data.get("masterPassword"));
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(status);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/{userId}/rotation")
+    public ResponseEntity<?> getKeyRotationStatus(@PathVariable Long userId) {
+        try {
+            User user = userRepository.findById(userId)
+                    .orElseThrow(() -> new RuntimeException("User not found"));
+
+            return keyRotationService.getStatus(user)
+                    .<ResponseEntity<?>>map(ResponseEntity::ok)
+                    .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
+                            .body(Map.of("message", "No key rotation for this vault")));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    @PostMapping("/{userId}/export")
+    public ResponseEntity<?> exportVault(
+            @PathVariable Long userId,
+            @RequestHeader(value = VAULT_TOKEN_HEADER, required = false) String vaultToken,
+            @RequestBody Map<String, String> data) {
+        try {
+            User user = userRepository.findById(userId)
+                    .orElseThrow(() -> new RuntimeException("User not found"));
+
+            String masterPassword = data.get("masterPassword");
+            SecretKey dataKey = vaultSessionService.resolve(user, vaultToken, masterPassword);
+            // Without a separate export password the file is protected by the master password
+            String exportPassword = data.get("exportPassword") != null ? data.get("exportPassword") : masterPassword;
+            // Errors inside the body would surface only after the 200 headers are sent
+            VaultTransferService.requirePassphrase(exportPassword);
+
+            // Written straight to the response while rows are streamed from the database
+            StreamingResponseBody body = out -> {
+                try {
+                    vaultTransferService.exportVault(user, dataKey, masterPassword, exportPassword, out);
+                } catch (IOException e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw new IOException("Export failed: " + e.getMessage(), e);
+                }
+            };
+            return ResponseEntity.ok()
+                    .header(HttpHeaders.CONTENT_DISPOSITION,
+                            "attachment; filename=\"passvault-" + user.getUsername() + ".pvlt\"")
+                    .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                    .body(body);
+        } catch (VaultSessionException e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("message", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    @PostMapping(value = "/{userId}/import", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<?> importVault(
+            @PathVariable Long userId,
+            @RequestHeader(VAULT_TOKEN_HEADER) String vaultToken,
+            @RequestHeader(EXPORT_PASSWORD_HEADER) String exportPassword,
+            HttpServletRequest request) {
+        try {
+            User user = userRepository.findById(userId)
+                    .orElseThrow(() -> new RuntimeException("User not found"));
+
+            SecretKey dataKey = vaultSessionService.resolve(user, vaultToken);
+            VaultImportResult result = vaultTransferService.importVault(user, dataKey, exportPassword,
+                    request.getInputStream());
+            return ResponseEntity.ok(result);
+        } catch (VaultSessionException e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("message", e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                     .body(Map.of("message", e.getMessage()));
@@ -108,16 +360,25 @@ public class PasswordController {
     @GetMapping("/{userId}/search")
     public ResponseEntity<?> searchPasswords(
             @PathVariable Long userId,
-            @RequestParam String q) {
+            @RequestParam String q,
+            @RequestParam(defaultValue = "0") int limit) {
         try {
             User user = userRepository.findById(userId)
                     .orElseThrow(() -> new RuntimeException("User not found"));
 
-            List<PasswordEntry> passwords = passwordService.searchPasswords(user, q);
+            List<PasswordEntrySummary> passwords = passwordService.searchPasswords(user, q, limit);
             return ResponseEntity.ok(passwords);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                     .body(Map.of("message", e.getMessage()));
         }
     }
+
+    @ExceptionHandler(MethodArgumentNotValidException.class)
+    public ResponseEntity<?> handleInvalidBody(MethodArgumentNotValidException e) {
+        FieldError error = e.getBindingResult().getFieldError();
+        String message = error == null ? "Invalid request" : error.getField() + ": " + error.getDefaultMessage();
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(Map.of("message", message));
+    }
 }
@@ -0,0 +1,13 @@
+package com.ishan.passvault.dto;
+
+import jakarta.validation.Valid;
+
+import java.util.List;
+
+/**
+ * Body of a bulk add
+ * @param masterPassword The master password; may be omitted with a vault session token
+ * @param entries The entries to add, each checked against its field constraints
+ */
+public record BulkPasswordRequest(String masterPassword, List<@Valid NewPasswordEntry> entries) {
+}
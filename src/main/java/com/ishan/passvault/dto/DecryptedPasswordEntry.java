@@ -0,0 +1,10 @@
+package com.ishan.passvault.dto;
+
+public record DecryptedPasswordEntry(
+        Long id,
+        String serviceName,
+        String username,
+        String password,
+        String category
+) {
+}
@@ -0,0 +1,7 @@
+package com.ishan.passvault.dto;
+
+/**
+ * Id and ciphertext of an entry, all a re-encryption pass needs to read
+ */
+public record EncryptedPasswordRef(Long id, String encryptedPassword) {
+}
@@ -0,0 +1,28 @@
+package com.ishan.passvault.dto;
+
+import com.ishan.passvault.model.KeyRotation;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progress of a data key rotation as reported to the CLI and REST clients
+ */
+public record KeyRotationStatus(
+        String status,
+        long processedEntries,
+        long totalEntries,
+        int percentComplete,
+        boolean running,
+        LocalDateTime startedAt,
+        LocalDateTime completedAt,
+        String error
+) {
+
+    public static KeyRotationStatus from(KeyRotation rotation, boolean running) {
+        long total = rotation.getTotalEntries();
+        long processed = Math.min(rotation.getProcessedEntries(), total);
+        int percent = total == 0 ? 100 : (int) (processed * 100 / total);
+        return new KeyRotationStatus(rotation.getStatus().name(), processed, total, percent, running,
+                rotation.getStartedAt(), rotation.getCompletedAt(), rotation.getError());
+    }
+}
@@ -0,0 +1,34 @@
+package com.ishan.passvault.dto;
+
+import com.ishan.passvault.util.InputScanner;
+import com.ishan.passvault.util.SafeInput;
+import jakarta.validation.constraints.Size;
+
+/**
+ * One entry of a bulk add, in plain text
+ * @param serviceName Service the credentials belong to
+ * @param username Username for the service
+ * @param password The password, encrypted before it is stored
+ * @param notes Optional notes
+ * @param category Optional category
+ */
+public record NewPasswordEntry(
+        @Size(max = 100, message = "Service name must not exceed 100 characters")
+        @SafeInput(message = "Service name contains invalid characters")
+        String serviceName,
+
+        @Size(max = 100, message = "Username must not exceed 100 characters")
+        @SafeInput(message = "Username contains invalid characters")
+        String username,
+
+        @SafeInput(reject = InputScanner.Violation.NULL_BYTE, message = "Password contains invalid characters")
+        String password,
+
+        @Size(max = 500, message = "Notes must not exceed 500 characters")
+        @SafeInput(message = "Notes contain invalid characters")
+        String notes,
+
+        @Size(max = 50, message = "Category must not exceed 50 characters")
+        @SafeInput(message = "Category contains invalid characters")
+        String category) {
+}
@@ -0,0 +1,28 @@
+package com.ishan.passvault.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Keyset position in a vault listing ordered by (service name, id).
+ * Serialised as an opaque URL-safe token so clients never build it themselves.
+ */
+public record PageCursor(String serviceName, Long id) {
+
+    private static final char SEPARATOR = '\0';
+
+    public String encode() {
+        String raw = serviceName + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static PageCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            return new PageCursor(raw.substring(0, separator), Long.parseLong(raw.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid page cursor", e);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.ishan.passvault.dto;
+
+import java.util.List;
+
+/**
+ * Result of a password audit. Each reuse group lists the entries that share one password.
+ * @param breachedEntries Entries whose password is in the local breach corpus
+ * @param breachCorpusChecked false if no breach corpus is loaded or the vault could not be decrypted
+ * @param weakEntries Entries whose password is too guessable, by the strength estimator
+ * @param strengthChecked false if the vault could not be decrypted
+ * @param skippedEntries Entries that could not be fingerprinted, e.g. legacy entries audited
+ *                       with a session key instead of the master password
+ * @param rotationInProgress true while a key rotation is unfinished; entries fingerprinted under
+ *                           different keys do not match until it completes
+ */
+public record PasswordAuditReport(
+        long totalEntries,
+        long reusedEntries,
+        List<List<AuditedEntry>> reusedGroups,
+        List<AuditedEntry> breachedEntries,
+        boolean breachCorpusChecked,
+        List<AuditedEntry> weakEntries,
+        boolean strengthChecked,
+        long skippedEntries,
+        boolean rotationInProgress
+) {
+
+    public record AuditedEntry(Long id, String serviceName, String username) {
+    }
+}
@@ -0,0 +1,27 @@
+package com.ishan.passvault.dto;
+
+import com.ishan.passvault.model.PasswordEntry;
+
+import java.time.LocalDateTime;
+
+/**
+ * Listing view of a password entry. Selected directly by JPQL constructor
+ * expressions, so the ciphertext and the user association are never loaded.
+ */
+public record PasswordEntrySummary(
+        Long id,
+        String serviceName,
+        String username,
+        String notes,
+        String category,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt,
+        LocalDateTime lastAccessed
+) {
+
+    public static PasswordEntrySummary from(PasswordEntry entry) {
+        return new PasswordEntrySummary(entry.getId(), entry.getServiceName(), entry.getUsername(),
+                entry.getNotes(), entry.getCategory(), entry.getCreatedAt(), entry.getUpdatedAt(),
+                entry.getLastAccessed());
+    }
+}
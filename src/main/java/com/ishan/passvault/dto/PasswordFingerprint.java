@@ -0,0 +1,7 @@
+package com.ishan.passvault.dto;
+
+/**
+ * An entry with the keyed fingerprint of its password, as read by the reuse audit
+ */
+public record PasswordFingerprint(Long id, String serviceName, String username, String fingerprint) {
+}
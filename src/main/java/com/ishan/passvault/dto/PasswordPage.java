@@ -0,0 +1,12 @@
+package com.ishan.passvault.dto;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated listing
+ * @param items Entries on this page
+ * @param nextCursor Cursor for the following page, or null on the last page
+ * @param totalCount Total entries in the vault, only computed for the first page
+ */
+public record PasswordPage<T>(List<T> items, String nextCursor, boolean hasNext, Long totalCount) {
+}
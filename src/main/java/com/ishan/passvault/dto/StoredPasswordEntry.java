@@ -0,0 +1,19 @@
+package com.ishan.passvault.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Unmanaged copy of a password entry row including its ciphertext. Streamed by exports,
+ * so rows never accumulate in the persistence context.
+ */
+public record StoredPasswordEntry(
+        Long id,
+        String serviceName,
+        String username,
+        String encryptedPassword,
+        String notes,
+        String category,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt
+) {
+}
@@ -0,0 +1,15 @@
+package com.ishan.passvault.dto;
+
+import com.ishan.passvault.model.User;
+
+import java.time.LocalDateTime;
+
+/**
+ * Public view of a user; never carries the password hash, key material or entries
+ */
+public record UserResponse(Long id, String username, LocalDateTime createdAt, LocalDateTime lastLogin) {
+
+    public static UserResponse from(User user) {
+        return new UserResponse(user.getId(), user.getUsername(), user.getCreatedAt(), user.getLastLogin());
+    }
+}
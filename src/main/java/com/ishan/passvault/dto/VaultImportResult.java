@@ -0,0 +1,9 @@
+package com.ishan.passvault.dto;
+
+/**
+ * Outcome of importing a vault export
+ * @param imported Entries added to the vault
+ * @param skipped Entries that already existed or were invalid
+ */
+public record VaultImportResult(long imported, long skipped) {
+}
@@ -0,0 +1,68 @@
+package com.ishan.passvault.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Checkpoint of a data key rotation. Entries are re-encrypted in ascending id order and
+ * {@code lastEntryId} is committed together with each batch, so an interrupted rotation
+ * resumes after the last committed entry.
+ */
+@Entity
+@Table(name = "key_rotations", indexes = {
+    @Index(name = "idx_key_rotation_user", columnList = "user_id, completed_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(of = "id")
+@ToString(exclude = {"user", "wrappedDataKey"})
+public class KeyRotation {
+
+    public enum Status {
+        IN_PROGRESS, FAILED, COMPLETED
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "user_id", nullable = false, foreignKey = @ForeignKey(name = "fk_key_rotation_user"))
+    private User user;
+
+    // The new data key, wrapped under the same key-encryption key as the current one; cleared on
+    // completion, when the user row holds it
+    @Column(name = "wrapped_data_key", length = 128)
+    private String wrappedDataKey;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Status status;
+
+    @Column(name = "last_entry_id", nullable = false)
+    @Builder.Default
+    private Long lastEntryId = 0L;
+
+    @Column(name = "processed_entries", nullable = false)
+    @Builder.Default
+    private Long processedEntries = 0L;
+
+    @Column(name = "total_entries", nullable = false)
+    private Long totalEntries;
+
+    @Column(name = "started_at", nullable = false, updatable = false)
+    private LocalDateTime startedAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    @Column(length = 500)
+    private String error;
+}
@@ -10,7 +10,9 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "password_entries", indexes = {
     @Index(name = "idx_user_service", columnList = "user_id, service_name"),
-    @Index(name = "idx_service_name", columnList = "service_name")
+    @Index(name = "idx_user_service_id", columnList = "user_id, service_name, id"),
+    @Index(name = "idx_service_name", columnList = "service_name"),
+    @Index(name = "idx_user_fingerprint", columnList = "user_id, password_fingerprint")
 })
 @Data
 @NoArgsConstructor
@@ -21,7 +23,10 @@ import java.time.LocalDateTime;
 public class PasswordEntry {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Sequence ids let Hibernate batch inserts; IDENTITY forces one round trip per row.
+    // allocationSize > 1 uses the pooled optimizer, one sequence call per 50 ids
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "password_entry_seq")
+    @SequenceGenerator(name = "password_entry_seq", sequenceName = "password_entries_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "Service name is required")
@@ -38,6 +43,10 @@ public class PasswordEntry {
     @Column(name = "encrypted_password", nullable = false, length = 1000)
     private String encryptedPassword;
 
+    // Keyed HMAC of the plaintext, equal for equal passwords of one vault; null until backfilled
+    @Column(name = "password_fingerprint", length = 64)
+    private String passwordFingerprint;
+
     @Size(max = 500, message = "Notes must not exceed 500 characters")
     @Column(length = 500)
     private String notes;
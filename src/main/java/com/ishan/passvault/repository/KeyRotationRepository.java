@@ -0,0 +1,18 @@
+package com.ishan.passvault.repository;
+
+import com.ishan.passvault.model.KeyRotation;
+import com.ishan.passvault.model.User;
+
+import java.util.Optional;
+
+/**
+ * Storage contract for key rotation checkpoints, see {@link UserRepository}
+ */
+public interface KeyRotationRepository {
+
+    <S extends KeyRotation> S save(S rotation);
+
+    Optional<KeyRotation> findFirstByUserAndCompletedAtIsNullOrderByStartedAtDesc(User user);
+
+    Optional<KeyRotation> findFirstByUserOrderByStartedAtDesc(User user);
+}
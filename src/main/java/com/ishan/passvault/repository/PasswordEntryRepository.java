@@ -1,22 +1,105 @@
 package com.ishan.passvault.repository;
 
+import com.ishan.passvault.dto.EncryptedPasswordRef;
+import com.ishan.passvault.dto.PasswordEntrySummary;
+import com.ishan.passvault.dto.PasswordFingerprint;
+import com.ishan.passvault.dto.StoredPasswordEntry;
 import com.ishan.passvault.model.PasswordEntry;
 import com.ishan.passvault.model.User;
-import org.springframework.data.jpa.repository.JpaRepository;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
-import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Storage contract for password entries, see {@link UserRepository}
+ */
+public interface PasswordEntryRepository {
+
+    <S extends PasswordEntry> S save(S entry);
+
+    <S extends PasswordEntry> List<S> saveAll(Iterable<S> entries);
+
+    /**
+     * Inserts new entries as one batch and releases them afterwards, so bulk inserts
+     * do not accumulate every entry in memory
+     */
+    void insertBatch(List<PasswordEntry> entries);
 
-@Repository
-public interface PasswordEntryRepository extends JpaRepository<PasswordEntry, Long> {
-    
     List<PasswordEntry> findByUserOrderByServiceNameAsc(User user);
+
+    String SUMMARY_SELECT = "SELECT new com.ishan.passvault.dto.PasswordEntrySummary(" +
+            "pe.id, pe.serviceName, pe.username, pe.notes, pe.category, pe.createdAt, pe.updatedAt, pe.lastAccessed) ";
+
+    @Query(SUMMARY_SELECT + "FROM PasswordEntry pe WHERE pe.user = :user ORDER BY pe.serviceName ASC")
+    List<PasswordEntrySummary> findSummariesByUser(@Param("user") User user);
+
+    @Query(SUMMARY_SELECT + "FROM PasswordEntry pe WHERE pe.id IN :ids")
+    List<PasswordEntrySummary> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query(SUMMARY_SELECT + "FROM PasswordEntry pe WHERE pe.user = :user ORDER BY pe.serviceName ASC, pe.id ASC")
+    Slice<PasswordEntrySummary> findFirstPageByUser(@Param("user") User user, Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "FROM PasswordEntry pe WHERE pe.user = :user " +
+           "AND (pe.serviceName > :serviceName OR (pe.serviceName = :serviceName AND pe.id > :id)) " +
+           "ORDER BY pe.serviceName ASC, pe.id ASC")
+    Slice<PasswordEntrySummary> findPageByUserAfter(@Param("user") User user, @Param("serviceName") String serviceName,
+                                                    @Param("id") Long id, Pageable pageable);
     
+    @Query(SUMMARY_SELECT + "FROM PasswordEntry pe WHERE pe.user = :user AND pe.serviceName IN :serviceNames")
+    List<PasswordEntrySummary> findSummariesByUserAndServiceNameIn(@Param("user") User user,
+                                                                   @Param("serviceNames") Collection<String> serviceNames);
+
+    /**
+     * Streams every entry of a user through a database cursor; must be consumed inside a transaction
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.ishan.passvault.dto.StoredPasswordEntry(pe.id, pe.serviceName, pe.username, " +
+           "pe.encryptedPassword, pe.notes, pe.category, pe.createdAt, pe.updatedAt) " +
+           "FROM PasswordEntry pe WHERE pe.user = :user ORDER BY pe.id ASC")
+    Stream<StoredPasswordEntry> streamStoredByUser(@Param("user") User user);
+
+    @Query("SELECT new com.ishan.passvault.dto.EncryptedPasswordRef(pe.id, pe.encryptedPassword) " +
+           "FROM PasswordEntry pe WHERE pe.user = :user AND pe.id > :afterId ORDER BY pe.id ASC")
+    List<EncryptedPasswordRef> findEncryptedPasswordsAfter(@Param("user") User user, @Param("afterId") Long afterId,
+                                                           Pageable pageable);
+
+    /**
+     * Replaces a ciphertext and its fingerprint only if the ciphertext is still the one that was
+     * read, so a concurrent update of the entry is never overwritten by a re-encryption pass
+     */
+    @Modifying
+    @Query("UPDATE PasswordEntry pe SET pe.encryptedPassword = :newValue, pe.passwordFingerprint = :fingerprint " +
+           "WHERE pe.id = :entryId AND pe.encryptedPassword = :oldValue")
+    int replaceEncryptedPassword(@Param("entryId") Long entryId, @Param("oldValue") String oldValue,
+                                 @Param("newValue") String newValue, @Param("fingerprint") String fingerprint);
+
+    @Query("SELECT new com.ishan.passvault.dto.EncryptedPasswordRef(pe.id, pe.encryptedPassword) " +
+           "FROM PasswordEntry pe WHERE pe.user = :user AND pe.passwordFingerprint IS NULL ORDER BY pe.id ASC")
+    List<EncryptedPasswordRef> findEncryptedPasswordsWithoutFingerprint(@Param("user") User user);
+
+    /**
+     * Entries whose fingerprint occurs more than once in the vault, ordered so that entries
+     * sharing a password are adjacent
+     */
+    @Query("SELECT new com.ishan.passvault.dto.PasswordFingerprint(pe.id, pe.serviceName, pe.username, pe.passwordFingerprint) " +
+           "FROM PasswordEntry pe WHERE pe.user = :user AND pe.passwordFingerprint IN (" +
+           "SELECT f.passwordFingerprint FROM PasswordEntry f WHERE f.user = :user " +
+           "GROUP BY f.passwordFingerprint HAVING COUNT(f) > 1) " +
+           "ORDER BY pe.passwordFingerprint, pe.serviceName, pe.id")
+    List<PasswordFingerprint> findReusedFingerprints(@Param("user") User user);
+
     List<PasswordEntry> findByUserOrderByCreatedAtDesc(User user);
     
     Optional<PasswordEntry> findByUserAndServiceName(User user, String serviceName);
@@ -37,15 +120,14 @@ public interface PasswordEntryRepository extends JpaRepository<PasswordEntry, Lo
     
     long countByUserAndCategory(User user, String category);
     
-    @Query("SELECT pe FROM PasswordEntry pe WHERE pe.user = :user AND (pe.serviceName LIKE %:searchTerm% OR pe.username LIKE %:searchTerm% OR pe.notes LIKE %:searchTerm%)")
-    List<PasswordEntry> findByUserAndSearchTerm(@Param("user") User user, @Param("searchTerm") String searchTerm);
-    
     @Query("SELECT DISTINCT pe.category FROM PasswordEntry pe WHERE pe.user = :user AND pe.category IS NOT NULL ORDER BY pe.category")
     List<String> findDistinctCategoriesByUser(@Param("user") User user);
     
-    @Modifying
-    @Query("UPDATE PasswordEntry pe SET pe.lastAccessed = :lastAccessed WHERE pe.id = :entryId")
-    void updateLastAccessed(@Param("entryId") Long entryId, @Param("lastAccessed") LocalDateTime lastAccessed);
+    /**
+     * Sets the access time of each entry in one batch
+     * @param accessTimes Access times by entry id
+     */
+    void updateLastAccessed(Map<Long, LocalDateTime> accessTimes);
     
     @Query("SELECT pe FROM PasswordEntry pe WHERE pe.user = :user AND pe.lastAccessed < :date ORDER BY pe.lastAccessed ASC")
     List<PasswordEntry> findOldEntriesByUser(@Param("user") User user, @Param("date") LocalDateTime date);
@@ -1,18 +1,33 @@
 package com.ishan.passvault.repository;
 
 import com.ishan.passvault.model.User;
-import org.springframework.data.jpa.repository.JpaRepository;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
-import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
-@Repository
-public interface UserRepository extends JpaRepository<User, Long> {
+/**
+ * Storage contract for users. Implemented by Spring Data JPA for the PostgreSQL backend
+ * ({@link com.ishan.passvault.repository.jpa.JpaUserRepository}) and by the embedded file
+ * store used in CLI mode; the query annotations only apply to the JPA implementation.
+ */
+public interface UserRepository {
+
+    Optional<User> findById(Long id);
+
+    /**
+     * Loads a user and locks the row until the transaction ends
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT u FROM User u WHERE u.id = :id")
+    Optional<User> findByIdForUpdate(@Param("id") Long id);
+
+    <S extends User> S save(S user);
     
     Optional<User> findByUsername(String username);
     
@@ -27,14 +42,28 @@ public interface UserRepository extends JpaRepository<User, Long> {
     @Query("SELECT u FROM User u WHERE u.lastLogin < :date AND u.isActive = true")
     List<User> findInactiveUsers(@Param("date") LocalDateTime date);
     
-    @Modifying
-    @Query("UPDATE User u SET u.lastLogin = :lastLogin WHERE u.id = :userId")
-    void updateLastLogin(@Param("userId") Long userId, @Param("lastLogin") LocalDateTime lastLogin);
-    
     @Modifying
     @Query("UPDATE User u SET u.isActive = :isActive WHERE u.id = :userId")
     void updateUserStatus(@Param("userId") Long userId, @Param("isActive") Boolean isActive);
     
+    /**
+     * Swaps the wrapped data key without writing the rest of the row
+     * @return 1 if replaced, 0 if the stored key is no longer {@code oldValue}
+     */
+    @Modifying
+    @Query("UPDATE User u SET u.wrappedDataKey = :newValue WHERE u.id = :userId AND u.wrappedDataKey = :oldValue")
+    int replaceWrappedDataKey(@Param("userId") Long userId, @Param("oldValue") String oldValue,
+                              @Param("newValue") String newValue);
+    
+    /**
+     * Stores the first wrapped data key of a user who has none yet
+     * @return 1 if stored, 0 if the user already has a data key
+     */
+    @Modifying
+    @Query("UPDATE User u SET u.wrappedDataKey = :value WHERE u.id = :userId " +
+           "AND (u.wrappedDataKey IS NULL OR u.wrappedDataKey = '')")
+    int initWrappedDataKey(@Param("userId") Long userId, @Param("value") String value);
+    
     @Query("SELECT COUNT(u) FROM User u WHERE u.isActive = true")
     long countActiveUsers();
 }
@@ -0,0 +1,68 @@
+package com.ishan.passvault.repository.embedded;
+
+import com.ishan.passvault.model.KeyRotation;
+import com.ishan.passvault.model.User;
+import com.ishan.passvault.repository.KeyRotationRepository;
+import com.ishan.passvault.repository.embedded.VaultRecords.RotationRow;
+
+import java.util.Comparator;
+import java.util.Optional;
+
+/**
+ * {@link KeyRotationRepository} backed by the {@link EmbeddedVaultStore}
+ */
+public class EmbeddedKeyRotationRepository implements KeyRotationRepository {
+
+    private static final Comparator<RotationRow> BY_STARTED_AT =
+            Comparator.comparing(RotationRow::startedAt, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    private final EmbeddedVaultStore store;
+
+    public EmbeddedKeyRotationRepository(EmbeddedVaultStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public <S extends KeyRotation> S save(S rotation) {
+        if (rotation.getId() == null) {
+            rotation.setId(store.nextRotationId());
+        }
+        store.putRotation(new RotationRow(rotation.getId(), rotation.getUser().getId(), rotation.getWrappedDataKey(),
+                rotation.getStatus(), rotation.getLastEntryId(), rotation.getProcessedEntries(),
+                rotation.getTotalEntries(), rotation.getStartedAt(), rotation.getUpdatedAt(),
+                rotation.getCompletedAt(), rotation.getError()));
+        return rotation;
+    }
+
+    @Override
+    public Optional<KeyRotation> findFirstByUserAndCompletedAtIsNullOrderByStartedAtDesc(User user) {
+        return store.rotations().stream()
+                .filter(row -> row.userId() == user.getId() && row.completedAt() == null)
+                .max(BY_STARTED_AT)
+                .map(row -> toRotation(row, user));
+    }
+
+    @Override
+    public Optional<KeyRotation> findFirstByUserOrderByStartedAtDesc(User user) {
+        return store.rotations().stream()
+                .filter(row -> row.userId() == user.getId())
+                .max(BY_STARTED_AT)
+                .map(row -> toRotation(row, user));
+    }
+
+    private static KeyRotation toRotation(RotationRow row, User user) {
+        return KeyRotation.builder()
+                .id(row.id())
+                .user(user)
+                .wrappedDataKey(row.wrappedDataKey())
+                .status(row.status())
+                .lastEntryId(row.lastEntryId())
+                .processedEntries(row.processedEntries())
+                .totalEntries(row.totalEntries())
+                .startedAt(row.startedAt())
+                .updatedAt(row.updatedAt())
+                .completedAt(row.completedAt())
+                .error(row.error())
+                .build();
+    }
+}
@@ -0,0 +1,309 @@
+package com.ishan.passvault.repository.embedded;
+
+import com.ishan.passvault.dto.EncryptedPasswordRef;
+import com.ishan.passvault.dto.PasswordEntrySummary;
+import com.ishan.passvault.dto.PasswordFingerprint;
+import com.ishan.passvault.dto.StoredPasswordEntry;
+import com.ishan.passvault.model.PasswordEntry;
+import com.ishan.passvault.model.User;
+import com.ishan.passvault.repository.PasswordEntryRepository;
+import com.ishan.passvault.repository.embedded.EmbeddedVaultStore.EntryKey;
+import com.ishan.passvault.repository.embedded.VaultRecords.EntryRow;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+
+/**
+ * {@link PasswordEntryRepository} backed by the {@link EmbeddedVaultStore}. Entries are
+ * indexed per user by service name and by id, so listings, keyset pages and lookups are
+ * range scans over the in-memory index rather than full scans.
+ */
+public class EmbeddedPasswordEntryRepository implements PasswordEntryRepository {
+
+    private final EmbeddedVaultStore store;
+
+    public EmbeddedPasswordEntryRepository(EmbeddedVaultStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public <S extends PasswordEntry> S save(S entry) {
+        LocalDateTime now = LocalDateTime.now();
+        EntryRow existing = entry.getId() != null ? store.entry(entry.getId()) : null;
+        if (entry.getId() == null) {
+            entry.setId(store.nextEntryId());
+        }
+        if (entry.getCreatedAt() == null) {
+            entry.setCreatedAt(now);
+        }
+        if (entry.getUpdatedAt() == null) {
+            entry.setUpdatedAt(now);
+        }
+        if (existing != null && !existing.equals(toRow(entry))) {
+            // Same as the entity's @PreUpdate callback
+            entry.setUpdatedAt(now);
+        }
+        store.putEntry(toRow(entry));
+        return entry;
+    }
+
+    @Override
+    public <S extends PasswordEntry> List<S> saveAll(Iterable<S> entries) {
+        List<S> saved = new ArrayList<>();
+        for (S entry : entries) {
+            saved.add(save(entry));
+        }
+        return saved;
+    }
+
+    @Override
+    public void insertBatch(List<PasswordEntry> entries) {
+        entries.forEach(this::save);
+    }
+
+    @Override
+    public List<PasswordEntry> findByUserOrderByServiceNameAsc(User user) {
+        return store.entriesByServiceName(user.getId()).values().stream().map(row -> toEntry(row, user)).toList();
+    }
+
+    @Override
+    public List<PasswordEntrySummary> findSummariesByUser(User user) {
+        return store.entriesByServiceName(user.getId()).values().stream()
+                .map(EmbeddedPasswordEntryRepository::toSummary)
+                .toList();
+    }
+
+    @Override
+    public List<PasswordEntrySummary> findSummariesByIdIn(Collection<Long> ids) {
+        return ids.stream()
+                .map(store::entry)
+                .filter(Objects::nonNull)
+                .map(EmbeddedPasswordEntryRepository::toSummary)
+                .toList();
+    }
+
+    @Override
+    public Slice<PasswordEntrySummary> findFirstPageByUser(User user, Pageable pageable) {
+        return slice(store.entriesByServiceName(user.getId()).values(), pageable);
+    }
+
+    @Override
+    public Slice<PasswordEntrySummary> findPageByUserAfter(User user, String serviceName, Long id, Pageable pageable) {
+        return slice(store.entriesByServiceName(user.getId()).tailMap(new EntryKey(serviceName, id), false).values(),
+                pageable);
+    }
+
+    @Override
+    public List<PasswordEntrySummary> findSummariesByUserAndServiceNameIn(User user, Collection<String> serviceNames) {
+        List<PasswordEntrySummary> summaries = new ArrayList<>();
+        for (String serviceName : serviceNames) {
+            for (EntryRow row : service(user, serviceName)) {
+                summaries.add(toSummary(row));
+            }
+        }
+        return summaries;
+    }
+
+    @Override
+    public Stream<StoredPasswordEntry> streamStoredByUser(User user) {
+        return store.entriesById(user.getId()).values().stream()
+                .map(row -> new StoredPasswordEntry(row.id(), row.serviceName(), row.username(),
+                        row.encryptedPassword(), row.notes(), row.category(), row.createdAt(), row.updatedAt()));
+    }
+
+    @Override
+    public List<EncryptedPasswordRef> findEncryptedPasswordsAfter(User user, Long afterId, Pageable pageable) {
+        return store.entriesById(user.getId()).tailMap(afterId, false).values().stream()
+                .limit(pageable.getPageSize())
+                .map(row -> new EncryptedPasswordRef(row.id(), row.encryptedPassword()))
+                .toList();
+    }
+
+    @Override
+    public int replaceEncryptedPassword(Long entryId, String oldValue, String newValue, String fingerprint) {
+        return store.updateEntry(entryId, row -> row.encryptedPassword().equals(oldValue)
+                ? row.withEncryptedPassword(newValue, fingerprint) : null) ? 1 : 0;
+    }
+
+    @Override
+    public List<EncryptedPasswordRef> findEncryptedPasswordsWithoutFingerprint(User user) {
+        return store.entriesById(user.getId()).values().stream()
+                .filter(row -> row.passwordFingerprint() == null)
+                .map(row -> new EncryptedPasswordRef(row.id(), row.encryptedPassword()))
+                .toList();
+    }
+
+    @Override
+    public List<PasswordFingerprint> findReusedFingerprints(User user) {
+        // One hash-map pass over the fingerprints, the in-memory form of GROUP BY ... HAVING COUNT > 1
+        Map<String, List<EntryRow>> byFingerprint = new HashMap<>();
+        for (EntryRow row : store.entriesByServiceName(user.getId()).values()) {
+            if (row.passwordFingerprint() != null) {
+                byFingerprint.computeIfAbsent(row.passwordFingerprint(), key -> new ArrayList<>(2)).add(row);
+            }
+        }
+        return byFingerprint.entrySet().stream()
+                .filter(group -> group.getValue().size() > 1)
+                .sorted(Map.Entry.comparingByKey())
+                .flatMap(group -> group.getValue().stream())
+                .map(row -> new PasswordFingerprint(row.id(), row.serviceName(), row.username(), row.passwordFingerprint()))
+                .toList();
+    }
+
+    @Override
+    public List<PasswordEntry> findByUserOrderByCreatedAtDesc(User user) {
+        return store.entriesById(user.getId()).values().stream()
+                .sorted(Comparator.comparing(EntryRow::createdAt, Comparator.nullsLast(Comparator.reverseOrder())))
+                .map(row -> toEntry(row, user))
+                .toList();
+    }
+
+    @Override
+    public Optional<PasswordEntry> findByUserAndServiceName(User user, String serviceName) {
+        return service(user, serviceName).stream().findFirst().map(row -> toEntry(row, user));
+    }
+
+    @Override
+    public Optional<PasswordEntry> findByUserAndServiceNameAndUsername(User user, String serviceName, String username) {
+        return service(user, serviceName).stream()
+                .filter(row -> row.username().equals(username))
+                .findFirst()
+                .map(row -> toEntry(row, user));
+    }
+
+    @Override
+    public List<PasswordEntry> findByUserAndServiceNameContainingIgnoreCase(User user, String serviceName) {
+        String term = serviceName.toLowerCase(Locale.ROOT);
+        return store.entriesById(user.getId()).values().stream()
+                .filter(row -> row.serviceName().toLowerCase(Locale.ROOT).contains(term))
+                .map(row -> toEntry(row, user))
+                .toList();
+    }
+
+    @Override
+    public List<PasswordEntry> findByUserAndCategory(User user, String category) {
+        return store.entriesById(user.getId()).values().stream()
+                .filter(row -> Objects.equals(row.category(), category))
+                .map(row -> toEntry(row, user))
+                .toList();
+    }
+
+    @Override
+    public List<PasswordEntry> findByUserAndCategoryOrderByServiceNameAsc(User user, String category) {
+        return store.entriesByServiceName(user.getId()).values().stream()
+                .filter(row -> Objects.equals(row.category(), category))
+                .map(row -> toEntry(row, user))
+                .toList();
+    }
+
+    @Override
+    public void deleteByUserAndServiceName(User user, String serviceName) {
+        for (EntryRow row : List.copyOf(service(user, serviceName))) {
+            store.deleteEntry(row.id());
+        }
+    }
+
+    @Override
+    public void deleteByUserAndServiceNameAndUsername(User user, String serviceName, String username) {
+        for (EntryRow row : List.copyOf(service(user, serviceName))) {
+            if (row.username().equals(username)) {
+                store.deleteEntry(row.id());
+            }
+        }
+    }
+
+    @Override
+    public long countByUser(User user) {
+        return store.countEntries(user.getId());
+    }
+
+    @Override
+    public long countByUserAndCategory(User user, String category) {
+        return store.entriesById(user.getId()).values().stream()
+                .filter(row -> Objects.equals(row.category(), category))
+                .count();
+    }
+
+    @Override
+    public List<String> findDistinctCategoriesByUser(User user) {
+        TreeSet<String> categories = new TreeSet<>();
+        for (EntryRow row : store.entriesById(user.getId()).values()) {
+            if (row.category() != null) {
+                categories.add(row.category());
+            }
+        }
+        return List.copyOf(categories);
+    }
+
+    @Override
+    public void updateLastAccessed(Map<Long, LocalDateTime> accessTimes) {
+        accessTimes.forEach((entryId, lastAccessed) ->
+                store.updateEntry(entryId, row -> row.withLastAccessed(lastAccessed)));
+    }
+
+    @Override
+    public List<PasswordEntry> findOldEntriesByUser(User user, LocalDateTime date) {
+        return store.entriesById(user.getId()).values().stream()
+                .filter(row -> row.lastAccessed() != null && row.lastAccessed().isBefore(date))
+                .sorted(Comparator.comparing(EntryRow::lastAccessed))
+                .map(row -> toEntry(row, user))
+                .toList();
+    }
+
+    private Collection<EntryRow> service(User user, String serviceName) {
+        return store.entriesByServiceName(user.getId())
+                .subMap(EntryKey.first(serviceName), true, EntryKey.last(serviceName), true)
+                .values();
+    }
+
+    private static Slice<PasswordEntrySummary> slice(Collection<EntryRow> rows, Pageable pageable) {
+        // One extra row tells whether there is a next page, as Spring Data does for Slice queries
+        List<PasswordEntrySummary> content = rows.stream()
+                .skip(pageable.getOffset())
+                .limit(pageable.getPageSize() + 1L)
+                .map(EmbeddedPasswordEntryRepository::toSummary)
+                .toList();
+        boolean hasNext = content.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? content.subList(0, pageable.getPageSize()) : content, pageable, hasNext);
+    }
+
+    private static PasswordEntry toEntry(EntryRow row, User user) {
+        return PasswordEntry.builder()
+                .id(row.id())
+                .user(user)
+                .serviceName(row.serviceName())
+                .username(row.username())
+                .encryptedPassword(row.encryptedPassword())
+                .notes(row.notes())
+                .category(row.category())
+                .createdAt(row.createdAt())
+                .updatedAt(row.updatedAt())
+                .lastAccessed(row.lastAccessed())
+                .passwordFingerprint(row.passwordFingerprint())
+                .build();
+    }
+
+    private static PasswordEntrySummary toSummary(EntryRow row) {
+        return new PasswordEntrySummary(row.id(), row.serviceName(), row.username(), row.notes(), row.category(),
+                row.createdAt(), row.updatedAt(), row.lastAccessed());
+    }
+
+    private static EntryRow toRow(PasswordEntry entry) {
+        return new EntryRow(entry.getId(), entry.getUser().getId(), entry.getServiceName(), entry.getUsername(),
+                entry.getEncryptedPassword(), entry.getNotes(), entry.getCategory(), entry.getCreatedAt(),
+                entry.getUpdatedAt(), entry.getLastAccessed(), entry.getPasswordFingerprint());
+    }
+}
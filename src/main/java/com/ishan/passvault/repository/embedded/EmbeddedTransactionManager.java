@@ -0,0 +1,70 @@
+package com.ishan.passvault.repository.embedded;
+
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionSystemException;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.SmartTransactionObject;
+
+import java.io.UncheckedIOException;
+
+/**
+ * Maps Spring transactions onto {@link EmbeddedVaultStore} transactions, so {@code @Transactional}
+ * services and {@code TransactionTemplate}s work unchanged with the embedded store. Transactions
+ * are serialized by the store's write lock; suspending one (REQUIRES_NEW) is not supported.
+ */
+public class EmbeddedTransactionManager extends AbstractPlatformTransactionManager {
+
+    private final EmbeddedVaultStore store;
+
+    public EmbeddedTransactionManager(EmbeddedVaultStore store) {
+        this.store = store;
+    }
+
+    @Override
+    protected Object doGetTransaction() {
+        return new EmbeddedTransaction(store);
+    }
+
+    @Override
+    protected boolean isExistingTransaction(Object transaction) {
+        return store.inTransaction();
+    }
+
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition) {
+        store.begin();
+    }
+
+    @Override
+    protected void doCommit(DefaultTransactionStatus status) {
+        try {
+            store.commit();
+        } catch (UncheckedIOException e) {
+            throw new TransactionSystemException("Could not commit to the vault file", e);
+        }
+    }
+
+    @Override
+    protected void doRollback(DefaultTransactionStatus status) {
+        store.rollback();
+    }
+
+    @Override
+    protected void doSetRollbackOnly(DefaultTransactionStatus status) {
+        store.setRollbackOnly();
+    }
+
+    private record EmbeddedTransaction(EmbeddedVaultStore store) implements SmartTransactionObject {
+
+        @Override
+        public boolean isRollbackOnly() {
+            return store.isRollbackOnly();
+        }
+
+        @Override
+        public void flush() {
+            // Changes are applied immediately; they are written on commit
+        }
+    }
+}
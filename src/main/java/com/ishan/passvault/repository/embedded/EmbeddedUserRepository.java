@@ -0,0 +1,138 @@
+package com.ishan.passvault.repository.embedded;
+
+import com.ishan.passvault.model.User;
+import com.ishan.passvault.repository.UserRepository;
+import com.ishan.passvault.repository.embedded.VaultRecords.UserRow;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * {@link UserRepository} backed by the {@link EmbeddedVaultStore}
+ */
+public class EmbeddedUserRepository implements UserRepository {
+
+    private final EmbeddedVaultStore store;
+
+    public EmbeddedUserRepository(EmbeddedVaultStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public Optional<User> findById(Long id) {
+        return Optional.ofNullable(store.user(id)).map(EmbeddedUserRepository::toUser);
+    }
+
+    @Override
+    public Optional<User> findByIdForUpdate(Long id) {
+        // Transactions already hold the store's write lock
+        return findById(id);
+    }
+
+    @Override
+    public <S extends User> S save(S user) {
+        LocalDateTime now = LocalDateTime.now();
+        UserRow existing = user.getId() != null ? store.user(user.getId()) : null;
+        if (user.getId() == null) {
+            user.setId(store.nextUserId());
+        }
+        if (user.getCreatedAt() == null) {
+            user.setCreatedAt(now);
+        }
+        if (user.getIsActive() == null) {
+            user.setIsActive(true);
+        }
+        if (existing != null && !existing.equals(toRow(user))) {
+            // Same as the entity's @PreUpdate callback
+            user.setLastLogin(now);
+        }
+
+        UserRow sameName = store.userByName(user.getUsername());
+        if (sameName != null && sameName.id() != user.getId()) {
+            throw new DataIntegrityViolationException("Username already exists: " + user.getUsername());
+        }
+        store.putUser(toRow(user));
+        return user;
+    }
+
+    @Override
+    public Optional<User> findByUsername(String username) {
+        return Optional.ofNullable(store.userByName(username)).map(EmbeddedUserRepository::toUser);
+    }
+
+    @Override
+    public Optional<User> findByUsernameAndIsActiveTrue(String username) {
+        return Optional.ofNullable(store.userByName(username)).filter(UserRow::active)
+                .map(EmbeddedUserRepository::toUser);
+    }
+
+    @Override
+    public boolean existsByUsername(String username) {
+        return store.userByName(username) != null;
+    }
+
+    @Override
+    public List<User> findByIsActiveTrue() {
+        return store.users().stream().filter(UserRow::active).map(EmbeddedUserRepository::toUser).toList();
+    }
+
+    @Override
+    public List<User> findByCreatedAtAfter(LocalDateTime date) {
+        return store.users().stream()
+                .filter(row -> row.createdAt() != null && row.createdAt().isAfter(date))
+                .map(EmbeddedUserRepository::toUser)
+                .toList();
+    }
+
+    @Override
+    public List<User> findInactiveUsers(LocalDateTime date) {
+        return store.users().stream()
+                .filter(row -> row.active() && row.lastLogin() != null && row.lastLogin().isBefore(date))
+                .map(EmbeddedUserRepository::toUser)
+                .toList();
+    }
+
+    @Override
+    public void updateUserStatus(Long userId, Boolean isActive) {
+        store.updateUser(userId, row -> row.withActive(Boolean.TRUE.equals(isActive)));
+    }
+
+    @Override
+    public int replaceWrappedDataKey(Long userId, String oldValue, String newValue) {
+        return store.updateUser(userId, row -> Objects.equals(row.wrappedDataKey(), oldValue)
+                ? row.withWrappedDataKey(newValue) : null) ? 1 : 0;
+    }
+
+    @Override
+    public int initWrappedDataKey(Long userId, String value) {
+        return store.updateUser(userId, row -> row.wrappedDataKey() == null || row.wrappedDataKey().isBlank()
+                ? row.withWrappedDataKey(value) : null) ? 1 : 0;
+    }
+
+    @Override
+    public long countActiveUsers() {
+        return store.users().stream().filter(UserRow::active).count();
+    }
+
+    static User toUser(UserRow row) {
+        return User.builder()
+                .id(row.id())
+                .username(row.username())
+                .masterPasswordHash(row.masterPasswordHash())
+                .salt(row.salt())
+                .wrappedDataKey(row.wrappedDataKey())
+                .createdAt(row.createdAt())
+                .lastLogin(row.lastLogin())
+                .isActive(row.active())
+                .build();
+    }
+
+    private static UserRow toRow(User user) {
+        return new UserRow(user.getId(), user.getUsername(), user.getMasterPasswordHash(), user.getSalt(),
+                user.getWrappedDataKey(), user.getCreatedAt(), user.getLastLogin(),
+                Boolean.TRUE.equals(user.getIsActive()));
+    }
+}
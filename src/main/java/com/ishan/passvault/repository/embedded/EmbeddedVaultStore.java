@@ -0,0 +1,670 @@
+package com.ishan.passvault.repository.embedded;
+
+import com.ishan.passvault.repository.embedded.VaultRecords.EntryRow;
+import com.ishan.passvault.repository.embedded.VaultRecords.RotationRow;
+import com.ishan.passvault.repository.embedded.VaultRecords.UserRow;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+import java.util.zip.CRC32;
+
+/**
+ * Single-file storage for CLI mode. Every change is appended to a log of CRC-checked frames;
+ * on open the log is memory-mapped and replayed into in-memory tables, which then answer all
+ * reads without touching the disk. A transaction holds the write lock, applies its changes to
+ * the tables as it goes and appends them as one frame on commit, or undoes them on rollback.
+ * A frame is applied whole or not at all, so a crash never keeps half a transaction: an
+ * incomplete frame at the end of the log is cut off on open, while damage anywhere before the
+ * last frame refuses to open the file. A log made up mostly of superseded records is rewritten
+ * as a snapshot.
+ * <pre>
+ * file:    "PVDB" | version (1 byte) | frame*
+ * frame:   length (int) | crc32 of length (int) | crc32 of body (int) | body
+ * body:    record count (int) | (record length (int) | record)*
+ * record:  type (1 byte) | fields
+ * </pre>
+ * Readers do not take the lock, so they may observe changes of a transaction that has not
+ * committed yet; the CLI is single-user, which keeps that acceptable.
+ */
+@Slf4j
+public class EmbeddedVaultStore implements Closeable {
+
+    private static final byte[] MAGIC = {'P', 'V', 'D', 'B'};
+    private static final byte VERSION = 1;
+    private static final int HEADER_LENGTH = MAGIC.length + 1;
+    private static final int FRAME_HEADER = 3 * Integer.BYTES;
+    private static final long COMPACT_MIN_RECORDS = 10_000;
+
+    private final Path path;
+    private final boolean sync;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ThreadLocal<Journal> journal = new ThreadLocal<>();
+
+    private final Map<Long, UserRow> users = new ConcurrentHashMap<>();
+    private final Map<String, Long> userIdsByName = new ConcurrentHashMap<>();
+    private final Map<Long, EntryRow> entries = new ConcurrentHashMap<>();
+    private final Map<Long, UserEntries> entriesByUser = new ConcurrentHashMap<>();
+    private final Map<Long, RotationRow> rotations = new ConcurrentHashMap<>();
+    private final AtomicLong lastUserId = new AtomicLong();
+    private final AtomicLong lastEntryId = new AtomicLong();
+    private final AtomicLong lastRotationId = new AtomicLong();
+
+    private FileChannel channel;
+    private FileChannel lockChannel;
+    private FileLock fileLock;
+    private long position;
+    private long replayedRecords;
+
+    /**
+     * Opens the store, creating the file if it does not exist
+     * @param path The vault file
+     * @param sync Whether every commit is forced to disk before it returns
+     * @throws IOException if the file cannot be read or is corrupted
+     * @throws IllegalStateException if another process has the file open
+     */
+    public EmbeddedVaultStore(Path path, boolean sync) throws IOException {
+        this.path = path.toAbsolutePath();
+        this.sync = sync;
+        long start = System.nanoTime();
+        if (this.path.getParent() != null) {
+            Files.createDirectories(this.path.getParent());
+        }
+        acquireFileLock();
+        try {
+            channel = FileChannel.open(this.path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            replay();
+            long live = users.size() + entries.size() + rotations.size();
+            if (replayedRecords > COMPACT_MIN_RECORDS && replayedRecords > 2 * live) {
+                compact(replayedRecords);
+            }
+        } catch (IOException | RuntimeException e) {
+            close();
+            throw e;
+        }
+        log.info("Opened embedded vault {} ({} users, {} entries) in {} ms", this.path, users.size(), entries.size(),
+                Duration.ofNanos(System.nanoTime() - start).toMillis());
+    }
+
+    // ---- reads ----
+
+    UserRow user(long id) {
+        return users.get(id);
+    }
+
+    UserRow userByName(String username) {
+        Long id = userIdsByName.get(username);
+        return id != null ? users.get(id) : null;
+    }
+
+    Collection<UserRow> users() {
+        return Collections.unmodifiableCollection(users.values());
+    }
+
+    EntryRow entry(long id) {
+        return entries.get(id);
+    }
+
+    /**
+     * Entries of a user ordered by service name, then id
+     */
+    NavigableMap<EntryKey, EntryRow> entriesByServiceName(long userId) {
+        UserEntries userEntries = entriesByUser.get(userId);
+        return userEntries != null ? Collections.unmodifiableNavigableMap(userEntries.byServiceName)
+                : Collections.emptyNavigableMap();
+    }
+
+    /**
+     * Entries of a user ordered by id
+     */
+    NavigableMap<Long, EntryRow> entriesById(long userId) {
+        UserEntries userEntries = entriesByUser.get(userId);
+        return userEntries != null ? Collections.unmodifiableNavigableMap(userEntries.byId)
+                : Collections.emptyNavigableMap();
+    }
+
+    long countEntries(long userId) {
+        UserEntries userEntries = entriesByUser.get(userId);
+        return userEntries != null ? userEntries.count.get() : 0;
+    }
+
+    Collection<RotationRow> rotations() {
+        return Collections.unmodifiableCollection(rotations.values());
+    }
+
+    long nextUserId() {
+        return lastUserId.incrementAndGet();
+    }
+
+    long nextEntryId() {
+        return lastEntryId.incrementAndGet();
+    }
+
+    long nextRotationId() {
+        return lastRotationId.incrementAndGet();
+    }
+
+    // ---- writes ----
+
+    void putUser(UserRow row) {
+        locked(() -> write(VaultRecords.encode(row), () -> applyUser(row)));
+    }
+
+    /**
+     * Replaces a user row with the result of {@code change}, atomically
+     * @return false if the user does not exist or {@code change} returned null
+     */
+    boolean updateUser(long id, UnaryOperator<UserRow> change) {
+        return lockedGet(() -> {
+            UserRow current = users.get(id);
+            UserRow updated = current != null ? change.apply(current) : null;
+            if (updated == null) {
+                return false;
+            }
+            write(VaultRecords.encode(updated), () -> applyUser(updated));
+            return true;
+        });
+    }
+
+    void putEntry(EntryRow row) {
+        locked(() -> write(VaultRecords.encode(row), () -> applyEntry(row)));
+    }
+
+    /**
+     * Replaces an entry row with the result of {@code change}, atomically
+     * @return false if the entry does not exist or {@code change} returned null
+     */
+    boolean updateEntry(long id, UnaryOperator<EntryRow> change) {
+        return lockedGet(() -> {
+            EntryRow current = entries.get(id);
+            EntryRow updated = current != null ? change.apply(current) : null;
+            if (updated == null) {
+                return false;
+            }
+            write(VaultRecords.encode(updated), () -> applyEntry(updated));
+            return true;
+        });
+    }
+
+    void deleteEntry(long id) {
+        locked(() -> write(VaultRecords.encodeEntryDeleted(id), () -> removeEntry(id)));
+    }
+
+    void putRotation(RotationRow row) {
+        locked(() -> write(VaultRecords.encode(row), () -> applyRotation(row)));
+    }
+
+    // ---- transactions, driven by EmbeddedTransactionManager ----
+
+    void begin() {
+        lock.lock();
+        journal.set(new Journal());
+    }
+
+    boolean inTransaction() {
+        return journal.get() != null;
+    }
+
+    void setRollbackOnly() {
+        Journal current = journal.get();
+        if (current != null) {
+            current.rollbackOnly = true;
+        }
+    }
+
+    boolean isRollbackOnly() {
+        Journal current = journal.get();
+        return current != null && current.rollbackOnly;
+    }
+
+    void commit() {
+        Journal current = journal.get();
+        if (current == null) {
+            return;
+        }
+        try {
+            append(current.records);
+        } catch (IOException e) {
+            undo(current);
+            throw new UncheckedIOException("Could not write to vault file " + path, e);
+        } finally {
+            journal.remove();
+            lock.unlock();
+        }
+    }
+
+    void rollback() {
+        Journal current = journal.get();
+        if (current == null) {
+            // Already cleaned up by a failed commit
+            return;
+        }
+        try {
+            undo(current);
+        } finally {
+            journal.remove();
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            if (channel != null && channel.isOpen()) {
+                channel.force(false);
+                channel.close();
+            }
+            if (fileLock != null && fileLock.isValid()) {
+                fileLock.release();
+            }
+            if (lockChannel != null) {
+                lockChannel.close();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // ---- internals ----
+
+    private void locked(Runnable action) {
+        lockedGet(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    private <T> T lockedGet(Supplier<T> action) {
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Applies a change to the tables and logs it: deferred to commit inside a transaction,
+     * appended right away otherwise. Called with the lock held.
+     * @param record The encoded change
+     * @param change Applies the change and returns how to undo it
+     */
+    private void write(byte[] record, Supplier<Runnable> change) {
+        Journal current = journal.get();
+        Runnable undo = change.get();
+        if (current != null) {
+            current.records.add(record);
+            current.undo.add(undo);
+            return;
+        }
+        try {
+            append(List.of(record));
+        } catch (IOException e) {
+            undo.run();
+            throw new UncheckedIOException("Could not write to vault file " + path, e);
+        }
+    }
+
+    private void undo(Journal current) {
+        for (int i = current.undo.size() - 1; i >= 0; i--) {
+            current.undo.get(i).run();
+        }
+    }
+
+    private void append(List<byte[]> records) throws IOException {
+        if (records.isEmpty()) {
+            return;
+        }
+        ByteBuffer buffer = frame(records);
+
+        long start = position;
+        try {
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+            if (sync) {
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            // Leave no partial record behind for the next append to build on
+            position = start;
+            try {
+                channel.truncate(start);
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Replays the log into the tables, counting the records read in {@link #replayedRecords}
+     */
+    private void replay() throws IOException {
+        long size = channel.size();
+        if (size == 0) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH).put(MAGIC).put(VERSION).flip();
+            channel.write(header, 0);
+            channel.force(true);
+            position = HEADER_LENGTH;
+            return;
+        }
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Vault file is too large to open: " + path);
+        }
+
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        byte[] magic = new byte[MAGIC.length];
+        if (size < HEADER_LENGTH) {
+            throw new IOException("Not a PassVault vault file: " + path);
+        }
+        buffer.get(magic);
+        if (!Arrays.equals(magic, MAGIC)) {
+            throw new IOException("Not a PassVault vault file: " + path);
+        }
+        byte version = buffer.get();
+        if (version != VERSION) {
+            throw new IOException("Unsupported vault file version: " + version);
+        }
+
+        int valid = replayFrames(buffer);
+
+        if (valid < size) {
+            log.warn("Discarding {} bytes of an incomplete write at the end of {}", size - valid, path);
+            channel.truncate(valid);
+        }
+        position = valid;
+    }
+
+    /**
+     * Applies every complete frame
+     * @return The end of the last complete frame; anything after it is a torn final write
+     * @throws IOException if a frame before the last one is damaged
+     */
+    private int replayFrames(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            int start = buffer.position();
+            if (buffer.remaining() < FRAME_HEADER) {
+                return start;
+            }
+            int length = buffer.getInt();
+            int lengthCrc = buffer.getInt();
+            int crc = buffer.getInt();
+            if (lengthCrc != crc(ByteBuffer.allocate(Integer.BYTES).putInt(length).array()) || length < Integer.BYTES) {
+                // A file extended but never written, e.g. by a crash during the append, reads as zeros
+                if (isZero(buffer, start)) {
+                    return start;
+                }
+                throw corrupted(start);
+            }
+            if (length > buffer.remaining()) {
+                // The length is intact, so only the end of the frame is missing
+                return start;
+            }
+            byte[] body = new byte[length];
+            buffer.get(body);
+            if (crc(body) != crc) {
+                if (!isZero(buffer, buffer.position())) {
+                    throw corrupted(start);
+                }
+                return start;
+            }
+            applyFrame(body, start);
+        }
+        return buffer.position();
+    }
+
+    private void applyFrame(byte[] body, int offset) throws IOException {
+        ByteBuffer frame = ByteBuffer.wrap(body);
+        int count = frame.getInt();
+        List<Object> rows = new ArrayList<>(Math.max(0, Math.min(count, body.length)));
+        // Decode everything first: a frame that passed its CRC but does not parse is not applied in part
+        for (int i = 0; i < count; i++) {
+            if (frame.remaining() < Integer.BYTES) {
+                throw corrupted(offset);
+            }
+            int length = frame.getInt();
+            if (length <= 0 || length > frame.remaining()) {
+                throw corrupted(offset);
+            }
+            byte[] record = new byte[length];
+            frame.get(record);
+            rows.add(VaultRecords.decode(record));
+        }
+        if (count < 0 || frame.hasRemaining()) {
+            throw corrupted(offset);
+        }
+        rows.forEach(this::apply);
+        replayedRecords += count;
+    }
+
+    private static boolean isZero(ByteBuffer buffer, int from) {
+        for (int i = from; i < buffer.limit(); i++) {
+            if (buffer.get(i) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private IOException corrupted(int offset) {
+        return new IOException("Vault file is corrupted at offset " + offset + ": " + path);
+    }
+
+    /**
+     * Frames records as one unit: replay applies all of them or none
+     */
+    private static ByteBuffer frame(List<byte[]> records) {
+        int length = Integer.BYTES;
+        for (byte[] record : records) {
+            length += Integer.BYTES + record.length;
+        }
+        ByteBuffer body = ByteBuffer.allocate(length).putInt(records.size());
+        for (byte[] record : records) {
+            body.putInt(record.length).put(record);
+        }
+        byte[] bodyBytes = body.array();
+        return ByteBuffer.allocate(FRAME_HEADER + length)
+                .putInt(length)
+                .putInt(crc(ByteBuffer.allocate(Integer.BYTES).putInt(length).array()))
+                .putInt(crc(bodyBytes))
+                .put(bodyBytes)
+                .flip();
+    }
+
+    private void apply(Object row) {
+        if (row instanceof UserRow user) {
+            applyUser(user);
+        } else if (row instanceof EntryRow entry) {
+            applyEntry(entry);
+        } else if (row instanceof RotationRow rotation) {
+            applyRotation(rotation);
+        } else if (row instanceof Long deletedId) {
+            removeEntry(deletedId);
+        }
+    }
+
+    /**
+     * Rewrites the log with one record per live row
+     */
+    private void compact(long records) throws IOException {
+        long start = System.nanoTime();
+        Path compacted = path.resolveSibling(path.getFileName() + ".compact");
+        List<byte[]> snapshot = new ArrayList<>(users.size() + entries.size() + rotations.size());
+        users.values().forEach(row -> snapshot.add(VaultRecords.encode(row)));
+        entries.values().forEach(row -> snapshot.add(VaultRecords.encode(row)));
+        rotations.values().forEach(row -> snapshot.add(VaultRecords.encode(row)));
+
+        try (FileChannel out = FileChannel.open(compacted, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            out.write(ByteBuffer.allocate(HEADER_LENGTH).put(MAGIC).put(VERSION).flip());
+            // The snapshot replaces the file in one move, so each record can be its own frame
+            for (byte[] record : snapshot) {
+                ByteBuffer buffer = frame(List.of(record));
+                while (buffer.hasRemaining()) {
+                    out.write(buffer);
+                }
+            }
+            out.force(true);
+        }
+
+        channel.close();
+        Files.move(compacted, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        position = channel.size();
+        log.info("Compacted vault file {} from {} to {} records in {} ms", path, records, snapshot.size(),
+                Duration.ofNanos(System.nanoTime() - start).toMillis());
+    }
+
+    private void acquireFileLock() throws IOException {
+        Path lockPath = path.resolveSibling(path.getFileName() + ".lock");
+        lockChannel = FileChannel.open(lockPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        try {
+            fileLock = lockChannel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            fileLock = null;
+        }
+        if (fileLock == null) {
+            lockChannel.close();
+            throw new IllegalStateException("Vault file " + path + " is in use by another PassVault process");
+        }
+    }
+
+    private Runnable applyUser(UserRow row) {
+        UserRow previous = users.put(row.id(), row);
+        if (previous != null && !previous.username().equals(row.username())) {
+            userIdsByName.remove(previous.username(), previous.id());
+        }
+        userIdsByName.put(row.username(), row.id());
+        lastUserId.accumulateAndGet(row.id(), Math::max);
+        return () -> {
+            if (previous != null) {
+                applyUser(previous);
+            } else {
+                users.remove(row.id());
+                userIdsByName.remove(row.username(), row.id());
+            }
+        };
+    }
+
+    private Runnable applyEntry(EntryRow row) {
+        EntryRow previous = entries.put(row.id(), row);
+        if (previous != null) {
+            unindex(previous);
+        }
+        index(row);
+        lastEntryId.accumulateAndGet(row.id(), Math::max);
+        return () -> {
+            if (previous != null) {
+                applyEntry(previous);
+            } else {
+                entries.remove(row.id());
+                unindex(row);
+            }
+        };
+    }
+
+    private Runnable removeEntry(long id) {
+        EntryRow previous = entries.remove(id);
+        if (previous == null) {
+            return () -> { };
+        }
+        unindex(previous);
+        return () -> applyEntry(previous);
+    }
+
+    private Runnable applyRotation(RotationRow row) {
+        RotationRow previous = rotations.put(row.id(), row);
+        lastRotationId.accumulateAndGet(row.id(), Math::max);
+        return () -> {
+            if (previous != null) {
+                rotations.put(previous.id(), previous);
+            } else {
+                rotations.remove(row.id());
+            }
+        };
+    }
+
+    private void index(EntryRow row) {
+        UserEntries userEntries = entriesByUser.computeIfAbsent(row.userId(), id -> new UserEntries());
+        userEntries.byServiceName.put(new EntryKey(row.serviceName(), row.id()), row);
+        if (userEntries.byId.put(row.id(), row) == null) {
+            userEntries.count.incrementAndGet();
+        }
+    }
+
+    private void unindex(EntryRow row) {
+        UserEntries userEntries = entriesByUser.get(row.userId());
+        if (userEntries != null) {
+            userEntries.byServiceName.remove(new EntryKey(row.serviceName(), row.id()));
+            if (userEntries.byId.remove(row.id()) != null) {
+                userEntries.count.decrementAndGet();
+            }
+        }
+    }
+
+    private static int crc(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Sort key of the per-user service name index, matching the keyset pagination order
+     */
+    record EntryKey(String serviceName, long id) implements Comparable<EntryKey> {
+
+        static EntryKey first(String serviceName) {
+            return new EntryKey(serviceName, Long.MIN_VALUE);
+        }
+
+        static EntryKey last(String serviceName) {
+            return new EntryKey(serviceName, Long.MAX_VALUE);
+        }
+
+        @Override
+        public int compareTo(EntryKey other) {
+            int byName = serviceName.compareTo(other.serviceName);
+            return byName != 0 ? byName : Long.compare(id, other.id);
+        }
+    }
+
+    private static final class UserEntries {
+        private final ConcurrentSkipListMap<EntryKey, EntryRow> byServiceName = new ConcurrentSkipListMap<>();
+        private final ConcurrentSkipListMap<Long, EntryRow> byId = new ConcurrentSkipListMap<>();
+        // ConcurrentSkipListMap.size() walks the whole map
+        private final AtomicLong count = new AtomicLong();
+    }
+
+    private static final class Journal {
+        private final List<byte[]> records = new ArrayList<>();
+        private final List<Runnable> undo = new ArrayList<>();
+        private boolean rollbackOnly;
+    }
+}
@@ -0,0 +1,171 @@
+package com.ishan.passvault.repository.embedded;
+
+import com.ishan.passvault.model.KeyRotation;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Rows of the embedded store and their binary encoding in the log. Rows are immutable;
+ * every change is a new row that replaces the previous one under the same id.
+ */
+final class VaultRecords {
+
+    static final byte USER = 1;
+    static final byte ENTRY = 2;
+    static final byte ENTRY_DELETED = 3;
+    static final byte ROTATION = 4;
+
+    private VaultRecords() {
+    }
+
+    record UserRow(long id, String username, String masterPasswordHash, String salt, String wrappedDataKey,
+                   LocalDateTime createdAt, LocalDateTime lastLogin, boolean active) {
+
+        UserRow withActive(boolean value) {
+            return new UserRow(id, username, masterPasswordHash, salt, wrappedDataKey, createdAt, lastLogin, value);
+        }
+
+        UserRow withWrappedDataKey(String value) {
+            return new UserRow(id, username, masterPasswordHash, salt, value, createdAt, lastLogin, active);
+        }
+    }
+
+    record EntryRow(long id, long userId, String serviceName, String username, String encryptedPassword,
+                    String notes, String category, LocalDateTime createdAt, LocalDateTime updatedAt,
+                    LocalDateTime lastAccessed, String passwordFingerprint) {
+
+        EntryRow withEncryptedPassword(String value, String fingerprint) {
+            return new EntryRow(id, userId, serviceName, username, value, notes, category, createdAt, updatedAt,
+                    lastAccessed, fingerprint);
+        }
+
+        EntryRow withLastAccessed(LocalDateTime value) {
+            return new EntryRow(id, userId, serviceName, username, encryptedPassword, notes, category, createdAt,
+                    updatedAt, value, passwordFingerprint);
+        }
+    }
+
+    record RotationRow(long id, long userId, String wrappedDataKey, KeyRotation.Status status, long lastEntryId,
+                       long processedEntries, long totalEntries, LocalDateTime startedAt, LocalDateTime updatedAt,
+                       LocalDateTime completedAt, String error) {
+    }
+
+    static byte[] encode(UserRow row) {
+        return write(USER, out -> {
+            out.writeLong(row.id());
+            out.writeUTF(row.username());
+            writeString(out, row.masterPasswordHash());
+            writeString(out, row.salt());
+            writeString(out, row.wrappedDataKey());
+            writeTime(out, row.createdAt());
+            writeTime(out, row.lastLogin());
+            out.writeBoolean(row.active());
+        });
+    }
+
+    static byte[] encode(EntryRow row) {
+        return write(ENTRY, out -> {
+            out.writeLong(row.id());
+            out.writeLong(row.userId());
+            out.writeUTF(row.serviceName());
+            out.writeUTF(row.username());
+            writeString(out, row.encryptedPassword());
+            writeString(out, row.notes());
+            writeString(out, row.category());
+            writeTime(out, row.createdAt());
+            writeTime(out, row.updatedAt());
+            writeTime(out, row.lastAccessed());
+            // Appended last: records written before fingerprints existed simply end here
+            writeString(out, row.passwordFingerprint());
+        });
+    }
+
+    static byte[] encodeEntryDeleted(long id) {
+        return write(ENTRY_DELETED, out -> out.writeLong(id));
+    }
+
+    static byte[] encode(RotationRow row) {
+        return write(ROTATION, out -> {
+            out.writeLong(row.id());
+            out.writeLong(row.userId());
+            writeString(out, row.wrappedDataKey());
+            out.writeUTF(row.status().name());
+            out.writeLong(row.lastEntryId());
+            out.writeLong(row.processedEntries());
+            out.writeLong(row.totalEntries());
+            writeTime(out, row.startedAt());
+            writeTime(out, row.updatedAt());
+            writeTime(out, row.completedAt());
+            writeString(out, row.error());
+        });
+    }
+
+    /**
+     * Decodes one log record
+     * @return A row, or the id of a deleted entry as a {@link Long}
+     */
+    static Object decode(byte[] payload) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        byte type = in.readByte();
+        return switch (type) {
+            case USER -> new UserRow(in.readLong(), in.readUTF(), readString(in), readString(in), readString(in),
+                    readTime(in), readTime(in), in.readBoolean());
+            case ENTRY -> new EntryRow(in.readLong(), in.readLong(), in.readUTF(), in.readUTF(), readString(in),
+                    readString(in), readString(in), readTime(in), readTime(in), readTime(in),
+                    in.available() > 0 ? readString(in) : null);
+            case ENTRY_DELETED -> in.readLong();
+            case ROTATION -> new RotationRow(in.readLong(), in.readLong(), readString(in),
+                    KeyRotation.Status.valueOf(in.readUTF()), in.readLong(), in.readLong(), in.readLong(),
+                    readTime(in), readTime(in), readTime(in), readString(in));
+            default -> throw new IOException("Unknown record type: " + type);
+        };
+    }
+
+    private interface Fields {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    private static byte[] write(byte type, Fields fields) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(128);
+        DataOutputStream out = new DataOutputStream(buffer);
+        try {
+            out.writeByte(type);
+            fields.write(out);
+            out.flush();
+        } catch (IOException e) {
+            // Writing to a byte array cannot fail
+            throw new UncheckedIOException(e);
+        }
+        return buffer.toByteArray();
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeTime(DataOutputStream out, LocalDateTime value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value.toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(value.getNano());
+        }
+    }
+
+    private static LocalDateTime readTime(DataInputStream in) throws IOException {
+        return in.readBoolean() ? LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC) : null;
+    }
+}
@@ -0,0 +1,10 @@
+package com.ishan.passvault.repository.jpa;
+
+import com.ishan.passvault.model.KeyRotation;
+import com.ishan.passvault.repository.KeyRotationRepository;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface JpaKeyRotationRepository extends JpaRepository<KeyRotation, Long>, KeyRotationRepository {
+}
@@ -0,0 +1,11 @@
+package com.ishan.passvault.repository.jpa;
+
+import com.ishan.passvault.model.PasswordEntry;
+import com.ishan.passvault.repository.PasswordEntryRepository;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface JpaPasswordEntryRepository extends JpaRepository<PasswordEntry, Long>, PasswordEntryRepository,
+        PasswordEntryBatchInsert, PasswordEntryLastAccessedUpdate {
+}
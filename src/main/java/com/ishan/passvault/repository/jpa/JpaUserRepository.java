@@ -0,0 +1,14 @@
+package com.ishan.passvault.repository.jpa;
+
+import com.ishan.passvault.model.User;
+import com.ishan.passvault.repository.UserRepository;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Lookups by id hit the second-level cache of {@link User}; lookups by username go through
+ * {@link UserNaturalIdLookup}, which resolves the id from the natural-id cache first.
+ */
+@Repository
+public interface JpaUserRepository extends JpaRepository<User, Long>, UserRepository, UserNaturalIdLookup {
+}
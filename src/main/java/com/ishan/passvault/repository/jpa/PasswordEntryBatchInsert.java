@@ -0,0 +1,13 @@
+package com.ishan.passvault.repository.jpa;
+
+import com.ishan.passvault.model.PasswordEntry;
+
+import java.util.List;
+
+/**
+ * Repository fragment for {@link com.ishan.passvault.repository.PasswordEntryRepository#insertBatch(List)}
+ */
+public interface PasswordEntryBatchInsert {
+
+    void insertBatch(List<PasswordEntry> entries);
+}
@@ -0,0 +1,26 @@
+package com.ishan.passvault.repository.jpa;
+
+import com.ishan.passvault.model.PasswordEntry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import java.util.List;
+
+class PasswordEntryBatchInsertImpl implements PasswordEntryBatchInsert {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public void insertBatch(List<PasswordEntry> entries) {
+        for (PasswordEntry entry : entries) {
+            entityManager.persist(entry);
+        }
+        // Flushing sends the inserts as one JDBC batch; detaching them keeps the persistence context
+        // small without dropping entities the caller still works with
+        entityManager.flush();
+        for (PasswordEntry entry : entries) {
+            entityManager.detach(entry);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.ishan.passvault.repository.jpa;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Repository fragment for {@link com.ishan.passvault.repository.PasswordEntryRepository#updateLastAccessed(Map)}
+ */
+public interface PasswordEntryLastAccessedUpdate {
+
+    void updateLastAccessed(Map<Long, LocalDateTime> accessTimes);
+}
@@ -0,0 +1,28 @@
+package com.ishan.passvault.repository.jpa;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+class PasswordEntryLastAccessedUpdateImpl implements PasswordEntryLastAccessedUpdate {
+
+    private static final String UPDATE_LAST_ACCESSED =
+            "UPDATE password_entries SET last_accessed = ? WHERE id = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void updateLastAccessed(Map<Long, LocalDateTime> accessTimes) {
+        List<Object[]> rows = new ArrayList<>(accessTimes.size());
+        accessTimes.forEach((entryId, lastAccessed) ->
+                rows.add(new Object[]{Timestamp.valueOf(lastAccessed), entryId}));
+        // One prepared statement sent as a JDBC batch, on the connection of the surrounding JPA transaction
+        jdbcTemplate.batchUpdate(UPDATE_LAST_ACCESSED, rows);
+    }
+}
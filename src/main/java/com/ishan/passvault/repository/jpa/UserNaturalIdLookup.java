@@ -0,0 +1,16 @@
+package com.ishan.passvault.repository.jpa;
+
+import com.ishan.passvault.model.User;
+
+import java.util.Optional;
+
+/**
+ * Repository fragment for the username lookups of {@link com.ishan.passvault.repository.UserRepository},
+ * resolved through the natural-id cache instead of a query
+ */
+public interface UserNaturalIdLookup {
+
+    Optional<User> findByUsername(String username);
+
+    Optional<User> findByUsernameAndIsActiveTrue(String username);
+}
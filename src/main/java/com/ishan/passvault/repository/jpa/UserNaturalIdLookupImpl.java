@@ -0,0 +1,28 @@
+package com.ishan.passvault.repository.jpa;
+
+import com.ishan.passvault.model.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+
+import java.util.Optional;
+
+class UserNaturalIdLookupImpl implements UserNaturalIdLookup {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Optional<User> findByUsername(String username) {
+        if (username == null) {
+            return Optional.empty();
+        }
+        // Username to id from the natural-id cache, then the user from the entity cache
+        return entityManager.unwrap(Session.class).bySimpleNaturalId(User.class).loadOptional(username);
+    }
+
+    @Override
+    public Optional<User> findByUsernameAndIsActiveTrue(String username) {
+        return findByUsername(username).filter(user -> Boolean.TRUE.equals(user.getIsActive()));
+    }
+}
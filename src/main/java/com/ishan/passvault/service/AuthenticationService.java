@@ -2,12 +2,14 @@ package com.ishan.passvault.service;
 
 import com.ishan.passvault.model.User;
 import com.ishan.passvault.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import java.time.LocalDateTime;
 
 @Service
+@Slf4j
 public class AuthenticationService {
 
     @Autowired
@@ -24,6 +26,12 @@ public class AuthenticationService {
             throw new Exception("Invalid username or password");
         }
 
+        // Raw password is only available here, so outdated hashes are upgraded on a successful login
+        if (passwordEncoder.upgradeEncoding(user.getMasterPasswordHash())) {
+            user.setMasterPasswordHash(passwordEncoder.encode(password));
+            log.info("Rehashed master password for user: {}", username);
+        }
+
         // Update last login
         user.setLastLogin(LocalDateTime.now());
         userRepository.save(user);
@@ -0,0 +1,98 @@
+package com.ishan.passvault.service;
+
+import com.ishan.passvault.util.BreachCorpus;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checks passwords against a local breach corpus, without any network access. The corpus is
+ * opened in the background at startup, since the first open converts the hash file into its
+ * index; until it is ready, and when no corpus is configured, every check reports "not breached".
+ */
+@Service
+@Slf4j
+public class BreachCheckService {
+
+    @Value("${passvault.breach.corpus:}")
+    private String corpusPath;
+
+    @Value("${passvault.breach.index-dir:}")
+    private String indexDirectory;
+
+    @Value("${passvault.breach.bloom-bits-per-entry:10}")
+    private int bloomBitsPerEntry;
+
+    @Value("${passvault.breach.reject-on-add:false}")
+    private boolean rejectOnAdd;
+
+    private final Timer lookupTimer;
+    private volatile BreachCorpus corpus;
+
+    public BreachCheckService(MeterRegistry meterRegistry) {
+        this.lookupTimer = Timer.builder("passvault.breach.lookup")
+                .description("Lookup of a password in the local breach corpus")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void load() {
+        if (corpusPath == null || corpusPath.isBlank()) {
+            return;
+        }
+        Thread loader = new Thread(this::open, "breach-corpus-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    private void open() {
+        long start = System.nanoTime();
+        try {
+            Path source = Path.of(corpusPath.trim());
+            Path directory = indexDirectory == null || indexDirectory.isBlank() ? null : Path.of(indexDirectory.trim());
+            corpus = BreachCorpus.open(source, directory, bloomBitsPerEntry);
+            log.info("Breach corpus {} ready: {} {} hashes in {} ms", source, corpus.size(), corpus.type(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (Exception e) {
+            log.error("Could not open breach corpus {}, breach checks are disabled", corpusPath, e);
+        }
+    }
+
+    /**
+     * @return true once a corpus is loaded and checks are meaningful
+     */
+    public boolean isAvailable() {
+        return corpus != null;
+    }
+
+    /**
+     * Whether {@link PasswordService} refuses new passwords found in the corpus, rather than only warning
+     */
+    public boolean isRejectOnAdd() {
+        return rejectOnAdd;
+    }
+
+    /**
+     * Looks a password up in the breach corpus
+     * @param password The plaintext password
+     * @return true if the password is known to be breached; false if it is not, or no corpus is loaded
+     */
+    public boolean isBreached(String password) {
+        BreachCorpus current = corpus;
+        if (current == null || password == null || password.isEmpty()) {
+            return false;
+        }
+        long start = System.nanoTime();
+        try {
+            return current.containsPassword(password);
+        } finally {
+            lookupTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.ishan.passvault.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Runs CPU-bound hashing and key derivation on the bounded crypto pool when called from a
+ * virtual thread. A virtual thread waiting on the pool unmounts from its carrier, so a burst
+ * of logins cannot occupy every carrier thread with BCrypt and stall the requests that only
+ * wait on I/O. On platform threads the work simply runs inline.
+ */
+@Component
+public class CryptoOffload {
+
+    @Autowired
+    @Qualifier("cryptoExecutor")
+    private AsyncTaskExecutor cryptoExecutor;
+
+    @Value("${passvault.crypto.offload-virtual-threads:true}")
+    private boolean enabled;
+
+    /**
+     * Runs a crypto task, offloading it to the crypto pool from virtual threads
+     * @param task The CPU-bound work
+     * @return The task result
+     * @throws Exception whatever the task throws
+     */
+    public <T> T call(Callable<T> task) throws Exception {
+        if (!enabled || !Thread.currentThread().isVirtual()) {
+            return task.call();
+        }
+        try {
+            return cryptoExecutor.submit(task).get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception cause) {
+                throw cause;
+            }
+            throw (Error) e.getCause();
+        }
+    }
+
+    /**
+     * Same as {@link #call(Callable)} for tasks without checked exceptions
+     * @param task The CPU-bound work
+     * @return The task result
+     */
+    public <T> T compute(Callable<T> task) {
+        try {
+            return call(task);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for crypto work", e);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
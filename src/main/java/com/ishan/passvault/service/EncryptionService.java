@@ -1,11 +1,17 @@
 package com.ishan.passvault.service;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import javax.crypto.Cipher;
+import javax.crypto.Mac;
 import javax.crypto.SecretKey;
 import javax.crypto.spec.GCMParameterSpec;
 import javax.crypto.spec.PBEKeySpec;
 import javax.crypto.spec.SecretKeySpec;
 import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
 import java.security.SecureRandom;
 import java.security.spec.KeySpec;
 import java.util.Arrays;
@@ -29,9 +35,42 @@ public class EncryptionService {
     private static final int KEY_LENGTH = 256; // bits
     private static final int ITERATION_COUNT = 100000; // OWASP recommended minimum
     private static final int SALT_LENGTH = 32; // bytes
+    private static final String VAULT_KEY_PREFIX = "v2:"; // marks entries encrypted under the per-user data key
+    private static final String FINGERPRINT_ALGORITHM = "HmacSHA256";
+    // Separates the fingerprint key from the data key itself
+    private static final byte[] FINGERPRINT_KEY_LABEL = "passvault-password-fingerprint-v1".getBytes(StandardCharsets.UTF_8);
 
     private final SecureRandom secureRandom = new SecureRandom();
 
+    private final Timer keyDerivationTimer;
+    private final Timer passwordEncryptTimer;
+    private final Timer passwordDecryptTimer;
+    private final Timer dataKeyEncryptTimer;
+    private final Timer dataKeyDecryptTimer;
+
+    public EncryptionService() {
+        this(Metrics.globalRegistry);
+    }
+
+    @Autowired
+    public EncryptionService(MeterRegistry meterRegistry) {
+        this.keyDerivationTimer = Timer.builder("passvault.crypto.key.derivation")
+                .description("PBKDF2 key derivation from a master password")
+                .register(meterRegistry);
+        this.passwordEncryptTimer = cipherTimer("passvault.crypto.encrypt", "password", meterRegistry);
+        this.passwordDecryptTimer = cipherTimer("passvault.crypto.decrypt", "password", meterRegistry);
+        this.dataKeyEncryptTimer = cipherTimer("passvault.crypto.encrypt", "data", meterRegistry);
+        this.dataKeyDecryptTimer = cipherTimer("passvault.crypto.decrypt", "data", meterRegistry);
+    }
+
+    private static Timer cipherTimer(String name, String key, MeterRegistry meterRegistry) {
+        // key=password includes the per-entry key derivation, key=data is AES-GCM alone
+        return Timer.builder(name)
+                .description("AES-GCM entry encryption and decryption")
+                .tag("key", key)
+                .register(meterRegistry);
+    }
+
     /**
      * Encrypts plaintext using AES-GCM with proper key derivation
      * @param plainText The text to encrypt
@@ -40,6 +79,10 @@ public class EncryptionService {
      * @throws Exception if encryption fails
      */
     public String encrypt(String plainText, String masterPassword) throws Exception {
+        return passwordEncryptTimer.recordCallable(() -> encryptWithPassword(plainText, masterPassword));
+    }
+
+    private String encryptWithPassword(String plainText, String masterPassword) throws Exception {
         if (plainText == null || plainText.isEmpty()) {
             throw new IllegalArgumentException("Plaintext cannot be null or empty");
         }
@@ -98,6 +141,10 @@ public class EncryptionService {
      * @throws Exception if decryption fails
      */
     public String decrypt(String encryptedText, String masterPassword) throws Exception {
+        return passwordDecryptTimer.recordCallable(() -> decryptWithPassword(encryptedText, masterPassword));
+    }
+
+    private String decryptWithPassword(String encryptedText, String masterPassword) throws Exception {
         if (encryptedText == null || encryptedText.isEmpty()) {
             throw new IllegalArgumentException("Encrypted text cannot be null or empty");
         }
@@ -155,6 +202,203 @@ public class EncryptionService {
         }
     }
 
+    /**
+     * Encrypts plaintext using AES-GCM under the user's data key, without any key derivation
+     * @param plainText The text to encrypt
+     * @param key The data key obtained from {@link VaultKeyService}
+     * @return Versioned string containing the Base64 encoded IV + encrypted data
+     * @throws Exception if encryption fails
+     */
+    public String encrypt(String plainText, SecretKey key) throws Exception {
+        return dataKeyEncryptTimer.recordCallable(() -> encryptWithKey(plainText, key));
+    }
+
+    private String encryptWithKey(String plainText, SecretKey key) throws Exception {
+        if (plainText == null || plainText.isEmpty()) {
+            throw new IllegalArgumentException("Plaintext cannot be null or empty");
+        }
+        if (key == null) {
+            throw new IllegalArgumentException("Vault key cannot be null");
+        }
+
+        try {
+            byte[] iv = generateIV();
+
+            Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+            cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(GCM_TAG_LENGTH * 8, iv));
+            byte[] encryptedData = cipher.doFinal(plainText.getBytes(StandardCharsets.UTF_8));
+
+            // Combine IV + encrypted data, no per-entry salt needed
+            byte[] combined = new byte[iv.length + encryptedData.length];
+            System.arraycopy(iv, 0, combined, 0, iv.length);
+            System.arraycopy(encryptedData, 0, combined, iv.length, encryptedData.length);
+
+            Arrays.fill(iv, (byte) 0);
+            Arrays.fill(encryptedData, (byte) 0);
+
+            return VAULT_KEY_PREFIX + Base64.getEncoder().encodeToString(combined);
+
+        } catch (GeneralSecurityException e) {
+            throw new RuntimeException("Encryption with vault key failed", e);
+        }
+    }
+
+    /**
+     * Decrypts ciphertext produced by {@link #encrypt(String, SecretKey)}
+     * @param encryptedText Versioned string containing the Base64 encoded IV + encrypted data
+     * @param key The data key obtained from {@link VaultKeyService}
+     * @return Decrypted plaintext
+     * @throws Exception if decryption fails
+     */
+    public String decrypt(String encryptedText, SecretKey key) throws Exception {
+        return dataKeyDecryptTimer.recordCallable(() -> decryptWithKey(encryptedText, key));
+    }
+
+    private String decryptWithKey(String encryptedText, SecretKey key) throws Exception {
+        if (encryptedText == null || !encryptedText.startsWith(VAULT_KEY_PREFIX)) {
+            throw new IllegalArgumentException("Encrypted text is not in vault key format");
+        }
+        if (key == null) {
+            throw new IllegalArgumentException("Vault key cannot be null");
+        }
+
+        byte[] combined;
+        try {
+            combined = Base64.getDecoder().decode(encryptedText.substring(VAULT_KEY_PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid encrypted data format", e);
+        }
+        if (combined.length < GCM_IV_LENGTH + GCM_TAG_LENGTH) {
+            throw new IllegalArgumentException("Encrypted data too short");
+        }
+
+        try {
+            Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+            cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(GCM_TAG_LENGTH * 8, combined, 0, GCM_IV_LENGTH));
+
+            byte[] decryptedData = cipher.doFinal(combined, GCM_IV_LENGTH, combined.length - GCM_IV_LENGTH);
+            String result = new String(decryptedData, StandardCharsets.UTF_8);
+
+            Arrays.fill(combined, (byte) 0);
+            Arrays.fill(decryptedData, (byte) 0);
+
+            return result;
+
+        } catch (BadPaddingException e) {
+            throw new RuntimeException("Bad padding during decryption - possible data corruption or wrong password", e);
+        } catch (GeneralSecurityException e) {
+            throw new RuntimeException("Decryption with vault key failed", e);
+        }
+    }
+
+    /**
+     * Checks whether a ciphertext still uses the legacy per-entry salted format
+     * @param encryptedText The stored ciphertext
+     * @return true if the entry must be decrypted with the master password directly
+     */
+    public boolean isLegacyFormat(String encryptedText) {
+        return encryptedText != null && !encryptedText.startsWith(VAULT_KEY_PREFIX);
+    }
+
+    /**
+     * Derives the key-encryption key for a user from the master password and the user's vault salt
+     * @param masterPassword The master password
+     * @param salt The 32-byte vault salt stored on the user
+     * @return SecretKey that wraps the user's data key
+     * @throws Exception if key derivation fails
+     */
+    public SecretKey deriveVaultKey(String masterPassword, byte[] salt) throws Exception {
+        return deriveKeyFromPassword(masterPassword, salt);
+    }
+
+    /**
+     * Generates a random data-encryption key for a user's vault
+     * @return 256-bit AES key
+     */
+    public SecretKey generateDataKey() {
+        byte[] keyBytes = new byte[KEY_LENGTH / 8];
+        secureRandom.nextBytes(keyBytes);
+        SecretKey key = new SecretKeySpec(keyBytes, ALGORITHM);
+        Arrays.fill(keyBytes, (byte) 0);
+        return key;
+    }
+
+    /**
+     * Wraps a data key under a key-encryption key derived from the master password
+     * @param dataKey The data-encryption key to protect
+     * @param keyEncryptionKey The key derived from the master password
+     * @return Base64 encoded IV + wrapped key
+     */
+    public String wrapKey(SecretKey dataKey, SecretKey keyEncryptionKey) {
+        try {
+            byte[] iv = generateIV();
+            Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+            cipher.init(Cipher.ENCRYPT_MODE, keyEncryptionKey, new GCMParameterSpec(GCM_TAG_LENGTH * 8, iv));
+            byte[] wrapped = cipher.doFinal(dataKey.getEncoded());
+
+            byte[] combined = new byte[iv.length + wrapped.length];
+            System.arraycopy(iv, 0, combined, 0, iv.length);
+            System.arraycopy(wrapped, 0, combined, iv.length, wrapped.length);
+            return Base64.getEncoder().encodeToString(combined);
+        } catch (GeneralSecurityException e) {
+            throw new RuntimeException("Data key wrapping failed", e);
+        }
+    }
+
+    /**
+     * Unwraps a data key produced by {@link #wrapKey(SecretKey, SecretKey)}
+     * @param wrappedKey Base64 encoded IV + wrapped key
+     * @param keyEncryptionKey The key derived from the master password
+     * @return The data-encryption key
+     */
+    public SecretKey unwrapKey(String wrappedKey, SecretKey keyEncryptionKey) {
+        try {
+            byte[] combined = Base64.getDecoder().decode(wrappedKey);
+            Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+            cipher.init(Cipher.DECRYPT_MODE, keyEncryptionKey, new GCMParameterSpec(GCM_TAG_LENGTH * 8, combined, 0, GCM_IV_LENGTH));
+            byte[] keyBytes = cipher.doFinal(combined, GCM_IV_LENGTH, combined.length - GCM_IV_LENGTH);
+
+            SecretKey key = new SecretKeySpec(keyBytes, ALGORITHM);
+            Arrays.fill(keyBytes, (byte) 0);
+            return key;
+        } catch (BadPaddingException e) {
+            throw new RuntimeException("Data key unwrapping failed - wrong master password or corrupted key", e);
+        } catch (GeneralSecurityException e) {
+            throw new RuntimeException("Data key unwrapping failed", e);
+        }
+    }
+
+    /**
+     * Computes the keyed fingerprint of a password, used to find reused passwords without decrypting.
+     * The HMAC key is derived from the data key, so fingerprints are only comparable within one vault
+     * and are useless for a dictionary attack without that key.
+     * @param plainText The password
+     * @param dataKey The data key the entry is written under
+     * @return Base64 encoded HMAC-SHA256
+     */
+    public String fingerprint(String plainText, SecretKey dataKey) {
+        try {
+            Mac derive = Mac.getInstance(FINGERPRINT_ALGORITHM);
+            derive.init(new SecretKeySpec(dataKey.getEncoded(), FINGERPRINT_ALGORITHM));
+            byte[] fingerprintKey = derive.doFinal(FINGERPRINT_KEY_LABEL);
+
+            Mac mac = Mac.getInstance(FINGERPRINT_ALGORITHM);
+            mac.init(new SecretKeySpec(fingerprintKey, FINGERPRINT_ALGORITHM));
+            Arrays.fill(fingerprintKey, (byte) 0);
+            return Base64.getEncoder().encodeToString(mac.doFinal(plainText.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new RuntimeException("Password fingerprint failed", e);
+        }
+    }
+
+    /**
+     * Generates a new random vault salt
+     * @return 32-byte salt
+     */
+    public byte[] newVaultSalt() {
+        return generateSalt();
+    }
+
     /**
      * Derives a cryptographic key from password using PBKDF2
      * @param password The password to derive key from
@@ -173,7 +417,7 @@ public class EncryptionService {
         try {
             SecretKeyFactory factory = SecretKeyFactory.getInstance(KEY_DERIVATION_ALGORITHM);
             KeySpec spec = new PBEKeySpec(password.toCharArray(), salt, ITERATION_COUNT, KEY_LENGTH);
-            SecretKey tmp = factory.generateSecret(spec);
+            SecretKey tmp = keyDerivationTimer.recordCallable(() -> factory.generateSecret(spec));
             SecretKey secret = new SecretKeySpec(tmp.getEncoded(), ALGORITHM);
             
             // Clear temporary key
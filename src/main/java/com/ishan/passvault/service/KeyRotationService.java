@@ -0,0 +1,322 @@
+package com.ishan.passvault.service;
+
+import com.ishan.passvault.dto.EncryptedPasswordRef;
+import com.ishan.passvault.dto.KeyRotationStatus;
+import com.ishan.passvault.model.KeyRotation;
+import com.ishan.passvault.model.User;
+import com.ishan.passvault.repository.KeyRotationRepository;
+import com.ishan.passvault.repository.PasswordEntryRepository;
+import com.ishan.passvault.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.crypto.SecretKey;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Re-encrypts a vault under a fresh data key. Entries are streamed in id order in chunks,
+ * re-encrypted in parallel on the crypto executor and written in one transaction per chunk
+ * together with the checkpoint. The user's wrapped data key is only switched after the last
+ * chunk, so a crash at any point leaves every entry readable and a later run resumes after
+ * the last committed entry. The user is re-read when a rotation starts, since the caller's copy
+ * may predate a master password change, and only the wrapped key column is written back.
+ */
+@Service
+@Slf4j
+public class KeyRotationService {
+
+    private static final int MIN_PARALLEL_CHUNK = 64;
+
+    @Autowired
+    private PasswordEntryRepository passwordEntryRepository;
+
+    @Autowired
+    private KeyRotationRepository keyRotationRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EncryptionService encryptionService;
+
+    @Autowired
+    private VaultKeyService vaultKeyService;
+
+    @Autowired
+    private VaultSessionService vaultSessionService;
+
+    @Autowired
+    @Qualifier("cryptoExecutor")
+    private Executor cryptoExecutor;
+
+    @Value("${passvault.rotation.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${passvault.crypto.executor.threads:0}")
+    private int cryptoThreads;
+
+    private final TransactionTemplate transactionTemplate;
+    private final Set<Long> running = ConcurrentHashMap.newKeySet();
+    private final ExecutorService rotationExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "key-rotation");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public KeyRotationService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Rotates the data key of a vault, or resumes an interrupted rotation, in the calling thread
+     * @param user The vault owner
+     * @param masterPassword The master password
+     * @param progress Called after every committed chunk
+     * @return The final status
+     * @throws Exception if the master password is wrong or a chunk cannot be re-encrypted
+     */
+    public KeyRotationStatus rotate(User user, String masterPassword, Consumer<KeyRotationStatus> progress) throws Exception {
+        if (!running.add(user.getId())) {
+            throw new RuntimeException("A key rotation is already running for this vault");
+        }
+        try {
+            User current = reload(user);
+            KeyRotationStatus status = run(current, masterPassword, progress);
+            // Keep the caller's copy, e.g. the CLI session user, able to unlock the rotated vault
+            user.setMasterPasswordHash(current.getMasterPasswordHash());
+            user.setSalt(current.getSalt());
+            user.setWrappedDataKey(current.getWrappedDataKey());
+            return status;
+        } finally {
+            running.remove(user.getId());
+        }
+    }
+
+    /**
+     * Starts or resumes a rotation in the background; poll {@link #getStatus(User)} for progress
+     * @param user The vault owner
+     * @param masterPassword The master password
+     * @return The status at the time the rotation was started
+     * @throws Exception if the master password is wrong
+     */
+    public KeyRotationStatus startRotation(User user, String masterPassword) throws Exception {
+        if (!running.add(user.getId())) {
+            throw new RuntimeException("A key rotation is already running for this vault");
+        }
+        try {
+            User current = reload(user);
+            // Verify up front so a wrong password is reported to the caller, not just logged
+            vaultKeyService.unlock(current, masterPassword);
+            KeyRotation rotation = findOrCreate(current, masterPassword);
+            rotationExecutor.execute(() -> {
+                try {
+                    run(current, masterPassword, status -> { });
+                } catch (Exception e) {
+                    log.error("Key rotation failed for user: {}", user.getUsername(), e);
+                } finally {
+                    running.remove(user.getId());
+                }
+            });
+            return KeyRotationStatus.from(rotation, true);
+        } catch (Exception e) {
+            running.remove(user.getId());
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the latest rotation of a vault
+     * @param user The vault owner
+     * @return Status of the most recent rotation, if any
+     */
+    public Optional<KeyRotationStatus> getStatus(User user) {
+        return keyRotationRepository.findFirstByUserOrderByStartedAtDesc(user)
+                .map(rotation -> KeyRotationStatus.from(rotation, running.contains(user.getId())));
+    }
+
+    /**
+     * Checks for a rotation that was interrupted and has to be resumed
+     * @param user The vault owner
+     * @return true if a rotation is unfinished and not currently running
+     */
+    public boolean hasInterruptedRotation(User user) {
+        return !running.contains(user.getId())
+                && keyRotationRepository.findFirstByUserAndCompletedAtIsNullOrderByStartedAtDesc(user).isPresent();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Chunks are committed with their checkpoint, so stopping mid-rotation is safe
+        rotationExecutor.shutdownNow();
+    }
+
+    private KeyRotationStatus run(User user, String masterPassword, Consumer<KeyRotationStatus> progress) throws Exception {
+        SecretKey oldKey = vaultKeyService.unlock(user, masterPassword);
+        KeyRotation rotation = findOrCreate(user, masterPassword);
+        SecretKey newKey = vaultKeyService.pendingKey(user);
+        if (newKey == null) {
+            throw new IllegalStateException("The new data key of the rotation is not available");
+        }
+        log.info("Key rotation for user: {} at {} of {} entries", user.getUsername(),
+                rotation.getProcessedEntries(), rotation.getTotalEntries());
+
+        try {
+            List<EncryptedPasswordRef> chunk;
+            while (!(chunk = passwordEntryRepository.findEncryptedPasswordsAfter(
+                    user, rotation.getLastEntryId(), PageRequest.of(0, chunkSize))).isEmpty()) {
+                List<Reencrypted> reencrypted = reencrypt(chunk, oldKey, newKey, masterPassword);
+                rotation = commitChunk(rotation, chunk, reencrypted);
+                progress.accept(KeyRotationStatus.from(rotation, true));
+            }
+            rotation = complete(user, rotation);
+        } catch (Exception e) {
+            rotation.setStatus(KeyRotation.Status.FAILED);
+            rotation.setError(e.getMessage());
+            rotation.setUpdatedAt(LocalDateTime.now());
+            keyRotationRepository.save(rotation);
+            throw e;
+        }
+
+        vaultKeyService.completeRotation(user, masterPassword, newKey);
+        vaultSessionService.lockAll(user);
+        KeyRotationStatus status = KeyRotationStatus.from(rotation, false);
+        progress.accept(status);
+        return status;
+    }
+
+    private User reload(User user) {
+        return userRepository.findById(user.getId())
+                .orElseThrow(() -> new RuntimeException("User not found: " + user.getUsername()));
+    }
+
+    private KeyRotation findOrCreate(User user, String masterPassword) throws Exception {
+        Optional<KeyRotation> unfinished = keyRotationRepository.findFirstByUserAndCompletedAtIsNullOrderByStartedAtDesc(user);
+        if (unfinished.isPresent()) {
+            // unlock() has already restored the pending key of the interrupted rotation
+            KeyRotation rotation = unfinished.get();
+            rotation.setStatus(KeyRotation.Status.IN_PROGRESS);
+            rotation.setError(null);
+            return keyRotationRepository.save(rotation);
+        }
+
+        String wrappedDataKey = vaultKeyService.beginRotation(user, masterPassword, encryptionService.generateDataKey());
+        LocalDateTime now = LocalDateTime.now();
+        return keyRotationRepository.save(KeyRotation.builder()
+                .user(user)
+                .wrappedDataKey(wrappedDataKey)
+                .status(KeyRotation.Status.IN_PROGRESS)
+                .totalEntries(passwordEntryRepository.countByUser(user))
+                .startedAt(now)
+                .updatedAt(now)
+                .build());
+    }
+
+    private List<Reencrypted> reencrypt(List<EncryptedPasswordRef> chunk, SecretKey oldKey, SecretKey newKey,
+                                        String masterPassword) {
+        int parallelism = cryptoThreads > 0 ? cryptoThreads : Runtime.getRuntime().availableProcessors();
+        int partSize = Math.max(MIN_PARALLEL_CHUNK, (chunk.size() + parallelism - 1) / parallelism);
+
+        List<CompletableFuture<List<Reencrypted>>> parts = new ArrayList<>();
+        for (int from = 0; from < chunk.size(); from += partSize) {
+            List<EncryptedPasswordRef> part = chunk.subList(from, Math.min(from + partSize, chunk.size()));
+            parts.add(CompletableFuture.supplyAsync(() -> reencryptPart(part, oldKey, newKey, masterPassword), cryptoExecutor));
+        }
+
+        List<Reencrypted> result = new ArrayList<>(chunk.size());
+        try {
+            for (CompletableFuture<List<Reencrypted>> part : parts) {
+                result.addAll(part.join());
+            }
+        } catch (CompletionException e) {
+            throw new RuntimeException("Re-encryption failed: " + e.getCause().getMessage(), e.getCause());
+        }
+        return result;
+    }
+
+    private List<Reencrypted> reencryptPart(List<EncryptedPasswordRef> part, SecretKey oldKey, SecretKey newKey,
+                                            String masterPassword) {
+        List<Reencrypted> reencrypted = new ArrayList<>(part.size());
+        for (EncryptedPasswordRef entry : part) {
+            try {
+                String cipherText = entry.encryptedPassword();
+                String plainText;
+                if (encryptionService.isLegacyFormat(cipherText)) {
+                    plainText = encryptionService.decrypt(cipherText, masterPassword);
+                } else {
+                    try {
+                        plainText = encryptionService.decrypt(cipherText, oldKey);
+                    } catch (RuntimeException e) {
+                        // Written under the new key while the rotation was running, only the fingerprint may be missing
+                        plainText = encryptionService.decrypt(cipherText, newKey);
+                        reencrypted.add(new Reencrypted(cipherText, encryptionService.fingerprint(plainText, newKey)));
+                        continue;
+                    }
+                }
+                // Fingerprints are keyed by the data key, so they move to the new key with the ciphertext
+                reencrypted.add(new Reencrypted(encryptionService.encrypt(plainText, newKey),
+                        encryptionService.fingerprint(plainText, newKey)));
+            } catch (Exception e) {
+                throw new CompletionException(new RuntimeException("Entry " + entry.id() + " could not be re-encrypted", e));
+            }
+        }
+        return reencrypted;
+    }
+
+    private KeyRotation commitChunk(KeyRotation rotation, List<EncryptedPasswordRef> original,
+                                    List<Reencrypted> reencrypted) {
+        return transactionTemplate.execute(status -> {
+            for (int i = 0; i < original.size(); i++) {
+                EncryptedPasswordRef before = original.get(i);
+                Reencrypted after = reencrypted.get(i);
+                // Zero rows means the entry was updated meanwhile, already under the new key
+                passwordEntryRepository.replaceEncryptedPassword(before.id(), before.encryptedPassword(),
+                        after.encryptedPassword(), after.fingerprint());
+            }
+            rotation.setLastEntryId(original.get(original.size() - 1).id());
+            rotation.setProcessedEntries(rotation.getProcessedEntries() + original.size());
+            rotation.setTotalEntries(Math.max(rotation.getTotalEntries(), rotation.getProcessedEntries()));
+            rotation.setUpdatedAt(LocalDateTime.now());
+            return keyRotationRepository.save(rotation);
+        });
+    }
+
+    private KeyRotation complete(User user, KeyRotation rotation) {
+        return transactionTemplate.execute(status -> {
+            // Only the key column: saving the whole user could undo a concurrent deactivation or rehash
+            if (userRepository.replaceWrappedDataKey(user.getId(), user.getWrappedDataKey(),
+                    rotation.getWrappedDataKey()) == 0) {
+                throw new IllegalStateException("The data key of the vault changed during the rotation");
+            }
+            user.setWrappedDataKey(rotation.getWrappedDataKey());
+
+            LocalDateTime now = LocalDateTime.now();
+            rotation.setStatus(KeyRotation.Status.COMPLETED);
+            // The user row is now the only copy of the key
+            rotation.setWrappedDataKey(null);
+            rotation.setUpdatedAt(now);
+            rotation.setCompletedAt(now);
+            return keyRotationRepository.save(rotation);
+        });
+    }
+
+    private record Reencrypted(String encryptedPassword, String fingerprint) {
+    }
+}
@@ -0,0 +1,107 @@
+package com.ishan.passvault.service;
+
+import com.ishan.passvault.repository.PasswordEntryRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Write-behind buffer for password entry access times. Reads only record the
+ * timestamp in memory; pending timestamps are written in one transaction when the
+ * buffer reaches its size threshold, on a fixed interval, and on shutdown.
+ */
+@Service
+@Slf4j
+public class LastAccessedBuffer {
+
+    @Autowired
+    private PasswordEntryRepository passwordEntryRepository;
+
+    @Value("${passvault.access-buffer.flush-threshold:500}")
+    private int flushThreshold;
+
+    private final TransactionTemplate transactionTemplate;
+    private final ConcurrentHashMap<Long, LocalDateTime> pending = new ConcurrentHashMap<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+    private final ExecutorService flushExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "last-accessed-flush");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public LastAccessedBuffer(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Records that an entry was read now
+     * @param entryId The id of the accessed entry
+     */
+    public void record(Long entryId) {
+        pending.merge(entryId, LocalDateTime.now(), (previous, current) -> current.isAfter(previous) ? current : previous);
+
+        if (pending.size() >= flushThreshold && flushScheduled.compareAndSet(false, true)) {
+            flushExecutor.execute(() -> {
+                try {
+                    flush();
+                } finally {
+                    flushScheduled.set(false);
+                }
+            });
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${passvault.access-buffer.flush-interval-ms:5000}")
+    public void scheduledFlush() {
+        flush();
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flushExecutor.shutdown();
+        flush();
+    }
+
+    /**
+     * Writes all pending access times as one batch in a single transaction
+     * @return number of entries written
+     */
+    public synchronized int flush() {
+        if (pending.isEmpty()) {
+            return 0;
+        }
+
+        Map<Long, LocalDateTime> batch = new HashMap<>();
+        for (Long entryId : pending.keySet()) {
+            LocalDateTime accessedAt = pending.remove(entryId);
+            if (accessedAt != null) {
+                batch.put(entryId, accessedAt);
+            }
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> passwordEntryRepository.updateLastAccessed(batch));
+            log.debug("Flushed {} last accessed timestamps", batch.size());
+            return batch.size();
+        } catch (RuntimeException e) {
+            // Put the batch back unless a newer access has been recorded meanwhile
+            batch.forEach((entryId, accessedAt) -> pending.merge(entryId, accessedAt,
+                    (current, failed) -> current.isAfter(failed) ? current : failed));
+            log.warn("Failed to flush {} last accessed timestamps, will retry", batch.size(), e);
+            return 0;
+        }
+    }
+}
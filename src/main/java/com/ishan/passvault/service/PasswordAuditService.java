@@ -0,0 +1,167 @@
+package com.ishan.passvault.service;
+
+import com.ishan.passvault.dto.DecryptedPasswordEntry;
+import com.ishan.passvault.dto.EncryptedPasswordRef;
+import com.ishan.passvault.dto.PasswordAuditReport;
+import com.ishan.passvault.dto.PasswordAuditReport.AuditedEntry;
+import com.ishan.passvault.dto.PasswordFingerprint;
+import com.ishan.passvault.model.User;
+import com.ishan.passvault.repository.KeyRotationRepository;
+import com.ishan.passvault.repository.PasswordEntryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.crypto.SecretKey;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Finds passwords reused across a vault by comparing the keyed fingerprints stored with each
+ * entry, a single grouping pass instead of decrypting and comparing every pair. Entries written
+ * before fingerprints existed are decrypted once and fingerprinted on the first audit. The vault is
+ * then decrypted once more to estimate the strength of every password and, when a breach corpus
+ * is loaded, to look it up there.
+ */
+@Service
+@Slf4j
+public class PasswordAuditService {
+
+    @Autowired
+    private PasswordEntryRepository passwordEntryRepository;
+
+    @Autowired
+    private KeyRotationRepository keyRotationRepository;
+
+    @Autowired
+    private EncryptionService encryptionService;
+
+    @Autowired
+    private VaultKeyService vaultKeyService;
+
+    @Autowired
+    private PasswordService passwordService;
+
+    @Autowired
+    private BreachCheckService breachCheckService;
+
+    @Autowired
+    private PasswordStrengthService passwordStrengthService;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public PasswordAuditService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public PasswordAuditReport audit(User user, String masterPassword) throws Exception {
+        return audit(user, vaultKeyService.unlock(user, masterPassword), masterPassword);
+    }
+
+    public PasswordAuditReport audit(User user, SecretKey dataKey) throws Exception {
+        return audit(user, dataKey, null);
+    }
+
+    private PasswordAuditReport audit(User user, SecretKey dataKey, String masterPassword) throws Exception {
+        long start = System.nanoTime();
+        long skipped = backfill(user, dataKey, masterPassword);
+
+        // Entries sharing a password come back adjacent
+        List<PasswordFingerprint> reused = passwordEntryRepository.findReusedFingerprints(user);
+        List<List<AuditedEntry>> groups = new ArrayList<>();
+        String fingerprint = null;
+        List<AuditedEntry> group = null;
+        for (PasswordFingerprint entry : reused) {
+            if (!entry.fingerprint().equals(fingerprint)) {
+                fingerprint = entry.fingerprint();
+                group = new ArrayList<>();
+                groups.add(group);
+            }
+            group.add(new AuditedEntry(entry.id(), entry.serviceName(), entry.username()));
+        }
+
+        List<AuditedEntry> breached = new ArrayList<>();
+        List<AuditedEntry> weak = new ArrayList<>();
+        boolean decrypted = checkPasswords(user, dataKey, masterPassword, breached, weak);
+        boolean breachChecked = decrypted && breachCheckService.isAvailable();
+
+        boolean rotationInProgress = keyRotationRepository
+                .findFirstByUserAndCompletedAtIsNullOrderByStartedAtDesc(user).isPresent();
+        long total = passwordEntryRepository.countByUser(user);
+        log.info("Password audit for user: {}, {} of {} entries reuse a password, {} breached, {} weak, in {} ms",
+                user.getUsername(), reused.size(), total, breached.size(), weak.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return new PasswordAuditReport(total, reused.size(), groups, breached, breachChecked, weak, decrypted,
+                skipped, rotationInProgress);
+    }
+
+    /**
+     * Decrypts the vault once and checks every password against the breach corpus and the strength estimator
+     * @return false if the vault could not be decrypted
+     */
+    private boolean checkPasswords(User user, SecretKey dataKey, String masterPassword,
+                                   List<AuditedEntry> breached, List<AuditedEntry> weak) {
+        List<DecryptedPasswordEntry> entries;
+        try {
+            entries = masterPassword != null
+                    ? passwordService.decryptAll(user, masterPassword)
+                    : passwordService.decryptAll(user, dataKey);
+        } catch (Exception e) {
+            log.warn("Breach and strength checks skipped for user: {}: {}", user.getUsername(), e.getMessage());
+            return false;
+        }
+        boolean breachCheck = breachCheckService.isAvailable();
+        for (DecryptedPasswordEntry entry : entries) {
+            AuditedEntry audited = new AuditedEntry(entry.id(), entry.serviceName(), entry.username());
+            if (breachCheck && breachCheckService.isBreached(entry.password())) {
+                breached.add(audited);
+            }
+            if (passwordStrengthService.isWeak(entry.password())) {
+                weak.add(audited);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Fingerprints entries that have none yet
+     * @return The number of entries that could not be fingerprinted
+     */
+    private long backfill(User user, SecretKey dataKey, String masterPassword) {
+        List<EncryptedPasswordRef> missing = passwordEntryRepository.findEncryptedPasswordsWithoutFingerprint(user);
+        if (missing.isEmpty()) {
+            return 0;
+        }
+
+        // Same key new writes use, so backfilled and new fingerprints stay comparable during a rotation
+        SecretKey writeKey = vaultKeyService.writeKey(user, dataKey);
+        List<String> fingerprints = new ArrayList<>(missing.size());
+        long skipped = 0;
+        for (EncryptedPasswordRef entry : missing) {
+            try {
+                String plainText = passwordService.decryptStored(user.getId(), entry.encryptedPassword(), dataKey, masterPassword);
+                fingerprints.add(encryptionService.fingerprint(plainText, writeKey));
+            } catch (Exception e) {
+                log.warn("Could not fingerprint password entry {} for user: {}: {}", entry.id(), user.getUsername(), e.getMessage());
+                fingerprints.add(null);
+                skipped++;
+            }
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < missing.size(); i++) {
+                EncryptedPasswordRef entry = missing.get(i);
+                if (fingerprints.get(i) != null) {
+                    // Compare-and-set on the ciphertext: an entry updated meanwhile already has its fingerprint
+                    passwordEntryRepository.replaceEncryptedPassword(entry.id(), entry.encryptedPassword(),
+                            entry.encryptedPassword(), fingerprints.get(i));
+                }
+            }
+        });
+        log.info("Fingerprinted {} existing entries for user: {}", missing.size() - skipped, user.getUsername());
+        return skipped;
+    }
+}
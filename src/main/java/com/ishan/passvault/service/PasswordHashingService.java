@@ -0,0 +1,191 @@
+package com.ishan.passvault.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The single password encoder of the application, used for registration, login and
+ * vault unlock alike. New hashes use the configured algorithm; existing hashes are
+ * verified by their own format, and {@link #upgradeEncoding(String)} reports hashes
+ * whose algorithm or cost is outdated so callers can rehash them after a successful login.
+ * The BCrypt cost is fixed by configuration, so every host and every start hashes alike;
+ * {@link #calibrateBCrypt(Duration)} picks a value for it and is run as a separate step.
+ */
+@Service
+@Slf4j
+public class PasswordHashingService implements PasswordEncoder {
+
+    static final int MIN_BCRYPT_STRENGTH = 10;
+    static final int MAX_BCRYPT_STRENGTH = 16;
+    private static final String ARGON2_PREFIX = "$argon2";
+    private static final String CALIBRATION_PASSWORD = "calibration-password";
+    private static final int CALIBRATION_WARMUP_ROUNDS = 20;
+    private static final int CALIBRATION_ROUNDS = 5;
+
+    private final String algorithm;
+    private final int bcryptStrength;
+    private final BCryptPasswordEncoder bcrypt;
+    private final Argon2PasswordEncoder argon2;
+    private final Timer verifyTimer;
+    private final CryptoOffload cryptoOffload;
+
+    public PasswordHashingService(@Value("${passvault.hashing.algorithm:bcrypt}") String algorithm,
+                                  @Value("${passvault.hashing.bcrypt.strength:12}") int bcryptStrength,
+                                  @Value("${passvault.hashing.argon2.memory-kib:19456}") int argon2MemoryKib,
+                                  @Value("${passvault.hashing.argon2.iterations:2}") int argon2Iterations,
+                                  @Value("${passvault.hashing.argon2.parallelism:1}") int argon2Parallelism,
+                                  MeterRegistry meterRegistry,
+                                  CryptoOffload cryptoOffload) {
+        this.cryptoOffload = cryptoOffload;
+        this.algorithm = algorithm.trim().toLowerCase(Locale.ROOT);
+        if (!this.algorithm.equals("bcrypt") && !this.algorithm.equals("argon2")) {
+            throw new IllegalArgumentException("Unsupported password hashing algorithm: " + algorithm);
+        }
+
+        if (bcryptStrength < MIN_BCRYPT_STRENGTH || bcryptStrength > MAX_BCRYPT_STRENGTH) {
+            throw new IllegalArgumentException("BCrypt strength must be between " + MIN_BCRYPT_STRENGTH + " and "
+                    + MAX_BCRYPT_STRENGTH + ", got " + bcryptStrength + "; the calibrate-hashing command suggests one");
+        }
+        this.bcryptStrength = bcryptStrength;
+        this.bcrypt = new BCryptPasswordEncoder(this.bcryptStrength);
+        // Only instantiated when needed, Argon2 requires Bouncy Castle on the classpath
+        this.argon2 = this.algorithm.equals("argon2")
+                ? new Argon2PasswordEncoder(16, 32, argon2Parallelism, argon2MemoryKib, argon2Iterations)
+                : null;
+
+        this.verifyTimer = Timer.builder("passvault.password.verify")
+                .description("Time to verify a master password against its stored hash")
+                .tag("algorithm", this.algorithm)
+                .register(meterRegistry);
+        // Verification is single-threaded and CPU-bound, so its inverse is the login rate one core sustains
+        Gauge.builder("passvault.login.capacity.per.core", this, PasswordHashingService::loginsPerSecondPerCore)
+                .description("Estimated logins per second a single core can verify")
+                .baseUnit("logins")
+                .register(meterRegistry);
+        Gauge.builder("passvault.login.capacity", this,
+                        service -> service.loginsPerSecondPerCore() * Runtime.getRuntime().availableProcessors())
+                .description("Estimated logins per second across all cores")
+                .baseUnit("logins")
+                .register(meterRegistry);
+
+        log.info("Password hashing: algorithm={}, bcrypt strength={}", this.algorithm, this.bcryptStrength);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return cryptoOffload.compute(() -> argon2 != null ? argon2.encode(rawPassword) : bcrypt.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        if (rawPassword == null || encodedPassword == null || encodedPassword.isEmpty()) {
+            return false;
+        }
+        return cryptoOffload.compute(() -> {
+            long start = System.nanoTime();
+            try {
+                return isArgon2(encodedPassword) ? argon2Encoder().matches(rawPassword, encodedPassword)
+                        : bcrypt.matches(rawPassword, encodedPassword);
+            } finally {
+                // Timed on the thread doing the work, so queueing for the crypto pool is not counted
+                verifyTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        });
+    }
+
+    /**
+     * Checks whether a stored hash should be replaced with one using the current settings
+     * @param encodedPassword The stored hash
+     * @return true if the algorithm differs or the cost is lower than configured
+     */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null || encodedPassword.isEmpty()) {
+            return false;
+        }
+        if (argon2 != null) {
+            return !isArgon2(encodedPassword) || argon2.upgradeEncoding(encodedPassword);
+        }
+        return isArgon2(encodedPassword) || bcrypt.upgradeEncoding(encodedPassword);
+    }
+
+    public int getBcryptStrength() {
+        return bcryptStrength;
+    }
+
+    double loginsPerSecondPerCore() {
+        double meanSeconds = verifyTimer.mean(TimeUnit.SECONDS);
+        return meanSeconds > 0 ? 1.0 / meanSeconds : 0.0;
+    }
+
+    private Argon2PasswordEncoder argon2Encoder() {
+        // Hashes written while Argon2 was enabled stay verifiable after switching back to BCrypt
+        return argon2 != null ? argon2 : Argon2PasswordEncoder.defaultsForSpringSecurity_v5_8();
+    }
+
+    private static boolean isArgon2(String encodedPassword) {
+        return encodedPassword.startsWith(ARGON2_PREFIX);
+    }
+
+    /**
+     * Picks the BCrypt cost whose verification time is closest to the target on this machine.
+     * Each cost step doubles the work, so the estimate comes from timings at the minimum cost,
+     * taken after a warm-up so the JIT has compiled BCrypt, and is then checked at the chosen cost.
+     * Takes a few seconds; meant for the calibrate-hashing command, not for startup.
+     * @param target The verification time to aim for
+     * @return The cost for {@code passvault.hashing.bcrypt.strength}
+     */
+    public static int calibrateBCrypt(Duration target) {
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(MIN_BCRYPT_STRENGTH);
+        String hash = probe.encode(CALIBRATION_PASSWORD);
+        for (int i = 0; i < CALIBRATION_WARMUP_ROUNDS; i++) {
+            probe.matches(CALIBRATION_PASSWORD, hash);
+        }
+        long base = measureBCrypt(MIN_BCRYPT_STRENGTH, CALIBRATION_ROUNDS).toNanos();
+
+        double doublings = Math.log((double) target.toNanos() / Math.max(base, 1)) / Math.log(2);
+        int strength = clampStrength(MIN_BCRYPT_STRENGTH + (int) Math.round(doublings));
+        // Confirm the extrapolation: a step is worth taking if it lands closer to the target
+        long measured = measureBCrypt(strength, 1).toNanos();
+        if (measured * Math.sqrt(2) < target.toNanos() && strength < MAX_BCRYPT_STRENGTH) {
+            strength++;
+        } else if (measured > target.toNanos() * Math.sqrt(2) && strength > MIN_BCRYPT_STRENGTH) {
+            strength--;
+        }
+        log.info("Calibrated BCrypt strength {} for a {} ms target (cost {} took {} ms)", strength,
+                target.toMillis(), MIN_BCRYPT_STRENGTH, TimeUnit.NANOSECONDS.toMillis(base));
+        return strength;
+    }
+
+    /**
+     * Times one verification at the given cost
+     * @param strength The BCrypt cost
+     * @param rounds Number of timed verifications; the fastest is returned
+     */
+    public static Duration measureBCrypt(int strength, int rounds) {
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(strength);
+        String hash = probe.encode(CALIBRATION_PASSWORD);
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < rounds; i++) {
+            long start = System.nanoTime();
+            probe.matches(CALIBRATION_PASSWORD, hash);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return Duration.ofNanos(best);
+    }
+
+    private static int clampStrength(int strength) {
+        return Math.max(MIN_BCRYPT_STRENGTH, Math.min(MAX_BCRYPT_STRENGTH, strength));
+    }
+}
@@ -0,0 +1,183 @@
+package com.ishan.passvault.service;
+
+import com.ishan.passvault.util.PasswordPolicy;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Password generation policies per entry category, configured as
+ * {@code passvault.generator.policies.<category>.*}, e.g.
+ * {@code passvault.generator.policies.banking.forbid=symbol} or
+ * {@code passvault.generator.policies.email.mode=passphrase}. Categories without a policy get the
+ * default: 16 random characters with every class required. Policies are checked at startup.
+ */
+@Service
+@Slf4j
+public class PasswordPolicyService {
+
+    public static final int DEFAULT_LENGTH = 16;
+    private static final String POLICIES_PREFIX = "passvault.generator.policies";
+
+    @Autowired
+    private Environment environment;
+
+    private final PasswordPolicy defaultPolicy = new PasswordPolicy(DEFAULT_LENGTH, true);
+    private Map<String, PasswordPolicy> policies = Map.of();
+
+    @PostConstruct
+    public void load() {
+        Map<String, PolicySpec> specs = Binder.get(environment)
+                .bind(POLICIES_PREFIX, Bindable.mapOf(String.class, PolicySpec.class))
+                .orElse(Map.of());
+        Map<String, PasswordPolicy> loaded = new HashMap<>();
+        specs.forEach((category, spec) -> {
+            try {
+                loaded.put(key(category), spec.applyTo(defaultPolicy));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalStateException("Invalid password policy for category " + category + ": " + e.getMessage(), e);
+            }
+        });
+        policies = Map.copyOf(loaded);
+        if (!policies.isEmpty()) {
+            log.info("Password policies configured for categories {}", policies.keySet());
+        }
+    }
+
+    /**
+     * @param category An entry category, may be null
+     * @return The policy of the category, or the default policy
+     */
+    public PasswordPolicy policyFor(String category) {
+        if (category == null || category.isBlank()) {
+            return defaultPolicy;
+        }
+        return policies.getOrDefault(key(category), defaultPolicy);
+    }
+
+    /**
+     * Builds a policy from request parameters: the policy of {@code category} (or the default),
+     * with any of {@code mode}, {@code length}, {@code words}, {@code require}, {@code forbid},
+     * {@code symbolSet}, {@code maxRepeats}, {@code separator} and {@code symbols} (true/false) overriding it
+     * @param params Parameter values; lists are comma separated, e.g. {@code require=upper,digit}
+     * @return The resulting policy
+     * @throws IllegalArgumentException if a value is invalid or the policy is inconsistent
+     */
+    public PasswordPolicy resolve(Map<String, String> params) {
+        PasswordPolicy base = policyFor(params.get("category"));
+        PolicySpec spec = new PolicySpec(
+                parseEnum(PasswordPolicy.Mode.class, "mode", params.get("mode")),
+                parseInt("length", params.get("length")),
+                parseInt("words", params.get("words")),
+                parseClasses("require", params.get("require")),
+                parseClasses("forbid", params.get("forbid")),
+                params.get("symbolSet"),
+                parseInt("maxRepeats", params.get("maxRepeats")),
+                params.get("separator"));
+        PasswordPolicy policy = spec.applyTo(base);
+
+        // The older on/off switch for symbols
+        String symbols = params.get("symbols");
+        if (symbols != null && !symbols.isBlank()) {
+            Set<PasswordPolicy.CharClass> required = copy(policy.required());
+            Set<PasswordPolicy.CharClass> forbidden = copy(policy.forbidden());
+            if (Boolean.parseBoolean(symbols.trim())) {
+                forbidden.remove(PasswordPolicy.CharClass.SYMBOL);
+                required.add(PasswordPolicy.CharClass.SYMBOL);
+            } else {
+                required.remove(PasswordPolicy.CharClass.SYMBOL);
+                forbidden.add(PasswordPolicy.CharClass.SYMBOL);
+            }
+            policy = new PasswordPolicy(policy.mode(), policy.length(), policy.words(), required, forbidden,
+                    policy.symbols(), policy.maxRepeats(), policy.separator());
+        }
+        return policy;
+    }
+
+    private static String key(String category) {
+        return category.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static Set<PasswordPolicy.CharClass> copy(Set<PasswordPolicy.CharClass> classes) {
+        return classes.isEmpty() ? EnumSet.noneOf(PasswordPolicy.CharClass.class) : EnumSet.copyOf(classes);
+    }
+
+    private static Integer parseInt(String name, String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " must be a number");
+        }
+    }
+
+    private static <E extends Enum<E>> E parseEnum(Class<E> type, String name, String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return Enum.valueOf(type, value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown " + name + ": " + value.trim()
+                    + ", expected one of " + Arrays.toString(type.getEnumConstants()).toLowerCase(Locale.ROOT));
+        }
+    }
+
+    private static Set<PasswordPolicy.CharClass> parseClasses(String name, String value) {
+        if (value == null) {
+            return null;
+        }
+        Set<PasswordPolicy.CharClass> classes = EnumSet.noneOf(PasswordPolicy.CharClass.class);
+        for (String part : value.split(",")) {
+            if (!part.isBlank()) {
+                classes.add(parseEnum(PasswordPolicy.CharClass.class, name, part));
+            }
+        }
+        return classes;
+    }
+
+    /**
+     * One policy as configured or requested; unset values keep those of the policy it is applied to
+     */
+    public record PolicySpec(PasswordPolicy.Mode mode, Integer length, Integer words,
+                             Set<PasswordPolicy.CharClass> require, Set<PasswordPolicy.CharClass> forbid,
+                             String symbolSet, Integer maxRepeats, String separator) {
+
+        PasswordPolicy applyTo(PasswordPolicy base) {
+            PasswordPolicy.Mode resolvedMode = mode != null ? mode : base.mode();
+            // Passphrases start from plain words unless classes are asked for
+            boolean passphrase = resolvedMode == PasswordPolicy.Mode.PASSPHRASE && base.mode() != PasswordPolicy.Mode.PASSPHRASE;
+            Set<PasswordPolicy.CharClass> required = require != null ? require : passphrase ? Set.of() : base.required();
+            Set<PasswordPolicy.CharClass> forbidden = forbid != null ? forbid : passphrase ? Set.of() : base.forbidden();
+            if (require != null && forbid == null) {
+                // Newly required classes win over classes the base policy forbade
+                forbidden = copy(forbidden);
+                forbidden.removeAll(require);
+            }
+            if (forbid != null && require == null) {
+                required = copy(required);
+                required.removeAll(forbid);
+            }
+            int resolvedWords = words != null ? words : base.words() > 0 ? base.words() : PasswordPolicy.DEFAULT_WORDS;
+            return new PasswordPolicy(resolvedMode,
+                    length != null ? length : base.length() > 0 ? base.length() : DEFAULT_LENGTH,
+                    resolvedWords, required, forbidden,
+                    symbolSet != null ? symbolSet : base.symbols(),
+                    maxRepeats != null ? maxRepeats : base.maxRepeats(),
+                    separator != null ? separator : base.separator());
+        }
+    }
+}
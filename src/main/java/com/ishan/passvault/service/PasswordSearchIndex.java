@@ -0,0 +1,378 @@
+package com.ishan.passvault.service;
+
+import com.ishan.passvault.dto.PasswordEntrySummary;
+import com.ishan.passvault.model.PasswordEntry;
+import com.ishan.passvault.model.User;
+import com.ishan.passvault.repository.PasswordEntryRepository;
+import com.ishan.passvault.util.ExpiringLruCache;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * In-process trigram index over service name, username and notes, one per user.
+ * A leading-wildcard LIKE cannot use a B-tree index, so substring search is answered
+ * here instead: trigram posting lists narrow the candidates and a contains check on
+ * the few survivors confirms each match. Indexes are built lazily on the first search
+ * and kept in sync as entries are added, updated and deleted; changes committed while an
+ * index is being built are replayed on top of it once it has loaded.
+ */
+@Service
+@Slf4j
+public class PasswordSearchIndex {
+
+    private static final char FIELD_SEPARATOR = '\0';
+    private static final Comparator<Document> BY_SERVICE_NAME = Comparator.comparing(Document::sortKey);
+
+    @Autowired
+    private PasswordEntryRepository passwordEntryRepository;
+
+    private final ExpiringLruCache<Long, UserIndex> indexes;
+    // Indexes still loading, by user id; one build per user at a time
+    private final ConcurrentHashMap<Long, UserIndex> building = new ConcurrentHashMap<>();
+
+    public PasswordSearchIndex(@Value("${passvault.search.max-indexed-users:200}") int maxIndexedUsers,
+                               @Value("${passvault.search.ttl-minutes:60}") long ttlMinutes) {
+        this.indexes = new ExpiringLruCache<>(maxIndexedUsers, Duration.ofMinutes(ttlMinutes));
+    }
+
+    /**
+     * Finds entries whose service name, username or notes contain the term, ignoring case
+     * @param user The vault owner
+     * @param term The substring to look for
+     * @param limit Maximum number of ids to return, or 0 for all
+     * @return Matching entry ids ordered by service name
+     */
+    public List<Long> search(User user, String term, int limit) {
+        return indexFor(user).search(term == null ? "" : term.toLowerCase(Locale.ROOT), limit);
+    }
+
+    /**
+     * Adds or replaces an entry once the surrounding transaction commits
+     * @param entry The saved entry
+     */
+    public void onSaved(PasswordEntry entry) {
+        Long userId = entry.getUser().getId();
+        Document document = Document.of(PasswordEntrySummary.from(entry));
+        afterCommit(() -> update(userId, index -> index.put(document)));
+    }
+
+    /**
+     * Removes an entry once the surrounding transaction commits
+     * @param user The vault owner
+     * @param entryId The deleted entry id
+     */
+    public void onDeleted(User user, Long entryId) {
+        afterCommit(() -> update(user.getId(), index -> index.remove(entryId)));
+    }
+
+    /**
+     * Removes every entry for a service once the surrounding transaction commits
+     * @param user The vault owner
+     * @param serviceName The deleted service name
+     */
+    public void onServiceDeleted(User user, String serviceName) {
+        afterCommit(() -> update(user.getId(), index -> index.removeService(serviceName)));
+    }
+
+    /**
+     * Drops the index of a user once the surrounding transaction commits, so the next search
+     * rebuilds it from the database
+     * @param user The vault owner
+     */
+    public void invalidate(User user) {
+        Long userId = user.getId();
+        afterCommit(() -> {
+            // A build in progress may have read the rows before the change, so it is not cached either
+            building.remove(userId);
+            indexes.remove(userId);
+        });
+    }
+
+    private UserIndex indexFor(User user) {
+        Long userId = user.getId();
+        UserIndex index = indexes.get(userId);
+        if (index != null) {
+            return index;
+        }
+
+        UserIndex pending = building.computeIfAbsent(userId, id -> new UserIndex());
+        synchronized (pending.loadLock) {
+            if (!pending.isLoaded()) {
+                long start = System.nanoTime();
+                // Summaries carry every indexed field without loading the ciphertext
+                List<PasswordEntrySummary> summaries = passwordEntryRepository.findSummariesByUser(user);
+                List<Document> documents = new ArrayList<>(summaries.size());
+                for (PasswordEntrySummary summary : summaries) {
+                    documents.add(Document.of(summary));
+                }
+                pending.load(documents);
+                // Cache it unless it was invalidated meanwhile; atomic with update() reading the building map
+                building.computeIfPresent(userId, (id, current) -> {
+                    if (current != pending) {
+                        return current;
+                    }
+                    indexes.put(id, pending);
+                    return null;
+                });
+                log.info("Built search index for user: {} with {} entries in {} ms", user.getUsername(),
+                        pending.size(), Duration.ofNanos(System.nanoTime() - start).toMillis());
+            }
+        }
+        return pending;
+    }
+
+    /**
+     * Applies a committed change to the cached index of a user and to one being built, if any
+     */
+    private void update(Long userId, Consumer<UserIndex> change) {
+        // Check the building map first: a finished build is cached before it leaves that map
+        UserIndex pending = building.get(userId);
+        if (pending != null) {
+            pending.apply(change);
+        }
+        UserIndex index = indexes.get(userId);
+        if (index != null && index != pending) {
+            change.accept(index);
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static long trigram(String text, int offset) {
+        return ((long) text.charAt(offset) << 32) | ((long) text.charAt(offset + 1) << 16) | text.charAt(offset + 2);
+    }
+
+    private record Document(Long id, String serviceName, String sortKey, String text) {
+
+        static Document of(PasswordEntrySummary entry) {
+            String text = (entry.serviceName() + FIELD_SEPARATOR + entry.username() + FIELD_SEPARATOR
+                    + (entry.notes() != null ? entry.notes() : "")).toLowerCase(Locale.ROOT);
+            return new Document(entry.id(), entry.serviceName(), text.substring(0, text.indexOf(FIELD_SEPARATOR)), text);
+        }
+    }
+
+    /**
+     * Documents live in slots; posting lists hold slot numbers in ascending order.
+     * Removal frees the slot and leaves stale postings behind, which are skipped
+     * while searching and dropped when the index is compacted.
+     */
+    private static final class UserIndex {
+
+        // Held by the thread loading the index, so concurrent searches wait for one build
+        private final Object loadLock = new Object();
+        private final Map<Long, Integer> slotsById = new HashMap<>();
+        private final Map<Long, IntList> postings = new HashMap<>();
+        private Document[] slots = new Document[64];
+        private int nextSlot;
+        private int liveCount;
+        // Changes committed while the index loads, replayed on top of the loaded rows; null once loaded
+        private List<Consumer<UserIndex>> pendingChanges = new ArrayList<>();
+
+        synchronized boolean isLoaded() {
+            return pendingChanges == null;
+        }
+
+        synchronized void load(List<Document> documents) {
+            documents.forEach(this::put);
+            // Replaying a change the rows already include is harmless: put replaces, remove is idempotent
+            pendingChanges.forEach(change -> change.accept(this));
+            pendingChanges = null;
+        }
+
+        synchronized void apply(Consumer<UserIndex> change) {
+            if (pendingChanges != null) {
+                pendingChanges.add(change);
+            } else {
+                change.accept(this);
+            }
+        }
+
+        synchronized int size() {
+            return liveCount;
+        }
+
+        synchronized void put(Document document) {
+            remove(document.id());
+            if (nextSlot == slots.length) {
+                slots = Arrays.copyOf(slots, slots.length * 2);
+            }
+            int slot = nextSlot++;
+            slots[slot] = document;
+            slotsById.put(document.id(), slot);
+            liveCount++;
+
+            String text = document.text();
+            Set<Long> seen = new LinkedHashSet<>();
+            for (int i = 0; i + 3 <= text.length(); i++) {
+                long gram = trigram(text, i);
+                if (seen.add(gram)) {
+                    append(gram, slot);
+                }
+            }
+        }
+
+        synchronized void remove(Long entryId) {
+            Integer slot = slotsById.remove(entryId);
+            if (slot != null) {
+                slots[slot] = null;
+                liveCount--;
+                if (nextSlot > 1024 && liveCount < nextSlot / 2) {
+                    compact();
+                }
+            }
+        }
+
+        synchronized void removeService(String serviceName) {
+            List<Long> ids = new ArrayList<>();
+            for (int slot = 0; slot < nextSlot; slot++) {
+                if (slots[slot] != null && slots[slot].serviceName().equals(serviceName)) {
+                    ids.add(slots[slot].id());
+                }
+            }
+            ids.forEach(this::remove);
+        }
+
+        synchronized List<Long> search(String term, int limit) {
+            // Keep only the first `limit` matches by service name, so broad typeahead prefixes stay cheap
+            int capacity = limit > 0 ? limit : Integer.MAX_VALUE;
+            PriorityQueue<Document> best = new PriorityQueue<>(BY_SERVICE_NAME.reversed());
+            if (term.length() < 3) {
+                // Too short for a trigram; a scan over the in-memory documents is still cheap
+                for (int slot = 0; slot < nextSlot; slot++) {
+                    collect(slots[slot], term, best, capacity);
+                }
+            } else {
+                for (int slot : candidates(term)) {
+                    collect(slots[slot], term, best, capacity);
+                }
+            }
+
+            Document[] ordered = best.toArray(new Document[0]);
+            Arrays.sort(ordered, BY_SERVICE_NAME);
+            List<Long> ids = new ArrayList<>(ordered.length);
+            for (Document document : ordered) {
+                ids.add(document.id());
+            }
+            return ids;
+        }
+
+        private static void collect(Document document, String term, PriorityQueue<Document> best, int capacity) {
+            if (document == null || !document.text().contains(term)) {
+                return;
+            }
+            if (best.size() < capacity) {
+                best.add(document);
+            } else if (BY_SERVICE_NAME.compare(document, best.peek()) < 0) {
+                best.poll();
+                best.add(document);
+            }
+        }
+
+        private int[] candidates(String term) {
+            // Intersect the posting lists of all query trigrams, shortest first
+            List<IntList> lists = new ArrayList<>();
+            for (Long gram : new LinkedHashSet<>(trigramsOf(term))) {
+                IntList list = postings.get(gram);
+                if (list == null) {
+                    return new int[0];
+                }
+                lists.add(list);
+            }
+            lists.sort(Comparator.comparingInt(list -> list.size));
+
+            int[] result = Arrays.copyOf(lists.get(0).values, lists.get(0).size);
+            int resultSize = result.length;
+            for (int i = 1; i < lists.size() && resultSize > 0; i++) {
+                resultSize = intersect(result, resultSize, lists.get(i).values, lists.get(i).size);
+            }
+            return Arrays.copyOf(result, resultSize);
+        }
+
+        private static List<Long> trigramsOf(String term) {
+            List<Long> grams = new ArrayList<>(term.length());
+            for (int i = 0; i + 3 <= term.length(); i++) {
+                grams.add(trigram(term, i));
+            }
+            return grams;
+        }
+
+        private static int intersect(int[] target, int targetSize, int[] other, int otherSize) {
+            int i = 0, j = 0, size = 0;
+            while (i < targetSize && j < otherSize) {
+                if (target[i] < other[j]) {
+                    i++;
+                } else if (target[i] > other[j]) {
+                    j++;
+                } else {
+                    target[size++] = target[i];
+                    i++;
+                    j++;
+                }
+            }
+            return size;
+        }
+
+        private void append(long gram, int slot) {
+            postings.computeIfAbsent(gram, key -> new IntList()).add(slot);
+        }
+
+        private void compact() {
+            Document[] live = new Document[liveCount];
+            int count = 0;
+            for (int slot = 0; slot < nextSlot; slot++) {
+                if (slots[slot] != null) {
+                    live[count++] = slots[slot];
+                }
+            }
+            slotsById.clear();
+            postings.clear();
+            slots = new Document[Math.max(64, count * 2)];
+            nextSlot = 0;
+            liveCount = 0;
+            for (Document document : live) {
+                put(document);
+            }
+        }
+
+        private static final class IntList {
+            private int[] values = new int[4];
+            private int size;
+
+            void add(int value) {
+                if (size == values.length) {
+                    values = Arrays.copyOf(values, size * 2);
+                }
+                values[size++] = value;
+            }
+        }
+    }
+}
@@ -1,5 +1,9 @@
 package com.ishan.passvault.service;
 
+import com.ishan.passvault.dto.DecryptedPasswordEntry;
+import com.ishan.passvault.dto.NewPasswordEntry;
+import com.ishan.passvault.dto.PageCursor;
+import com.ishan.passvault.dto.PasswordEntrySummary;
 import com.ishan.passvault.model.PasswordEntry;
 import com.ishan.passvault.model.User;
 import com.ishan.passvault.repository.PasswordEntryRepository;
@@ -7,17 +11,36 @@ import com.ishan.passvault.repository.UserRepository;
 import jakarta.transaction.Transactional;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 
+import javax.crypto.SecretKey;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional
 @Slf4j
 public class PasswordService {
 
+    private static final int MIN_DECRYPT_CHUNK = 64;
+    private static final int SEARCH_LOAD_CHUNK = 1000;
+
     @Autowired
     private PasswordEntryRepository passwordEntryRepository;
     
@@ -27,8 +50,44 @@ public class PasswordService {
     @Autowired
     private EncryptionService encryptionService;
 
+    @Autowired
+    private VaultKeyService vaultKeyService;
+
+    @Autowired
+    private LastAccessedBuffer lastAccessedBuffer;
+
+    @Autowired
+    private PasswordSearchIndex passwordSearchIndex;
+
+    @Autowired
+    private BreachCheckService breachCheckService;
+
+    @Autowired
+    @Qualifier("cryptoExecutor")
+    private Executor cryptoExecutor;
+
+    @Autowired
+    private CryptoOffload cryptoOffload;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int batchSize;
+
+    @Value("${passvault.crypto.executor.threads:0}")
+    private int cryptoThreads;
+
+    @Value("${passvault.vault.decrypt-all.budget-ms:500}")
+    private long decryptAllBudgetMillis;
+
+    public PasswordEntry addPassword(User user, String serviceName, String username, String password, String notes, String masterPassword) throws Exception {
+        return addPassword(user, serviceName, username, password, notes, null, masterPassword);
+    }
+
     public PasswordEntry addPassword(User user, String serviceName, String username, String password, String notes, String category, String masterPassword) throws Exception {
-        log.info("Adding password entry for user: {}, service: {}", user.getUsername(), serviceName);
+        return addPassword(user, serviceName, username, password, notes, category, vaultKeyService.unlock(user, masterPassword));
+    }
+
+    public PasswordEntry addPassword(User user, String serviceName, String username, String password, String notes, String category, SecretKey dataKey) throws Exception {
+        log.debug("Adding password entry for user: {}, service: {}", user.getUsername(), serviceName);
 
         // Validate input
         if (serviceName == null || serviceName.trim().isEmpty()) {
@@ -41,6 +100,8 @@ public class PasswordService {
             throw new IllegalArgumentException("Password cannot be null or empty");
         }
 
+        checkBreached(user, serviceName, password);
+
         // Check if entry already exists
         Optional<PasswordEntry> existingEntry = passwordEntryRepository.findByUserAndServiceNameAndUsername(
                 user, serviceName.trim(), username.trim());
@@ -50,8 +111,9 @@ public class PasswordService {
             throw new RuntimeException("Password entry already exists for this service and username");
         }
 
-        // Encrypt password using master password
-        String encryptedPassword = encryptionService.encrypt(password, masterPassword);
+        // Encrypt password under the user's data key
+        SecretKey writeKey = vaultKeyService.writeKey(user, dataKey);
+        String encryptedPassword = encryptionService.encrypt(password, writeKey);
         
         // Create password entry
         PasswordEntry entry = PasswordEntry.builder()
@@ -59,6 +121,7 @@ public class PasswordService {
                 .serviceName(serviceName.trim())
                 .username(username.trim())
                 .encryptedPassword(encryptedPassword)
+                .passwordFingerprint(encryptionService.fingerprint(password, writeKey))
                 .notes(notes != null ? notes.trim() : null)
                 .category(category != null ? category.trim() : null)
                 .createdAt(LocalDateTime.now())
@@ -66,12 +129,120 @@ public class PasswordService {
                 .build();
 
         PasswordEntry savedEntry = passwordEntryRepository.save(entry);
+        passwordSearchIndex.onSaved(savedEntry);
         log.info("Password entry added successfully for user: {}, service: {}", user.getUsername(), serviceName);
         return savedEntry;
     }
 
+    private void checkBreached(User user, String serviceName, String password) {
+        if (!breachCheckService.isBreached(password)) {
+            return;
+        }
+        if (breachCheckService.isRejectOnAdd()) {
+            throw new IllegalArgumentException("Password appears in a known data breach, choose another one");
+        }
+        log.warn("Password for user: {}, service: {} appears in the breach corpus", user.getUsername(), serviceName);
+    }
+
+    public int addPasswords(User user, List<NewPasswordEntry> entries, String masterPassword) throws Exception {
+        return addPasswords(user, entries, vaultKeyService.unlock(user, masterPassword));
+    }
+
+    /**
+     * Adds many entries in one transaction. Inserts go out as JDBC batches of
+     * {@code hibernate.jdbc.batch_size} rows, and each batch is released once written
+     * so memory stays flat however many entries are added.
+     * @param user The vault owner
+     * @param entries The entries to add
+     * @param dataKey The unlocked data key
+     * @return Number of entries added
+     * @throws Exception if an entry is invalid, breached while breached passwords are rejected, or
+     *         already exists; nothing is added in that case
+     */
+    public int addPasswords(User user, List<NewPasswordEntry> entries, SecretKey dataKey) throws Exception {
+        long start = System.nanoTime();
+        log.debug("Adding {} password entries for user: {}", entries.size(), user.getUsername());
+
+        // Validate the whole request before encrypting or writing anything
+        Set<String> seen = new HashSet<>();
+        for (NewPasswordEntry entry : entries) {
+            if (entry.serviceName() == null || entry.serviceName().trim().isEmpty()) {
+                throw new IllegalArgumentException("Service name cannot be null or empty");
+            }
+            if (entry.username() == null || entry.username().trim().isEmpty()) {
+                throw new IllegalArgumentException("Username cannot be null or empty");
+            }
+            if (entry.password() == null || entry.password().trim().isEmpty()) {
+                throw new IllegalArgumentException("Password cannot be null or empty");
+            }
+            if (!seen.add(entryKey(entry.serviceName().trim(), entry.username().trim()))) {
+                throw new IllegalArgumentException("Duplicate entry for service: " + entry.serviceName().trim()
+                        + ", username: " + entry.username().trim());
+            }
+            checkBreached(user, entry.serviceName().trim(), entry.password());
+        }
+
+        SecretKey writeKey = vaultKeyService.writeKey(user, dataKey);
+        int added = 0;
+        for (int from = 0; from < entries.size(); from += batchSize) {
+            List<NewPasswordEntry> batch = entries.subList(from, Math.min(from + batchSize, entries.size()));
+            rejectExisting(user, batch);
+
+            LocalDateTime now = LocalDateTime.now();
+            List<PasswordEntry> toSave = new ArrayList<>(batch.size());
+            for (NewPasswordEntry entry : batch) {
+                toSave.add(PasswordEntry.builder()
+                        .user(user)
+                        .serviceName(entry.serviceName().trim())
+                        .username(entry.username().trim())
+                        .encryptedPassword(encryptionService.encrypt(entry.password(), writeKey))
+                        .passwordFingerprint(encryptionService.fingerprint(entry.password(), writeKey))
+                        .notes(entry.notes() != null ? entry.notes().trim() : null)
+                        .category(entry.category() != null ? entry.category().trim() : null)
+                        .createdAt(now)
+                        .updatedAt(now)
+                        .build());
+            }
+            passwordEntryRepository.insertBatch(toSave);
+            added += toSave.size();
+        }
+
+        if (added > 0) {
+            // Cheaper than one index update per entry; the first search after the commit rebuilds it
+            passwordSearchIndex.invalidate(user);
+        }
+        log.info("Added {} password entries for user: {} in {} ms", added, user.getUsername(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return added;
+    }
+
+    private void rejectExisting(User user, List<NewPasswordEntry> batch) {
+        Set<String> serviceNames = batch.stream().map(entry -> entry.serviceName().trim()).collect(Collectors.toSet());
+        Set<String> keys = batch.stream()
+                .map(entry -> entryKey(entry.serviceName().trim(), entry.username().trim()))
+                .collect(Collectors.toSet());
+        for (PasswordEntrySummary existing : passwordEntryRepository.findSummariesByUserAndServiceNameIn(user, serviceNames)) {
+            if (keys.contains(entryKey(existing.serviceName(), existing.username()))) {
+                throw new RuntimeException("Password entry already exists for service: " + existing.serviceName()
+                        + ", username: " + existing.username());
+            }
+        }
+    }
+
+    private static String entryKey(String serviceName, String username) {
+        return serviceName + '\0' + username;
+    }
+
     public String getPassword(User user, String serviceName, String username, String masterPassword) throws Exception {
-        log.info("Retrieving password for user: {}, service: {}, username: {}",
+        return getPassword(user, serviceName, username, vaultKeyService.unlock(user, masterPassword), masterPassword);
+    }
+
+    public String getPassword(User user, String serviceName, String username, SecretKey dataKey) throws Exception {
+        return getPassword(user, serviceName, username, dataKey, null);
+    }
+
+    private String getPassword(User user, String serviceName, String username, SecretKey dataKey, String masterPassword) throws Exception {
+        log.debug("Retrieving password for user: {}, service: {}, username: {}",
                 user.getUsername(), serviceName, username);
 
         Optional<PasswordEntry> entryOpt = passwordEntryRepository.findByUserAndServiceNameAndUsername(
@@ -79,12 +250,11 @@ public class PasswordService {
         if (entryOpt.isPresent()) {
             PasswordEntry entry = entryOpt.get();
 
-            // Update last accessed time
-            entry.markAsAccessed();
-            passwordEntryRepository.save(entry);
+            // Record access time, written later in a batch by the buffer
+            lastAccessedBuffer.record(entry.getId());
 
-            // Decrypt and return password using master password
-            String decryptedPassword = encryptionService.decrypt(entry.getEncryptedPassword(), masterPassword);
+            // Decrypt and return password using the data key
+            String decryptedPassword = decryptEntry(entry, dataKey, masterPassword);
             log.info("Password retrieved successfully for user: {}, service: {}", user.getUsername(), serviceName);
             return decryptedPassword;
         }
@@ -94,40 +264,176 @@ public class PasswordService {
         return null;
     }
 
+    public String getPassword(User user, String serviceName, String masterPassword) throws Exception {
+        log.debug("Retrieving password for user: {}, service: {}", user.getUsername(), serviceName);
+
+        PasswordEntry entry = passwordEntryRepository.findByUserAndServiceName(user, serviceName)
+                .orElseThrow(() -> new RuntimeException("Password entry not found for service: " + serviceName));
+
+        lastAccessedBuffer.record(entry.getId());
+
+        return decryptEntry(entry, vaultKeyService.unlock(user, masterPassword), masterPassword);
+    }
+
+    private String decryptEntry(PasswordEntry entry, SecretKey dataKey, String masterPassword) throws Exception {
+        return decryptStored(entry.getUser().getId(), entry.getEncryptedPassword(), dataKey, masterPassword);
+    }
+
+    String decryptStored(Long userId, String encryptedPassword, SecretKey dataKey, String masterPassword) throws Exception {
+        if (encryptionService.isLegacyFormat(encryptedPassword)) {
+            // Entries written before vault keys carry their own salt and need a full key derivation
+            if (masterPassword == null) {
+                throw new RuntimeException("Entry uses the legacy format, unlock with the master password to read it");
+            }
+            return cryptoOffload.call(() -> encryptionService.decrypt(encryptedPassword, masterPassword));
+        }
+        try {
+            return encryptionService.decrypt(encryptedPassword, dataKey);
+        } catch (RuntimeException e) {
+            // While a key rotation runs, or just after it, the entry may be under the other key
+            SecretKey alternate = vaultKeyService.alternateKey(userId, dataKey);
+            if (alternate == null) {
+                throw e;
+            }
+            return encryptionService.decrypt(encryptedPassword, alternate);
+        }
+    }
+
+    /**
+     * Decrypts every entry of a vault in one call. The data key is unwrapped once and
+     * the AES-GCM work is split into chunks on the bounded crypto executor.
+     */
+    public List<DecryptedPasswordEntry> decryptAll(User user, String masterPassword) throws Exception {
+        return decryptAll(user, vaultKeyService.unlock(user, masterPassword), masterPassword);
+    }
+
+    public List<DecryptedPasswordEntry> decryptAll(User user, SecretKey dataKey) throws Exception {
+        return decryptAll(user, dataKey, null);
+    }
+
+    private List<DecryptedPasswordEntry> decryptAll(User user, SecretKey dataKey, String masterPassword) throws Exception {
+        long start = System.nanoTime();
+        List<PasswordEntry> entries = passwordEntryRepository.findByUserOrderByServiceNameAsc(user);
+
+        int parallelism = cryptoThreads > 0 ? cryptoThreads : Runtime.getRuntime().availableProcessors();
+        int chunkSize = Math.max(MIN_DECRYPT_CHUNK, (entries.size() + parallelism - 1) / parallelism);
+
+        List<CompletableFuture<List<DecryptedPasswordEntry>>> chunks = new ArrayList<>();
+        for (int from = 0; from < entries.size(); from += chunkSize) {
+            List<PasswordEntry> chunk = entries.subList(from, Math.min(from + chunkSize, entries.size()));
+            chunks.add(CompletableFuture.supplyAsync(() -> decryptChunk(chunk, dataKey, masterPassword), cryptoExecutor));
+        }
+
+        List<DecryptedPasswordEntry> result = new ArrayList<>(entries.size());
+        try {
+            for (CompletableFuture<List<DecryptedPasswordEntry>> chunk : chunks) {
+                result.addAll(chunk.join());
+            }
+        } catch (CompletionException e) {
+            throw new RuntimeException("Bulk decryption failed: " + e.getCause().getMessage(), e.getCause());
+        }
+
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        if (elapsedMillis > decryptAllBudgetMillis) {
+            log.warn("Bulk decryption of {} entries for user: {} took {} ms, over the {} ms budget",
+                    result.size(), user.getUsername(), elapsedMillis, decryptAllBudgetMillis);
+        } else {
+            log.info("Bulk decrypted {} entries for user: {} in {} ms", result.size(), user.getUsername(), elapsedMillis);
+        }
+        return result;
+    }
+
+    private List<DecryptedPasswordEntry> decryptChunk(List<PasswordEntry> chunk, SecretKey dataKey, String masterPassword) {
+        List<DecryptedPasswordEntry> decrypted = new ArrayList<>(chunk.size());
+        for (PasswordEntry entry : chunk) {
+            try {
+                String password = decryptEntry(entry, dataKey, masterPassword);
+                decrypted.add(new DecryptedPasswordEntry(entry.getId(), entry.getServiceName(),
+                        entry.getUsername(), password, entry.getCategory()));
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }
+        return decrypted;
+    }
+
     public List<PasswordEntry> getAllPasswords(User user) {
-        log.info("Retrieving all passwords for user: {}", user.getUsername());
+        log.debug("Retrieving all passwords for user: {}", user.getUsername());
         List<PasswordEntry> entries = passwordEntryRepository.findByUserOrderByServiceNameAsc(user);
         log.info("Retrieved {} password entries for user: {}", entries.size(), user.getUsername());
         return entries;
     }
     
+    /**
+     * Keyset-paginated listing ordered by (service name, id)
+     * @param cursor Position after which the page starts, or null for the first page
+     * @param size Number of entries per page
+     */
+    public Slice<PasswordEntrySummary> getPasswordsPage(User user, PageCursor cursor, int size) {
+        Pageable pageable = PageRequest.of(0, size);
+        if (cursor == null) {
+            return passwordEntryRepository.findFirstPageByUser(user, pageable);
+        }
+        return passwordEntryRepository.findPageByUserAfter(user, cursor.serviceName(), cursor.id(), pageable);
+    }
+    
+    public List<PasswordEntrySummary> getPasswordSummaries(User user) {
+        return passwordEntryRepository.findSummariesByUser(user);
+    }
+    
     public List<PasswordEntry> getPasswordsByCategory(User user, String category) {
-        log.info("Retrieving passwords by category for user: {}, category: {}", user.getUsername(), category);
+        log.debug("Retrieving passwords by category for user: {}, category: {}", user.getUsername(), category);
         List<PasswordEntry> entries = passwordEntryRepository.findByUserAndCategoryOrderByServiceNameAsc(user, category);
         log.info("Retrieved {} password entries for user: {}, category: {}", entries.size(), user.getUsername(), category);
         return entries;
     }
     
-    public List<PasswordEntry> searchPasswords(User user, String searchTerm) {
-        log.info("Searching passwords for user: {}, search term: {}", user.getUsername(), searchTerm);
-        List<PasswordEntry> entries = passwordEntryRepository.findByUserAndSearchTerm(user, searchTerm);
+    public List<PasswordEntrySummary> searchPasswords(User user, String searchTerm) {
+        return searchPasswords(user, searchTerm, 0);
+    }
+
+    /**
+     * Substring search over service name, username and notes, served by the in-memory trigram index
+     * @param limit Maximum number of results, or 0 for all
+     */
+    public List<PasswordEntrySummary> searchPasswords(User user, String searchTerm, int limit) {
+        log.debug("Searching passwords for user: {}, search term: {}", user.getUsername(), searchTerm);
+        List<Long> ids = passwordSearchIndex.search(user, searchTerm, limit);
+
+        // Load the matches in chunks, keeping each IN list well below the bind parameter limit,
+        // and restore the index order
+        Map<Long, PasswordEntrySummary> byId = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += SEARCH_LOAD_CHUNK) {
+            List<Long> chunk = ids.subList(from, Math.min(from + SEARCH_LOAD_CHUNK, ids.size()));
+            for (PasswordEntrySummary summary : passwordEntryRepository.findSummariesByIdIn(chunk)) {
+                byId.put(summary.id(), summary);
+            }
+        }
+        List<PasswordEntrySummary> entries = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            PasswordEntrySummary summary = byId.get(id);
+            if (summary != null) {
+                entries.add(summary);
+            }
+        }
         log.info("Found {} password entries for user: {}, search term: {}", entries.size(), user.getUsername(), searchTerm);
         return entries;
     }
     
     public List<String> getCategories(User user) {
-        log.info("Retrieving categories for user: {}", user.getUsername());
+        log.debug("Retrieving categories for user: {}", user.getUsername());
         List<String> categories = passwordEntryRepository.findDistinctCategoriesByUser(user);
         log.info("Retrieved {} categories for user: {}", categories.size(), user.getUsername());
         return categories;
     }
 
     public void deletePassword(User user, String serviceName) {
-        log.info("Deleting password entry for user: {}, service: {}", user.getUsername(), serviceName);
+        log.debug("Deleting password entry for user: {}, service: {}", user.getUsername(), serviceName);
         
         Optional<PasswordEntry> entryOpt = passwordEntryRepository.findByUserAndServiceName(user, serviceName);
         if (entryOpt.isPresent()) {
             passwordEntryRepository.deleteByUserAndServiceName(user, serviceName);
+            passwordSearchIndex.onServiceDeleted(user, serviceName);
             log.info("Password entry deleted successfully for user: {}, service: {}", user.getUsername(), serviceName);
         } else {
             log.warn("Password entry not found for deletion: user: {}, service: {}", user.getUsername(), serviceName);
@@ -136,13 +442,14 @@ public class PasswordService {
     }
     
     public void deletePassword(User user, String serviceName, String username) {
-        log.info("Deleting password entry for user: {}, service: {}, username: {}", 
+        log.debug("Deleting password entry for user: {}, service: {}, username: {}", 
                 user.getUsername(), serviceName, username);
         
         Optional<PasswordEntry> entryOpt = passwordEntryRepository.findByUserAndServiceNameAndUsername(
                 user, serviceName, username);
         if (entryOpt.isPresent()) {
             passwordEntryRepository.deleteByUserAndServiceNameAndUsername(user, serviceName, username);
+            passwordSearchIndex.onDeleted(user, entryOpt.get().getId());
             log.info("Password entry deleted successfully for user: {}, service: {}, username: {}", 
                     user.getUsername(), serviceName, username);
         } else {
@@ -152,8 +459,12 @@ public class PasswordService {
         }
     }
     
-    public PasswordEntry updatePassword(User user, String serviceName, String username, String newPassword, String notes, String category) throws Exception {
-        log.info("Updating password entry for user: {}, service: {}, username: {}", 
+    public PasswordEntry updatePassword(User user, String serviceName, String username, String newPassword, String notes, String category, String masterPassword) throws Exception {
+        return updatePassword(user, serviceName, username, newPassword, notes, category, vaultKeyService.unlock(user, masterPassword));
+    }
+
+    public PasswordEntry updatePassword(User user, String serviceName, String username, String newPassword, String notes, String category, SecretKey dataKey) throws Exception {
+        log.debug("Updating password entry for user: {}, service: {}, username: {}", 
                 user.getUsername(), serviceName, username);
         
         Optional<PasswordEntry> entryOpt = passwordEntryRepository.findByUserAndServiceNameAndUsername(
@@ -161,16 +472,21 @@ public class PasswordService {
         if (entryOpt.isPresent()) {
             PasswordEntry entry = entryOpt.get();
             
-            // Encrypt new password
-            String encryptedPassword = encryptionService.encrypt(newPassword, user.getMasterPasswordHash());
+            checkBreached(user, serviceName, newPassword);
+
+            // Encrypt new password under the data key
+            SecretKey writeKey = vaultKeyService.writeKey(user, dataKey);
+            String encryptedPassword = encryptionService.encrypt(newPassword, writeKey);
             
             // Update entry
             entry.setEncryptedPassword(encryptedPassword);
+            entry.setPasswordFingerprint(encryptionService.fingerprint(newPassword, writeKey));
             entry.setNotes(notes != null ? notes.trim() : null);
             entry.setCategory(category != null ? category.trim() : null);
             entry.setUpdatedAt(LocalDateTime.now());
             
             PasswordEntry updatedEntry = passwordEntryRepository.save(entry);
+            passwordSearchIndex.onSaved(updatedEntry);
             log.info("Password entry updated successfully for user: {}, service: {}", user.getUsername(), serviceName);
             return updatedEntry;
         } else {
@@ -189,7 +505,7 @@ public class PasswordService {
     }
     
     public List<PasswordEntry> getOldEntries(User user, LocalDateTime cutoffDate) {
-        log.info("Retrieving old password entries for user: {}, cutoff date: {}", user.getUsername(), cutoffDate);
+        log.debug("Retrieving old password entries for user: {}, cutoff date: {}", user.getUsername(), cutoffDate);
         List<PasswordEntry> entries = passwordEntryRepository.findOldEntriesByUser(user, cutoffDate);
         log.info("Retrieved {} old password entries for user: {}", entries.size(), user.getUsername());
         return entries;
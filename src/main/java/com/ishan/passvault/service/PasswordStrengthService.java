@@ -0,0 +1,46 @@
+package com.ishan.passvault.service;
+
+import com.ishan.passvault.util.StrengthEstimator;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Password strength for the menus, the web API and the audit, all from one {@link StrengthEstimator}.
+ * The estimator's dictionaries are loaded when the service is created, so the first estimate is as
+ * fast as the rest.
+ */
+@Service
+public class PasswordStrengthService {
+
+    // Below "somewhat guessable": protects against online attacks at best
+    public static final int WEAK_BELOW_SCORE = 2;
+
+    private final StrengthEstimator estimator = StrengthEstimator.standard();
+    private final Timer estimateTimer;
+
+    public PasswordStrengthService(MeterRegistry meterRegistry) {
+        this.estimateTimer = Timer.builder("passvault.strength.estimate")
+                .description("Strength estimate of one password")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @param password The password, not retained
+     * @return Guesses needed as bits, a 0 to 4 score and the patterns found
+     */
+    public StrengthEstimator.Estimate estimate(CharSequence password) {
+        long start = System.nanoTime();
+        try {
+            return estimator.estimate(password);
+        } finally {
+            estimateTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public boolean isWeak(CharSequence password) {
+        return estimate(password).score() < WEAK_BELOW_SCORE;
+    }
+}
@@ -5,10 +5,11 @@ import com.ishan.passvault.repository.UserRepository;
 import jakarta.transaction.Transactional;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.Base64;
 import java.util.List;
 import java.util.Optional;
 
@@ -19,11 +20,18 @@ public class UserService {
 
     @Autowired
     private UserRepository userRepository;
-    
-    private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
+
+    @Autowired
+    private EncryptionService encryptionService;
+
+    @Autowired
+    private VaultKeyService vaultKeyService;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
 
     public User registerUser(String username, String masterPassword) {
-        log.info("Attempting to register user: {}", username);
+        log.debug("Attempting to register user: {}", username);
         
         // Validate input
         if (username == null || username.trim().isEmpty()) {
@@ -39,11 +47,11 @@ public class UserService {
             throw new RuntimeException("User with username '" + username + "' already exists");
         }
 
-        // Create new user with BCrypt hashing
+        // Create new user with the configured password hash
         User user = User.builder()
                 .username(username.trim())
                 .masterPasswordHash(passwordEncoder.encode(masterPassword))
-                .salt("") // BCrypt handles salt internally
+                .salt(Base64.getEncoder().encodeToString(encryptionService.newVaultSalt())) // vault key salt, the hash carries its own
                 .isActive(true)
                 .createdAt(LocalDateTime.now())
                 .build();
@@ -58,7 +66,7 @@ public class UserService {
     }
     
     public boolean authenticateUser(String username, String password) {
-        log.info("Attempting to authenticate user: {}", username);
+        log.debug("Attempting to authenticate user: {}", username);
         
         Optional<User> userOpt = userRepository.findByUsernameAndIsActiveTrue(username);
         if (userOpt.isPresent()) {
@@ -66,8 +74,14 @@ public class UserService {
             boolean isValid = passwordEncoder.matches(password, user.getMasterPasswordHash());
             
             if (isValid) {
-                // Update last login
-                userRepository.updateLastLogin(user.getId(), LocalDateTime.now());
+                if (passwordEncoder.upgradeEncoding(user.getMasterPasswordHash())) {
+                    user.setMasterPasswordHash(passwordEncoder.encode(password));
+                    log.info("Rehashed master password for user: {}", username);
+                }
+
+                // Update last login; saving the entity keeps the cached user current
+                user.setLastLogin(LocalDateTime.now());
+                userRepository.save(user);
                 log.info("User authenticated successfully: {}", username);
             } else {
                 log.warn("Authentication failed for user: {}", username);
@@ -84,8 +98,8 @@ public class UserService {
         Optional<User> userOpt = userRepository.findByUsernameAndIsActiveTrue(username);
         if (userOpt.isPresent()) {
             User user = userOpt.get();
-            userRepository.updateLastLogin(user.getId(), LocalDateTime.now());
-            return user;
+            user.setLastLogin(LocalDateTime.now());
+            return userRepository.save(user);
         }
         throw new RuntimeException("User not found: " + username);
     }
@@ -125,7 +139,7 @@ public class UserService {
     }
     
     public boolean changePassword(String username, String oldPassword, String newPassword) {
-        log.info("Attempting to change password for user: {}", username);
+        log.debug("Attempting to change password for user: {}", username);
         
         Optional<User> userOpt = userRepository.findByUsernameAndIsActiveTrue(username);
         if (userOpt.isPresent()) {
@@ -137,6 +151,21 @@ public class UserService {
                 return false;
             }
             
+            // Checked up front: a failure inside rewrap rolls back the whole transaction
+            if (vaultKeyService.hasPendingRotation(user)) {
+                log.warn("Password change failed: key rotation pending for user: {}", username);
+                return false;
+            }
+
+            // Rewrap the data key so existing entries stay readable under the new password
+            try {
+                vaultKeyService.rewrap(user, oldPassword, newPassword);
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new RuntimeException("Could not rewrap the data key: " + e.getMessage(), e);
+            }
+
             // Update password
             user.setMasterPasswordHash(passwordEncoder.encode(newPassword));
             userRepository.save(user);
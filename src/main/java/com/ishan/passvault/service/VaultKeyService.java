@@ -0,0 +1,298 @@
+package com.ishan.passvault.service;
+
+import com.ishan.passvault.model.PasswordEntry;
+import com.ishan.passvault.model.User;
+import com.ishan.passvault.repository.KeyRotationRepository;
+import com.ishan.passvault.repository.PasswordEntryRepository;
+import com.ishan.passvault.repository.UserRepository;
+import com.ishan.passvault.util.ExpiringLruCache;
+import jakarta.transaction.Transactional;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Manages the two-tier key hierarchy of a vault: a random per-user data key encrypts
+ * the entries, and a key derived from the master password only wraps that data key.
+ * Unwrapped data keys are kept in a bounded, time-expiring in-memory cache so PBKDF2
+ * runs once per user per unlock.
+ */
+@Service
+@Slf4j
+public class VaultKeyService {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEntryRepository passwordEntryRepository;
+
+    @Autowired
+    private EncryptionService encryptionService;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private CryptoOffload cryptoOffload;
+
+    @Autowired
+    private KeyRotationRepository keyRotationRepository;
+
+    private final ExpiringLruCache<Long, UnlockedVault> cache;
+    private final Map<Long, Rotation> rotations = new ConcurrentHashMap<>();
+
+    public VaultKeyService(@Value("${passvault.crypto.key-cache.max-entries:1000}") int maxEntries,
+                           @Value("${passvault.crypto.key-cache.ttl-minutes:15}") long ttlMinutes) {
+        this.cache = new ExpiringLruCache<>(maxEntries, Duration.ofMinutes(ttlMinutes));
+    }
+
+    /**
+     * Returns the data key for a user, deriving and unwrapping it only on a cache miss
+     * @param user The vault owner
+     * @param masterPassword The master password presented for this operation
+     * @return SecretKey used for all of the user's entries
+     * @throws Exception if the master password is wrong or derivation fails
+     */
+    @Transactional
+    public SecretKey unlock(User user, String masterPassword) throws Exception {
+        if (masterPassword == null || masterPassword.isEmpty()) {
+            throw new IllegalArgumentException("Master password cannot be null or empty");
+        }
+
+        UnlockedVault cached = cache.get(user.getId());
+        if (cached != null && cached.matches(masterPassword)) {
+            return cached.dataKey();
+        }
+
+        // Verify before deriving so a mistyped password never encrypts entries under a wrong key
+        if (!passwordEncoder.matches(masterPassword, user.getMasterPasswordHash())) {
+            log.warn("Vault unlock failed: incorrect master password for user: {}", user.getUsername());
+            throw new RuntimeException("Invalid master password");
+        }
+
+        byte[] salt = getOrCreateVaultSalt(user);
+        SecretKey keyEncryptionKey = cryptoOffload.call(() -> encryptionService.deriveVaultKey(masterPassword, salt));
+
+        SecretKey dataKey;
+        if (user.getWrappedDataKey() == null || user.getWrappedDataKey().isBlank()) {
+            dataKey = createDataKey(user, masterPassword, keyEncryptionKey);
+        } else {
+            dataKey = encryptionService.unwrapKey(user.getWrappedDataKey(), keyEncryptionKey);
+        }
+
+        // A rotation interrupted by a restart: new writes must keep going to the new key
+        if (!rotations.containsKey(user.getId())) {
+            keyRotationRepository.findFirstByUserAndCompletedAtIsNullOrderByStartedAtDesc(user).ifPresent(rotation ->
+                    rotations.put(user.getId(), new Rotation(dataKey,
+                            encryptionService.unwrapKey(rotation.getWrappedDataKey(), keyEncryptionKey))));
+        }
+
+        cache.put(user.getId(), new UnlockedVault(dataKey, salt, fingerprint(masterPassword, salt)));
+        log.info("Vault unlocked for user: {}", user.getUsername());
+        return dataKey;
+    }
+
+    /**
+     * Re-wraps the data key under a new master password. Entries are untouched,
+     * so the cost does not depend on the size of the vault.
+     * @param user The vault owner
+     * @param oldMasterPassword The current master password
+     * @param newMasterPassword The new master password
+     * @throws Exception if the current master password is wrong
+     */
+    @Transactional
+    public void rewrap(User user, String oldMasterPassword, String newMasterPassword) throws Exception {
+        if (newMasterPassword == null || newMasterPassword.isEmpty()) {
+            throw new IllegalArgumentException("New master password cannot be null or empty");
+        }
+
+        SecretKey dataKey = unlock(user, oldMasterPassword);
+        if (hasPendingRotation(user)) {
+            // The pending key is wrapped under the old password; finishing first keeps one key hierarchy
+            throw new RuntimeException("Finish the pending key rotation before changing the master password");
+        }
+
+        // A fresh salt makes the old key-encryption key useless even against the same password
+        byte[] salt = encryptionService.newVaultSalt();
+        SecretKey keyEncryptionKey = cryptoOffload.call(() -> encryptionService.deriveVaultKey(newMasterPassword, salt));
+        user.setSalt(Base64.getEncoder().encodeToString(salt));
+        user.setWrappedDataKey(encryptionService.wrapKey(dataKey, keyEncryptionKey));
+        userRepository.save(user);
+
+        cache.put(user.getId(), new UnlockedVault(dataKey, salt, fingerprint(newMasterPassword, salt)));
+        log.info("Data key rewrapped for user: {}", user.getUsername());
+    }
+
+    /**
+     * Checks for an unfinished key rotation, which has to complete before the master password can change
+     * @param user The vault owner
+     * @return true if a rotation is unfinished
+     */
+    public boolean hasPendingRotation(User user) {
+        return keyRotationRepository.findFirstByUserAndCompletedAtIsNullOrderByStartedAtDesc(user).isPresent();
+    }
+
+    /**
+     * Drops the cached data key for a user, e.g. on logout
+     * @param user The vault owner
+     */
+    public void lock(User user) {
+        if (user != null && cache.remove(user.getId()) != null) {
+            log.info("Vault locked for user: {}", user.getUsername());
+        }
+    }
+
+    /**
+     * Starts routing writes to a new data key and returns it wrapped for storage in the rotation checkpoint
+     * @param user The vault owner
+     * @param masterPassword The master password
+     * @param newDataKey The data key entries are being moved to
+     * @return The new data key wrapped under the user's current key-encryption key
+     * @throws Exception if the master password is wrong
+     */
+    public String beginRotation(User user, String masterPassword, SecretKey newDataKey) throws Exception {
+        SecretKey currentKey = unlock(user, masterPassword);
+        SecretKey keyEncryptionKey = cryptoOffload.call(() -> encryptionService.deriveVaultKey(masterPassword, getOrCreateVaultSalt(user)));
+        rotations.put(user.getId(), new Rotation(currentKey, newDataKey));
+        return encryptionService.wrapKey(newDataKey, keyEncryptionKey);
+    }
+
+    /**
+     * Returns the new data key of a rotation that is in progress
+     * @param user The vault owner
+     * @return The new data key, or null if no rotation was started since the last unlock
+     */
+    public SecretKey pendingKey(User user) {
+        Rotation rotation = rotations.get(user.getId());
+        return rotation != null ? rotation.to() : null;
+    }
+
+    /**
+     * Makes the new data key the current one once the rotation has been committed
+     * @param user The vault owner, already stored with the new wrapped data key
+     * @param masterPassword The master password
+     * @param newDataKey The data key all entries are now under
+     * @throws Exception if the fingerprint cannot be computed
+     */
+    public void completeRotation(User user, String masterPassword, SecretKey newDataKey) throws Exception {
+        byte[] salt = getOrCreateVaultSalt(user);
+        cache.put(user.getId(), new UnlockedVault(newDataKey, salt, fingerprint(masterPassword, salt)));
+        // Every entry is under the new key now, writes no longer need redirecting
+        rotations.remove(user.getId());
+        log.info("Data key rotated for user: {}", user.getUsername());
+    }
+
+    /**
+     * Chooses the key to encrypt with. Callers may still hold the previous data key, e.g. in a
+     * vault session; writes always go to the newest key so no entry falls behind a rotation.
+     * @param user The vault owner
+     * @param dataKey The key the caller unlocked with
+     * @return The key new ciphertext must be written under
+     */
+    public SecretKey writeKey(User user, SecretKey dataKey) {
+        Rotation rotation = rotations.get(user.getId());
+        return rotation != null && rotation.from().equals(dataKey) ? rotation.to() : dataKey;
+    }
+
+    /**
+     * Returns the other key of a rotation, for entries not yet (or already) re-encrypted
+     * @param userId The vault owner id
+     * @param dataKey The key that failed to decrypt an entry
+     * @return The other key of the latest rotation, or null if there is none
+     */
+    public SecretKey alternateKey(Long userId, SecretKey dataKey) {
+        Rotation rotation = rotations.get(userId);
+        if (rotation == null) {
+            return null;
+        }
+        if (rotation.from().equals(dataKey)) {
+            return rotation.to();
+        }
+        return rotation.to().equals(dataKey) ? rotation.from() : null;
+    }
+
+    private SecretKey createDataKey(User user, String masterPassword, SecretKey keyEncryptionKey) throws Exception {
+        // Two first unlocks at once would each store a different key; the row lock serializes them
+        User locked = userRepository.findByIdForUpdate(user.getId())
+                .orElseThrow(() -> new RuntimeException("User not found: " + user.getUsername()));
+        if (locked.getWrappedDataKey() != null && !locked.getWrappedDataKey().isBlank()) {
+            if (!Objects.equals(locked.getSalt(), user.getSalt())) {
+                throw new RuntimeException("The vault key was created by a concurrent unlock, try again");
+            }
+            user.setWrappedDataKey(locked.getWrappedDataKey());
+            return encryptionService.unwrapKey(locked.getWrappedDataKey(), keyEncryptionKey);
+        }
+
+        SecretKey dataKey = encryptionService.generateDataKey();
+
+        // Vaults created before envelope encryption hold entries under the master password
+        // (salted per entry) or directly under the key-encryption key; move them once. The key is
+        // only stored if every entry moved, since the old keys cannot read entries left behind.
+        List<PasswordEntry> entries = passwordEntryRepository.findByUserOrderByServiceNameAsc(user);
+        for (PasswordEntry entry : entries) {
+            try {
+                String plainText = encryptionService.isLegacyFormat(entry.getEncryptedPassword())
+                        ? encryptionService.decrypt(entry.getEncryptedPassword(), masterPassword)
+                        : encryptionService.decrypt(entry.getEncryptedPassword(), keyEncryptionKey);
+                entry.setEncryptedPassword(encryptionService.encrypt(plainText, dataKey));
+                entry.setPasswordFingerprint(encryptionService.fingerprint(plainText, dataKey));
+            } catch (Exception e) {
+                log.error("Could not migrate password entry {} for user: {} to the data key, vault left unchanged",
+                        entry.getId(), user.getUsername());
+                throw new RuntimeException("Password entry " + entry.getId() + " could not be migrated to the vault key", e);
+            }
+        }
+        passwordEntryRepository.saveAll(entries);
+
+        String wrappedDataKey = encryptionService.wrapKey(dataKey, keyEncryptionKey);
+        if (userRepository.initWrappedDataKey(user.getId(), wrappedDataKey) == 0) {
+            throw new IllegalStateException("The vault key of user " + user.getUsername() + " was created concurrently");
+        }
+        user.setWrappedDataKey(wrappedDataKey);
+
+        log.info("Created data key for user: {}, migrated {} entries", user.getUsername(), entries.size());
+        return dataKey;
+    }
+
+    private byte[] getOrCreateVaultSalt(User user) {
+        if (user.getSalt() != null && !user.getSalt().isBlank()) {
+            return Base64.getDecoder().decode(user.getSalt());
+        }
+
+        // Users registered before vault keys existed have an empty salt column
+        byte[] salt = encryptionService.newVaultSalt();
+        user.setSalt(Base64.getEncoder().encodeToString(salt));
+        userRepository.save(user);
+        return salt;
+    }
+
+    private static byte[] fingerprint(String masterPassword, byte[] salt) throws Exception {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        digest.update(salt);
+        return digest.digest(masterPassword.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private record Rotation(SecretKey from, SecretKey to) {
+    }
+
+    private record UnlockedVault(SecretKey dataKey, byte[] salt, byte[] passwordFingerprint) {
+
+        boolean matches(String masterPassword) throws Exception {
+            // Cheap salted digest check, so a cached key is only handed out for the right password
+            return MessageDigest.isEqual(passwordFingerprint, fingerprint(masterPassword, salt));
+        }
+    }
+}
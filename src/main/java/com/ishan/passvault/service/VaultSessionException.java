@@ -0,0 +1,11 @@
+package com.ishan.passvault.service;
+
+/**
+ * Raised when a vault session token is missing, unknown, expired or belongs to another user
+ */
+public class VaultSessionException extends RuntimeException {
+
+    public VaultSessionException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,128 @@
+package com.ishan.passvault.service;
+
+import com.ishan.passvault.model.User;
+import com.ishan.passvault.util.ExpiringLruCache;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
+
+/**
+ * Short-lived vault sessions. Unlocking verifies the master password once and returns an
+ * opaque token; the unwrapped data key stays server-side in an expiring store keyed by
+ * that token, so later requests skip both BCrypt and PBKDF2.
+ */
+@Service
+@Slf4j
+public class VaultSessionService {
+
+    private static final int TOKEN_BYTES = 32;
+
+    @Autowired
+    private VaultKeyService vaultKeyService;
+
+    private final SecureRandom secureRandom = new SecureRandom();
+    private final Duration ttl;
+    private final ExpiringLruCache<String, VaultSession> sessions;
+
+    public VaultSessionService(@Value("${passvault.session.max-sessions:10000}") int maxSessions,
+                               @Value("${passvault.session.ttl-minutes:15}") long ttlMinutes) {
+        this.ttl = Duration.ofMinutes(ttlMinutes);
+        this.sessions = new ExpiringLruCache<>(maxSessions, ttl);
+    }
+
+    /**
+     * Verifies the master password and opens a session for the user's vault
+     * @param user The vault owner
+     * @param masterPassword The master password
+     * @return The session token and its expiry
+     * @throws Exception if the master password is wrong
+     */
+    public UnlockResult unlock(User user, String masterPassword) throws Exception {
+        SecretKey dataKey = vaultKeyService.unlock(user, masterPassword);
+
+        byte[] tokenBytes = new byte[TOKEN_BYTES];
+        secureRandom.nextBytes(tokenBytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(tokenBytes);
+
+        sessions.put(hash(token), new VaultSession(user.getId(), dataKey));
+        log.info("Vault session opened for user: {}", user.getUsername());
+        return new UnlockResult(token, Instant.now().plus(ttl));
+    }
+
+    /**
+     * Returns the data key held by a session
+     * @param user The user the request is for
+     * @param token The session token presented by the client
+     * @return The unwrapped data key
+     */
+    public SecretKey resolve(User user, String token) {
+        VaultSession session = token != null ? sessions.get(hash(token)) : null;
+        if (session == null || !session.userId().equals(user.getId())) {
+            throw new VaultSessionException("Invalid or expired vault session");
+        }
+        return session.dataKey();
+    }
+
+    /**
+     * Resolves the data key from a session token if one is given, otherwise from the master password
+     * @param user The vault owner
+     * @param token The session token, may be null
+     * @param masterPassword The master password, used only without a token
+     * @return The unwrapped data key
+     * @throws Exception if neither credential is valid
+     */
+    public SecretKey resolve(User user, String token, String masterPassword) throws Exception {
+        if (token != null && !token.isBlank()) {
+            return resolve(user, token);
+        }
+        return vaultKeyService.unlock(user, masterPassword);
+    }
+
+    /**
+     * Ends a session before it expires
+     * @param token The session token
+     */
+    public void lock(String token) {
+        if (token != null) {
+            sessions.remove(hash(token));
+        }
+    }
+
+    /**
+     * Ends every session of a user, e.g. after the data key was rotated
+     * @param user The vault owner
+     */
+    public void lockAll(User user) {
+        int closed = sessions.removeIf((token, session) -> session.userId().equals(user.getId()));
+        if (closed > 0) {
+            log.info("Closed {} vault sessions for user: {}", closed, user.getUsername());
+        }
+    }
+
+    private static String hash(String token) {
+        // Sessions are keyed by the token digest, so raw tokens are never stored
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    public record UnlockResult(String token, Instant expiresAt) {
+    }
+
+    private record VaultSession(Long userId, SecretKey dataKey) {
+    }
+}
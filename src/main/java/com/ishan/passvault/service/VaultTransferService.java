@@ -0,0 +1,210 @@
+package com.ishan.passvault.service;
+
+import com.ishan.passvault.dto.PasswordEntrySummary;
+import com.ishan.passvault.dto.StoredPasswordEntry;
+import com.ishan.passvault.dto.VaultImportResult;
+import com.ishan.passvault.model.PasswordEntry;
+import com.ishan.passvault.model.User;
+import com.ishan.passvault.repository.PasswordEntryRepository;
+import com.ishan.passvault.util.VaultArchive;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.crypto.SecretKey;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Streams a vault to and from the encrypted {@link VaultArchive} format. Export reads rows
+ * through a database cursor and import writes one chunk per transaction, so neither
+ * direction holds more than one chunk of entries in memory.
+ */
+@Service
+@Slf4j
+public class VaultTransferService {
+
+    @Autowired
+    private PasswordEntryRepository passwordEntryRepository;
+
+    @Autowired
+    private PasswordService passwordService;
+
+    @Autowired
+    private EncryptionService encryptionService;
+
+    @Autowired
+    private VaultKeyService vaultKeyService;
+
+    @Autowired
+    private PasswordSearchIndex passwordSearchIndex;
+
+    @Autowired
+    private CryptoOffload cryptoOffload;
+
+    @Value("${passvault.transfer.chunk-size:1000}")
+    private int chunkSize;
+
+    private final TransactionTemplate readOnlyTransaction;
+    private final TransactionTemplate writeTransaction;
+
+    public VaultTransferService(PlatformTransactionManager transactionManager) {
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Writes every entry of a vault to an encrypted export
+     * @param user The vault owner
+     * @param dataKey The unlocked data key
+     * @param masterPassword The master password, only needed for legacy-format entries; may be null
+     * @param exportPassphrase The passphrase protecting the export file
+     * @param out Destination stream, closed when the export is complete
+     * @return Number of entries exported
+     * @throws Exception if an entry cannot be decrypted or the stream fails
+     */
+    public long exportVault(User user, SecretKey dataKey, String masterPassword, String exportPassphrase,
+                            OutputStream out) throws Exception {
+        requirePassphrase(exportPassphrase);
+        long start = System.nanoTime();
+        byte[] salt = encryptionService.newVaultSalt();
+        SecretKey exportKey = cryptoOffload.call(() -> encryptionService.deriveVaultKey(exportPassphrase, salt));
+
+        Long exported;
+        try (VaultArchive.Writer writer = new VaultArchive.Writer(out, exportKey, salt, chunkSize)) {
+            exported = readOnlyTransaction.execute(status -> {
+                try (Stream<StoredPasswordEntry> rows = passwordEntryRepository.streamStoredByUser(user)) {
+                    Iterator<StoredPasswordEntry> iterator = rows.iterator();
+                    while (iterator.hasNext()) {
+                        StoredPasswordEntry row = iterator.next();
+                        String password = passwordService.decryptStored(user.getId(), row.encryptedPassword(),
+                                dataKey, masterPassword);
+                        writer.write(new VaultArchive.Record(row.serviceName(), row.username(), password,
+                                row.notes(), row.category(), row.createdAt(), row.updatedAt()));
+                    }
+                    writer.finish();
+                    return writer.getWritten();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                } catch (RuntimeException e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw new RuntimeException("Export failed: " + e.getMessage(), e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        log.info("Exported {} entries for user: {} in {} ms", exported, user.getUsername(),
+                (System.nanoTime() - start) / 1_000_000);
+        return exported != null ? exported : 0;
+    }
+
+    /**
+     * Adds the entries of an encrypted export to a vault. Entries whose service and username
+     * already exist are skipped, as are records that do not fit the entry constraints.
+     * @param user The vault owner
+     * @param dataKey The unlocked data key new entries are encrypted under
+     * @param exportPassphrase The passphrase the export was written with
+     * @param in The export stream
+     * @return Counts of imported and skipped entries
+     * @throws Exception if the file is not a valid export or the passphrase is wrong
+     */
+    public VaultImportResult importVault(User user, SecretKey dataKey, String exportPassphrase, InputStream in) throws Exception {
+        requirePassphrase(exportPassphrase);
+        long start = System.nanoTime();
+        byte[] header = VaultArchive.readHeader(in);
+        byte[] salt = VaultArchive.saltOf(header);
+        SecretKey exportKey = cryptoOffload.call(() -> encryptionService.deriveVaultKey(exportPassphrase, salt));
+        SecretKey writeKey = vaultKeyService.writeKey(user, dataKey);
+
+        VaultArchive.Reader reader = new VaultArchive.Reader(in, exportKey, header);
+        long imported = 0;
+        long skipped = 0;
+        List<VaultArchive.Record> chunk;
+        try {
+            while ((chunk = reader.nextChunk()) != null) {
+                List<PasswordEntry> entries = toNewEntries(user, chunk, writeKey);
+                skipped += chunk.size() - entries.size();
+                if (!entries.isEmpty()) {
+                    // One transaction per chunk keeps the persistence context, and the heap, bounded
+                    writeTransaction.executeWithoutResult(status -> passwordEntryRepository.saveAll(entries));
+                    imported += entries.size();
+                }
+            }
+        } finally {
+            if (imported > 0) {
+                passwordSearchIndex.invalidate(user);
+            }
+        }
+
+        log.info("Imported {} entries ({} skipped) for user: {} in {} ms", imported, skipped, user.getUsername(),
+                (System.nanoTime() - start) / 1_000_000);
+        return new VaultImportResult(imported, skipped);
+    }
+
+    private List<PasswordEntry> toNewEntries(User user, List<VaultArchive.Record> chunk, SecretKey writeKey) throws Exception {
+        Set<String> serviceNames = chunk.stream().map(VaultArchive.Record::serviceName).collect(Collectors.toSet());
+        Set<String> existing = new HashSet<>();
+        for (PasswordEntrySummary summary : passwordEntryRepository.findSummariesByUserAndServiceNameIn(user, serviceNames)) {
+            existing.add(key(summary.serviceName(), summary.username()));
+        }
+
+        List<PasswordEntry> entries = new ArrayList<>(chunk.size());
+        LocalDateTime now = LocalDateTime.now();
+        for (VaultArchive.Record record : chunk) {
+            if (!isValid(record) || !existing.add(key(record.serviceName(), record.username()))) {
+                continue;
+            }
+            entries.add(PasswordEntry.builder()
+                    .user(user)
+                    .serviceName(record.serviceName())
+                    .username(record.username())
+                    .encryptedPassword(encryptionService.encrypt(record.password(), writeKey))
+                    .passwordFingerprint(encryptionService.fingerprint(record.password(), writeKey))
+                    .notes(record.notes())
+                    .category(record.category())
+                    .createdAt(record.createdAt() != null ? record.createdAt() : now)
+                    .updatedAt(record.updatedAt() != null ? record.updatedAt() : now)
+                    .build());
+        }
+        return entries;
+    }
+
+    private static boolean isValid(VaultArchive.Record record) {
+        return !record.serviceName().isBlank() && record.serviceName().length() <= 100
+                && !record.username().isBlank() && record.username().length() <= 100
+                && !record.password().isEmpty()
+                && (record.notes() == null || record.notes().length() <= 500)
+                && (record.category() == null || record.category().length() <= 50);
+    }
+
+    private static String key(String serviceName, String username) {
+        return serviceName + '\0' + username;
+    }
+
+    /**
+     * Checks an export passphrase up front, e.g. before a streamed response has been committed
+     * @throws IllegalArgumentException if it is null or empty
+     */
+    public static void requirePassphrase(String exportPassphrase) {
+        if (exportPassphrase == null || exportPassphrase.isEmpty()) {
+            throw new IllegalArgumentException("Export passphrase cannot be null or empty");
+        }
+    }
+}
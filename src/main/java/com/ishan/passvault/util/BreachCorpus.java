@@ -0,0 +1,398 @@
+package com.ishan.passvault.util;
+
+import org.bouncycastle.crypto.digests.MD4Digest;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+/**
+ * Offline lookup of passwords in a breach corpus such as the Have I Been Pwned hash dumps: a text
+ * file of hex SHA-1 or NTLM hashes, one per line and sorted by hash, each optionally followed by
+ * {@code :count}. On first use the file is converted into two files next to it, or in a given
+ * directory: a fixed-width binary index with a 16-bit prefix fan-out table, and a Bloom filter.
+ * Both are memory-mapped, so a lookup is a few Bloom probes and, for the rare candidates, a
+ * binary search within one prefix bucket. Only the fan-out table lives on the heap.
+ */
+public final class BreachCorpus {
+
+    public enum HashType {
+        SHA1(20), NTLM(16);
+
+        private final int length;
+
+        HashType(int length) {
+            this.length = length;
+        }
+
+        public int length() {
+            return length;
+        }
+    }
+
+    private static final byte[] INDEX_MAGIC = {'P', 'V', 'B', 'I'};
+    private static final byte[] BLOOM_MAGIC = {'P', 'V', 'B', 'F'};
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 32;
+    private static final int FANOUT_SIZE = (1 << 16) + 1;
+    private static final long INDEX_DATA_OFFSET = HEADER_SIZE + FANOUT_SIZE * 8L;
+    // MappedByteBuffers are limited to 2 GiB, larger files are mapped in segments
+    private static final long SEGMENT_SIZE = 1L << 30;
+
+    private final HashType type;
+    private final long count;
+    private final long[] fanout;
+    private final MappedRegion records;
+    private final MappedRegion bloom;
+    private final long bloomBits;
+    private final int bloomHashes;
+
+    private BreachCorpus(HashType type, long count, long[] fanout, MappedRegion records, MappedRegion bloom,
+                         long bloomBits, int bloomHashes) {
+        this.type = type;
+        this.count = count;
+        this.fanout = fanout;
+        this.records = records;
+        this.bloom = bloom;
+        this.bloomBits = bloomBits;
+        this.bloomHashes = bloomHashes;
+    }
+
+    /**
+     * Opens a corpus, building its index and Bloom filter first if they are missing or older than the source
+     * @param source The sorted hash file
+     * @param indexDirectory Where the index files are kept, or null for the directory of the source
+     * @param bloomBitsPerEntry Bloom filter size; 10 bits give about 1% false positives
+     * @throws IOException if the source cannot be read or is not a sorted hash list
+     */
+    public static BreachCorpus open(Path source, Path indexDirectory, int bloomBitsPerEntry) throws IOException {
+        if (bloomBitsPerEntry < 1 || bloomBitsPerEntry > 64) {
+            throw new IllegalArgumentException("Bloom filter bits per entry must be between 1 and 64");
+        }
+        Path directory = indexDirectory != null ? indexDirectory : source.toAbsolutePath().getParent();
+        Path index = directory.resolve(source.getFileName() + ".idx");
+        Path bloomFile = directory.resolve(source.getFileName() + ".bloom");
+
+        if (isStale(index, source) || isStale(bloomFile, index)) {
+            Files.createDirectories(directory);
+            buildIndex(source, index);
+            buildBloom(index, bloomFile, bloomBitsPerEntry);
+        }
+        return map(index, bloomFile);
+    }
+
+    public HashType type() {
+        return type;
+    }
+
+    public long size() {
+        return count;
+    }
+
+    /**
+     * Checks a plaintext password against the corpus
+     * @return true if the hash of the password is in the corpus
+     */
+    public boolean containsPassword(String password) {
+        return contains(type == HashType.SHA1 ? sha1(password) : ntlm(password));
+    }
+
+    /**
+     * Checks a raw hash against the corpus
+     * @param hash SHA-1 or NTLM digest, matching {@link #type()}
+     */
+    public boolean contains(byte[] hash) {
+        if (hash.length != type.length) {
+            throw new IllegalArgumentException("Expected a " + type + " hash of " + type.length + " bytes");
+        }
+        if (!mightContain(hash)) {
+            return false;
+        }
+
+        int prefix = ((hash[0] & 0xff) << 8) | (hash[1] & 0xff);
+        long low = fanout[prefix];
+        long high = fanout[prefix + 1] - 1;
+        byte[] record = new byte[type.length];
+        while (low <= high) {
+            long middle = (low + high) >>> 1;
+            records.get(middle * type.length, record);
+            int comparison = Arrays.compareUnsigned(record, hash);
+            if (comparison < 0) {
+                low = middle + 1;
+            } else if (comparison > 0) {
+                high = middle - 1;
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean mightContain(byte[] hash) {
+        // The hashes are already uniformly distributed, so their own bytes drive the probes
+        // (Kirsch-Mitzenmacher double hashing)
+        long h1 = ByteBuffer.wrap(hash, hash.length - 16, 8).getLong();
+        long h2 = ByteBuffer.wrap(hash, hash.length - 8, 8).getLong() | 1;
+        for (int i = 0; i < bloomHashes; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bloomBits);
+            if ((bloom.get(bit >>> 3) & (1 << (bit & 7))) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static byte[] sha1(String password) {
+        try {
+            return MessageDigest.getInstance("SHA-1").digest(password.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1 not available", e);
+        }
+    }
+
+    public static byte[] ntlm(String password) {
+        // NTLM is MD4 over UTF-16LE; MD4 is not in the default JCA providers
+        byte[] input = password.getBytes(StandardCharsets.UTF_16LE);
+        MD4Digest digest = new MD4Digest();
+        digest.update(input, 0, input.length);
+        byte[] hash = new byte[digest.getDigestSize()];
+        digest.doFinal(hash, 0);
+        return hash;
+    }
+
+    private static boolean isStale(Path derived, Path source) throws IOException {
+        return !Files.exists(derived)
+                || Files.getLastModifiedTime(derived).compareTo(Files.getLastModifiedTime(source)) < 0;
+    }
+
+    private static void buildIndex(Path source, Path index) throws IOException {
+        Path temp = index.resolveSibling(index.getFileName() + ".tmp");
+        HashType type = null;
+        long count = 0;
+        long[] bucketCounts = new long[FANOUT_SIZE - 1];
+
+        try (BufferedReader reader = Files.newBufferedReader(source, StandardCharsets.US_ASCII);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 1 << 20))) {
+            // Header and fan-out table are written once the counts are known
+            out.write(new byte[(int) INDEX_DATA_OFFSET]);
+
+            byte[] previous = null;
+            byte[] hash = null;
+            String line;
+            long number = 0;
+            while ((line = reader.readLine()) != null) {
+                number++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                int end = line.indexOf(':');
+                if (end < 0) {
+                    end = line.length();
+                }
+                if (type == null) {
+                    type = end == 40 ? HashType.SHA1 : end == 32 ? HashType.NTLM : null;
+                    if (type == null) {
+                        throw new IOException("Line 1 of " + source + " is not a SHA-1 or NTLM hash");
+                    }
+                    previous = new byte[type.length];
+                    hash = new byte[type.length];
+                }
+                if (end != type.length * 2 || !parseHex(line, hash)) {
+                    throw new IOException("Line " + number + " of " + source + " is not a " + type + " hash");
+                }
+
+                int comparison = count == 0 ? 1 : Arrays.compareUnsigned(hash, previous);
+                if (comparison < 0) {
+                    throw new IOException(source + " is not sorted by hash at line " + number);
+                }
+                if (comparison == 0) {
+                    continue;
+                }
+                out.write(hash);
+                bucketCounts[((hash[0] & 0xff) << 8) | (hash[1] & 0xff)]++;
+                count++;
+                byte[] swap = previous;
+                previous = hash;
+                hash = swap;
+            }
+        }
+        if (type == null) {
+            throw new IOException(source + " contains no hashes");
+        }
+
+        try (RandomAccessFile file = new RandomAccessFile(temp.toFile(), "rw")) {
+            file.write(INDEX_MAGIC);
+            file.writeInt(VERSION);
+            file.writeInt(type.length);
+            file.writeInt(0);
+            file.writeLong(count);
+            file.seek(HEADER_SIZE);
+            ByteBuffer table = ByteBuffer.allocate(FANOUT_SIZE * 8);
+            long start = 0;
+            for (long bucketCount : bucketCounts) {
+                table.putLong(start);
+                start += bucketCount;
+            }
+            table.putLong(start);
+            file.write(table.array());
+        }
+        Files.move(temp, index, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void buildBloom(Path index, Path bloomFile, int bitsPerEntry) throws IOException {
+        Path temp = bloomFile.resolveSibling(bloomFile.getFileName() + ".tmp");
+        BreachCorpus corpus = mapIndexOnly(index);
+        long bits = Math.max(64, (corpus.count * bitsPerEntry + 7) / 8 * 8);
+        int hashes = Math.max(1, (int) Math.round(bitsPerEntry * Math.log(2)));
+
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.put(BLOOM_MAGIC).putInt(VERSION).putInt(hashes).putInt(0).putLong(bits).flip();
+            channel.write(header, 0);
+            // Extends the file to its full size, the bit array starts out zero
+            channel.write(ByteBuffer.allocate(1), HEADER_SIZE + bits / 8 - 1);
+
+            MappedRegion filter = MappedRegion.map(channel, FileChannel.MapMode.READ_WRITE, HEADER_SIZE, bits / 8, SEGMENT_SIZE);
+            BreachCorpus building = new BreachCorpus(corpus.type, corpus.count, corpus.fanout, corpus.records,
+                    filter, bits, hashes);
+            byte[] hash = new byte[corpus.type.length];
+            for (long i = 0; i < corpus.count; i++) {
+                corpus.records.get(i * corpus.type.length, hash);
+                building.add(hash);
+            }
+            filter.force();
+        }
+        Files.move(temp, bloomFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void add(byte[] hash) {
+        long h1 = ByteBuffer.wrap(hash, hash.length - 16, 8).getLong();
+        long h2 = ByteBuffer.wrap(hash, hash.length - 8, 8).getLong() | 1;
+        for (int i = 0; i < bloomHashes; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bloomBits);
+            bloom.put(bit >>> 3, (byte) (bloom.get(bit >>> 3) | (1 << (bit & 7))));
+        }
+    }
+
+    private static BreachCorpus map(Path index, Path bloomFile) throws IOException {
+        BreachCorpus corpus = mapIndexOnly(index);
+        try (FileChannel channel = FileChannel.open(bloomFile, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            channel.read(header, 0);
+            header.flip();
+            byte[] magic = new byte[4];
+            header.get(magic);
+            if (!Arrays.equals(magic, BLOOM_MAGIC) || header.getInt() != VERSION) {
+                throw new IOException(bloomFile + " is not a breach corpus Bloom filter");
+            }
+            int hashes = header.getInt();
+            header.getInt();
+            long bits = header.getLong();
+            if (channel.size() < HEADER_SIZE + bits / 8) {
+                throw new IOException(bloomFile + " is truncated");
+            }
+            MappedRegion filter = MappedRegion.map(channel, FileChannel.MapMode.READ_ONLY, HEADER_SIZE, bits / 8, SEGMENT_SIZE);
+            return new BreachCorpus(corpus.type, corpus.count, corpus.fanout, corpus.records, filter, bits, hashes);
+        }
+    }
+
+    private static BreachCorpus mapIndexOnly(Path index) throws IOException {
+        try (FileChannel channel = FileChannel.open(index, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate((int) INDEX_DATA_OFFSET);
+            while (header.hasRemaining() && channel.read(header, header.position()) > 0) {
+                // Read until the header and fan-out table are complete
+            }
+            header.flip();
+            byte[] magic = new byte[4];
+            header.get(magic);
+            if (!Arrays.equals(magic, INDEX_MAGIC) || header.getInt() != VERSION) {
+                throw new IOException(index + " is not a breach corpus index");
+            }
+            int hashLength = header.getInt();
+            HashType type = hashLength == HashType.SHA1.length ? HashType.SHA1 : HashType.NTLM;
+            header.getInt();
+            long count = header.getLong();
+            header.position(HEADER_SIZE);
+            long[] fanout = new long[FANOUT_SIZE];
+            header.asLongBuffer().get(fanout);
+            if (channel.size() != INDEX_DATA_OFFSET + count * hashLength || fanout[FANOUT_SIZE - 1] != count) {
+                throw new IOException(index + " is truncated");
+            }
+
+            // Whole records per segment, so a record never spans two buffers
+            long segmentSize = SEGMENT_SIZE / hashLength * hashLength;
+            MappedRegion records = MappedRegion.map(channel, FileChannel.MapMode.READ_ONLY, INDEX_DATA_OFFSET,
+                    count * hashLength, segmentSize);
+            return new BreachCorpus(type, count, fanout, records, null, 0, 0);
+        }
+    }
+
+    private static boolean parseHex(String line, byte[] into) {
+        for (int i = 0; i < into.length; i++) {
+            int high = Character.digit(line.charAt(2 * i), 16);
+            int low = Character.digit(line.charAt(2 * i + 1), 16);
+            if (high < 0 || low < 0) {
+                return false;
+            }
+            into[i] = (byte) ((high << 4) | low);
+        }
+        return true;
+    }
+
+    /**
+     * A file range mapped as consecutive buffers of a fixed size
+     */
+    private static final class MappedRegion {
+
+        private final MappedByteBuffer[] segments;
+        private final long segmentSize;
+
+        private MappedRegion(MappedByteBuffer[] segments, long segmentSize) {
+            this.segments = segments;
+            this.segmentSize = segmentSize;
+        }
+
+        static MappedRegion map(FileChannel channel, FileChannel.MapMode mode, long offset, long length,
+                                long segmentSize) throws IOException {
+            int count = (int) Math.max(1, (length + segmentSize - 1) / segmentSize);
+            MappedByteBuffer[] segments = new MappedByteBuffer[count];
+            for (int i = 0; i < count; i++) {
+                long start = i * segmentSize;
+                segments[i] = channel.map(mode, offset + start, Math.min(segmentSize, length - start));
+            }
+            return new MappedRegion(segments, segmentSize);
+        }
+
+        byte get(long position) {
+            return segments[(int) (position / segmentSize)].get((int) (position % segmentSize));
+        }
+
+        void get(long position, byte[] into) {
+            segments[(int) (position / segmentSize)].get((int) (position % segmentSize), into);
+        }
+
+        void put(long position, byte value) {
+            segments[(int) (position / segmentSize)].put((int) (position % segmentSize), value);
+        }
+
+        void force() {
+            for (MappedByteBuffer segment : segments) {
+                segment.force();
+            }
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.ishan.passvault.util;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiPredicate;
+import java.util.function.LongSupplier;
+
+/**
+ * Small in-memory cache bounded by entry count and time-to-live.
+ * Least recently used entries are evicted once the size limit is reached,
+ * and entries older than the TTL are dropped on access.
+ */
+public class ExpiringLruCache<K, V> {
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final LongSupplier clock;
+    private final LinkedHashMap<K, Timestamped<V>> entries;
+
+    public ExpiringLruCache(int maxEntries, Duration ttl) {
+        this(maxEntries, ttl, System::nanoTime);
+    }
+
+    ExpiringLruCache(int maxEntries, Duration ttl, LongSupplier clock) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("Cache size must be at least 1");
+        }
+        if (ttl == null || ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("Cache TTL must be positive");
+        }
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttl.toNanos();
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Timestamped<V>> eldest) {
+                return size() > ExpiringLruCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Gets a live entry
+     * @param key The cache key
+     * @return The cached value, or null if absent or expired
+     */
+    public synchronized V get(K key) {
+        Timestamped<V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (clock.getAsLong() - entry.createdAt() > ttlNanos) {
+            entries.remove(key);
+            return null;
+        }
+        return entry.value();
+    }
+
+    public synchronized void put(K key, V value) {
+        entries.put(key, new Timestamped<>(value, clock.getAsLong()));
+    }
+
+    public synchronized V remove(K key) {
+        Timestamped<V> entry = entries.remove(key);
+        return entry != null ? entry.value() : null;
+    }
+
+    /**
+     * Removes every entry matching a condition
+     * @param condition Test on key and value
+     * @return number of entries removed
+     */
+    public synchronized int removeIf(BiPredicate<K, V> condition) {
+        int before = entries.size();
+        entries.entrySet().removeIf(entry -> condition.test(entry.getKey(), entry.getValue().value()));
+        return before - entries.size();
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private record Timestamped<V>(V value, long createdAt) {
+    }
+}
@@ -0,0 +1,216 @@
+package com.ishan.passvault.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Queue;
+
+/**
+ * Single-pass replacement for the regex rule sets of {@link InputValidator}. All keyword and
+ * symbol rules are compiled into one Aho-Corasick automaton, expanded into a full DFA over
+ * case-folded ASCII, and the remaining rules (HTML tags and entities, allowed character sets)
+ * are tracked by small state flags alongside it. One traversal reports every violation class,
+ * without allocating.
+ */
+public final class InputScanner {
+
+    public enum Violation {
+        SQL_INJECTION,
+        XSS,
+        HTML_INJECTION,
+        PATH_TRAVERSAL,
+        COMMAND_INJECTION,
+        NULL_BYTE,
+        // Characters outside the allowed set of a field format
+        NOT_USERNAME_CHARS,
+        NOT_SERVICE_NAME_CHARS,
+        NOT_CATEGORY_CHARS;
+
+        public int bit() {
+            return 1 << ordinal();
+        }
+
+        public boolean in(int violations) {
+            return (violations & bit()) != 0;
+        }
+
+        public static EnumSet<Violation> of(int violations) {
+            EnumSet<Violation> set = EnumSet.noneOf(Violation.class);
+            for (Violation violation : values()) {
+                if (violation.in(violations)) {
+                    set.add(violation);
+                }
+            }
+            return set;
+        }
+    }
+
+    // Same alternatives as the (?i) patterns of InputValidator; (?i) folds ASCII only
+    private static final String[] SQL_INJECTION = {
+        "select", "insert", "update", "delete", "drop", "create", "alter", "exec", "union", "where", "or", "and",
+        "--", ";", "'", "\"", "/*", "*/", "xp_", "sp_"
+    };
+    private static final String[] XSS = {
+        "<script", "javascript:", "vbscript:", "onload=", "onerror=", "onclick=", "<iframe", "<object", "<embed",
+        "<form", "<input", "<textarea", "<select", "<button", "<link", "<meta", "<style"
+    };
+    private static final String[] PATH_TRAVERSAL = {"../", "..\\"};
+    private static final String[] COMMAND_INJECTION = {
+        "|", "&", ";", "`", "$", "(", ")", "{", "}", "[", "]", "<", ">", "?"
+    };
+
+    private static final int ALPHABET = 128;
+    private static final int[] TRANSITIONS;
+    private static final int[] OUTPUTS;
+    // Per ASCII character, the format violations it causes
+    private static final int[] CHAR_VIOLATIONS = new int[ALPHABET];
+    private static final int NON_ASCII_VIOLATIONS = Violation.NOT_USERNAME_CHARS.bit()
+            | Violation.NOT_SERVICE_NAME_CHARS.bit() | Violation.NOT_CATEGORY_CHARS.bit();
+
+    static {
+        List<int[]> gotoTable = new ArrayList<>();
+        List<Integer> outputs = new ArrayList<>();
+        gotoTable.add(newState());
+        outputs.add(0);
+        addAll(gotoTable, outputs, SQL_INJECTION, Violation.SQL_INJECTION);
+        addAll(gotoTable, outputs, XSS, Violation.XSS);
+        addAll(gotoTable, outputs, PATH_TRAVERSAL, Violation.PATH_TRAVERSAL);
+        addAll(gotoTable, outputs, COMMAND_INJECTION, Violation.COMMAND_INJECTION);
+        addAll(gotoTable, outputs, new String[]{"\0"}, Violation.NULL_BYTE);
+
+        // Breadth-first over the trie: missing transitions follow the failure link, which turns
+        // the automaton into a DFA with exactly one table lookup per character
+        int states = gotoTable.size();
+        int[] transitions = new int[states * ALPHABET];
+        int[] out = new int[states];
+        int[] failure = new int[states];
+        Queue<Integer> queue = new ArrayDeque<>();
+        for (int c = 0; c < ALPHABET; c++) {
+            int next = gotoTable.get(0)[c];
+            transitions[c] = Math.max(next, 0);
+            if (next > 0) {
+                queue.add(next);
+            }
+        }
+        out[0] = outputs.get(0);
+        while (!queue.isEmpty()) {
+            int state = queue.remove();
+            out[state] = outputs.get(state) | out[failure[state]];
+            for (int c = 0; c < ALPHABET; c++) {
+                int next = gotoTable.get(state)[c];
+                if (next > 0) {
+                    failure[next] = transitions[failure[state] * ALPHABET + c];
+                    transitions[state * ALPHABET + c] = next;
+                    queue.add(next);
+                } else {
+                    transitions[state * ALPHABET + c] = transitions[failure[state] * ALPHABET + c];
+                }
+            }
+        }
+        TRANSITIONS = transitions;
+        OUTPUTS = out;
+
+        for (int c = 0; c < ALPHABET; c++) {
+            boolean alphanumeric = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9');
+            // \s without UNICODE_CHARACTER_CLASS
+            boolean whitespace = c == ' ' || c == '\t' || c == '\n' || c == 0x0B || c == '\f' || c == '\r';
+            int violations = 0;
+            if (!(alphanumeric || c == '_' || c == '-')) {
+                violations |= Violation.NOT_USERNAME_CHARS.bit();
+            }
+            if (!(alphanumeric || whitespace || c == '.' || c == '_' || c == '-')) {
+                violations |= Violation.NOT_SERVICE_NAME_CHARS.bit();
+            }
+            if (!(alphanumeric || whitespace || c == '_' || c == '-')) {
+                violations |= Violation.NOT_CATEGORY_CHARS.bit();
+            }
+            CHAR_VIOLATIONS[c] = violations;
+        }
+    }
+
+    // States of the HTML entity matcher: &[a-zA-Z]+; and &#[0-9]+;
+    private static final int ENTITY_NONE = 0;
+    private static final int ENTITY_AMP = 1;
+    private static final int ENTITY_NAME = 2;
+    private static final int ENTITY_HASH = 3;
+    private static final int ENTITY_NUMBER = 4;
+
+    private InputScanner() {
+    }
+
+    /**
+     * Scans the input once
+     * @param input The text to check
+     * @return Bit set of {@link Violation#bit()} for every rule the input breaks
+     */
+    public static int scan(CharSequence input) {
+        int violations = 0;
+        int state = 0;
+        boolean openTag = false;
+        int entity = ENTITY_NONE;
+
+        for (int i = 0, length = input.length(); i < length; i++) {
+            char c = input.charAt(i);
+            if (c >= ALPHABET) {
+                // No rule contains a non-ASCII character
+                state = 0;
+                entity = ENTITY_NONE;
+                violations |= NON_ASCII_VIOLATIONS;
+                continue;
+            }
+
+            int folded = c >= 'A' && c <= 'Z' ? c + ('a' - 'A') : c;
+            state = TRANSITIONS[state * ALPHABET + folded];
+            violations |= OUTPUTS[state] | CHAR_VIOLATIONS[c];
+
+            // <[^>]*> : any '<' with a '>' somewhere after it
+            if (c == '<') {
+                openTag = true;
+            } else if (c == '>' && openTag) {
+                violations |= Violation.HTML_INJECTION.bit();
+            }
+
+            if (c == ';' && (entity == ENTITY_NAME || entity == ENTITY_NUMBER)) {
+                violations |= Violation.HTML_INJECTION.bit();
+            }
+            if (c == '&') {
+                entity = ENTITY_AMP;
+            } else {
+                boolean letter = folded >= 'a' && folded <= 'z';
+                boolean digit = c >= '0' && c <= '9';
+                entity = switch (entity) {
+                    case ENTITY_AMP -> letter ? ENTITY_NAME : c == '#' ? ENTITY_HASH : ENTITY_NONE;
+                    case ENTITY_NAME -> letter ? ENTITY_NAME : ENTITY_NONE;
+                    case ENTITY_HASH, ENTITY_NUMBER -> digit ? ENTITY_NUMBER : ENTITY_NONE;
+                    default -> ENTITY_NONE;
+                };
+            }
+        }
+        return violations;
+    }
+
+    private static int[] newState() {
+        int[] transitions = new int[ALPHABET];
+        Arrays.fill(transitions, -1);
+        return transitions;
+    }
+
+    private static void addAll(List<int[]> gotoTable, List<Integer> outputs, String[] patterns, Violation violation) {
+        for (String pattern : patterns) {
+            int state = 0;
+            for (char c : pattern.toCharArray()) {
+                int next = gotoTable.get(state)[c];
+                if (next < 0) {
+                    next = gotoTable.size();
+                    gotoTable.add(newState());
+                    outputs.add(0);
+                    gotoTable.get(state)[c] = next;
+                }
+                state = next;
+            }
+            outputs.set(state, outputs.get(state) | violation.bit());
+        }
+    }
+}
@@ -1,43 +1,15 @@
 package com.ishan.passvault.util;
 
-import java.util.regex.Pattern;
-import java.util.Arrays;
-import java.util.List;
-
 /**
- * Comprehensive input validation utility to prevent SQL injection, XSS, and other attacks
+ * Comprehensive input validation utility to prevent SQL injection, XSS, and other attacks.
+ * Each field is scanned once by {@link InputScanner}, which reports every rule class it breaks.
  */
 public class InputValidator {
     
-    // SQL Injection patterns
-    private static final Pattern SQL_INJECTION_PATTERN = Pattern.compile(
-        "(?i)(SELECT|INSERT|UPDATE|DELETE|DROP|CREATE|ALTER|EXEC|UNION|WHERE|OR|AND|--|;|'|\"|\\/\\*|\\*\\/|xp_|sp_)"
-    );
-    
-    // XSS patterns
-    private static final Pattern XSS_PATTERN = Pattern.compile(
-        "(?i)(<script|javascript:|vbscript:|onload=|onerror=|onclick=|<iframe|<object|<embed|<form|<input|<textarea|<select|<button|<link|<meta|<style)"
-    );
-    
-    // HTML injection patterns
-    private static final Pattern HTML_INJECTION_PATTERN = Pattern.compile(
-        "(?i)(<[^>]*>|&[a-zA-Z]+;|&#[0-9]+;)"
-    );
-    
-    // Path traversal patterns
-    private static final Pattern PATH_TRAVERSAL_PATTERN = Pattern.compile(
-        "(\\.\\.\\/|\\.\\.\\\\)"
-    );
-    
-    // Command injection patterns
-    private static final Pattern COMMAND_INJECTION_PATTERN = Pattern.compile(
-        "(?i)(\\||&|;|`|\\$|\\(|\\)|\\{|\\}|\\[|\\]|<|>|\\?)"
-    );
-    
-    // Null byte patterns
-    private static final Pattern NULL_BYTE_PATTERN = Pattern.compile(
-        "\\x00"
-    );
+    // Rule classes that make a text field invalid
+    private static final int INJECTION = InputScanner.Violation.SQL_INJECTION.bit()
+            | InputScanner.Violation.XSS.bit()
+            | InputScanner.Violation.NULL_BYTE.bit();
     
     // Length limits
     private static final int MAX_USERNAME_LENGTH = 50;
@@ -47,10 +19,7 @@ public class InputValidator {
     private static final int MAX_CATEGORY_LENGTH = 50;
     private static final int MAX_SEARCH_TERM_LENGTH = 200;
     
-    // Allowed characters for different fields
-    private static final Pattern USERNAME_PATTERN = Pattern.compile("^[a-zA-Z0-9_-]{3,50}$");
-    private static final Pattern SERVICE_NAME_PATTERN = Pattern.compile("^[a-zA-Z0-9\\s._-]{1,100}$");
-    private static final Pattern CATEGORY_PATTERN = Pattern.compile("^[a-zA-Z0-9\\s_-]{1,50}$");
+    private static final int MIN_USERNAME_LENGTH = 3;
     
     /**
      * Validates and sanitizes username input
@@ -73,23 +42,15 @@ public class InputValidator {
             throw new IllegalArgumentException("Username cannot exceed " + MAX_USERNAME_LENGTH + " characters");
         }
         
-        // Check for SQL injection
-        if (containsSQLInjection(trimmed)) {
-            throw new IllegalArgumentException("Username contains invalid characters");
-        }
+        int violations = InputScanner.scan(trimmed);
         
-        // Check for XSS
-        if (containsXSS(trimmed)) {
-            throw new IllegalArgumentException("Username contains invalid characters");
-        }
-        
-        // Check for null bytes
-        if (containsNullBytes(trimmed)) {
+        // Check for SQL injection, XSS and null bytes
+        if ((violations & INJECTION) != 0) {
             throw new IllegalArgumentException("Username contains invalid characters");
         }
         
         // Validate format
-        if (!USERNAME_PATTERN.matcher(trimmed).matches()) {
+        if (trimmed.length() < MIN_USERNAME_LENGTH || InputScanner.Violation.NOT_USERNAME_CHARS.in(violations)) {
             throw new IllegalArgumentException("Username must contain only letters, numbers, underscores, and hyphens (3-50 characters)");
         }
         
@@ -117,23 +78,15 @@ public class InputValidator {
             throw new IllegalArgumentException("Service name cannot exceed " + MAX_SERVICE_NAME_LENGTH + " characters");
         }
         
-        // Check for SQL injection
-        if (containsSQLInjection(trimmed)) {
-            throw new IllegalArgumentException("Service name contains invalid characters");
-        }
+        int violations = InputScanner.scan(trimmed);
         
-        // Check for XSS
-        if (containsXSS(trimmed)) {
-            throw new IllegalArgumentException("Service name contains invalid characters");
-        }
-        
-        // Check for null bytes
-        if (containsNullBytes(trimmed)) {
+        // Check for SQL injection, XSS and null bytes
+        if ((violations & INJECTION) != 0) {
             throw new IllegalArgumentException("Service name contains invalid characters");
         }
         
         // Validate format
-        if (!SERVICE_NAME_PATTERN.matcher(trimmed).matches()) {
+        if (InputScanner.Violation.NOT_SERVICE_NAME_CHARS.in(violations)) {
             throw new IllegalArgumentException("Service name contains invalid characters");
         }
         
@@ -159,13 +112,9 @@ public class InputValidator {
             throw new IllegalArgumentException("Password cannot exceed " + MAX_PASSWORD_LENGTH + " characters");
         }
         
-        // Check for null bytes
-        if (containsNullBytes(password)) {
-            throw new IllegalArgumentException("Password contains invalid characters");
-        }
-        
-        // Check for command injection patterns
-        if (containsCommandInjection(password)) {
+        // Check for null bytes and command injection patterns
+        int violations = InputScanner.scan(password);
+        if (InputScanner.Violation.NULL_BYTE.in(violations) || InputScanner.Violation.COMMAND_INJECTION.in(violations)) {
             throw new IllegalArgumentException("Password contains invalid characters");
         }
         
@@ -193,18 +142,10 @@ public class InputValidator {
             throw new IllegalArgumentException("Notes cannot exceed " + MAX_NOTES_LENGTH + " characters");
         }
         
-        // Check for SQL injection
-        if (containsSQLInjection(trimmed)) {
-            throw new IllegalArgumentException("Notes contain invalid characters");
-        }
-        
-        // Check for XSS
-        if (containsXSS(trimmed)) {
-            throw new IllegalArgumentException("Notes contain invalid characters");
-        }
+        int violations = InputScanner.scan(trimmed);
         
-        // Check for null bytes
-        if (containsNullBytes(trimmed)) {
+        // Check for SQL injection, XSS and null bytes
+        if ((violations & INJECTION) != 0) {
             throw new IllegalArgumentException("Notes contain invalid characters");
         }
         
@@ -233,23 +174,15 @@ public class InputValidator {
             throw new IllegalArgumentException("Category cannot exceed " + MAX_CATEGORY_LENGTH + " characters");
         }
         
-        // Check for SQL injection
-        if (containsSQLInjection(trimmed)) {
-            throw new IllegalArgumentException("Category contains invalid characters");
-        }
-        
-        // Check for XSS
-        if (containsXSS(trimmed)) {
-            throw new IllegalArgumentException("Category contains invalid characters");
-        }
+        int violations = InputScanner.scan(trimmed);
         
-        // Check for null bytes
-        if (containsNullBytes(trimmed)) {
+        // Check for SQL injection, XSS and null bytes
+        if ((violations & INJECTION) != 0) {
             throw new IllegalArgumentException("Category contains invalid characters");
         }
         
         // Validate format
-        if (!CATEGORY_PATTERN.matcher(trimmed).matches()) {
+        if (InputScanner.Violation.NOT_CATEGORY_CHARS.in(violations)) {
             throw new IllegalArgumentException("Category contains invalid characters");
         }
         
@@ -277,83 +210,21 @@ public class InputValidator {
             throw new IllegalArgumentException("Search term cannot exceed " + MAX_SEARCH_TERM_LENGTH + " characters");
         }
         
-        // Check for SQL injection
-        if (containsSQLInjection(trimmed)) {
-            throw new IllegalArgumentException("Search term contains invalid characters");
-        }
-        
-        // Check for XSS
-        if (containsXSS(trimmed)) {
-            throw new IllegalArgumentException("Search term contains invalid characters");
-        }
+        int violations = InputScanner.scan(trimmed);
         
-        // Check for null bytes
-        if (containsNullBytes(trimmed)) {
+        // Check for SQL injection, XSS and null bytes
+        if ((violations & INJECTION) != 0) {
             throw new IllegalArgumentException("Search term contains invalid characters");
         }
         
         // Check for path traversal
-        if (containsPathTraversal(trimmed)) {
+        if (InputScanner.Violation.PATH_TRAVERSAL.in(violations)) {
             throw new IllegalArgumentException("Search term contains invalid characters");
         }
         
         return trimmed;
     }
     
-    /**
-     * Checks if input contains SQL injection patterns
-     * @param input The input to check
-     * @return true if SQL injection patterns found
-     */
-    private static boolean containsSQLInjection(String input) {
-        return SQL_INJECTION_PATTERN.matcher(input).find();
-    }
-    
-    /**
-     * Checks if input contains XSS patterns
-     * @param input The input to check
-     * @return true if XSS patterns found
-     */
-    private static boolean containsXSS(String input) {
-        return XSS_PATTERN.matcher(input).find();
-    }
-    
-    /**
-     * Checks if input contains HTML injection patterns
-     * @param input The input to check
-     * @return true if HTML injection patterns found
-     */
-    private static boolean containsHTMLInjection(String input) {
-        return HTML_INJECTION_PATTERN.matcher(input).find();
-    }
-    
-    /**
-     * Checks if input contains path traversal patterns
-     * @param input The input to check
-     * @return true if path traversal patterns found
-     */
-    private static boolean containsPathTraversal(String input) {
-        return PATH_TRAVERSAL_PATTERN.matcher(input).find();
-    }
-    
-    /**
-     * Checks if input contains command injection patterns
-     * @param input The input to check
-     * @return true if command injection patterns found
-     */
-    private static boolean containsCommandInjection(String input) {
-        return COMMAND_INJECTION_PATTERN.matcher(input).find();
-    }
-    
-    /**
-     * Checks if input contains null bytes
-     * @param input The input to check
-     * @return true if null bytes found
-     */
-    private static boolean containsNullBytes(String input) {
-        return NULL_BYTE_PATTERN.matcher(input).find() || input.contains("\0");
-    }
-    
     /**
      * Sanitizes HTML content by escaping special characters
      * @param input The input to sanitize
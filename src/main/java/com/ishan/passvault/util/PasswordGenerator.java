@@ -1,57 +1,372 @@
 package com.ishan.passvault.util;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+
+import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
 
+/**
+ * Generates random passwords, pronounceable passwords and passphrases following a {@link PasswordPolicy}.
+ * Randomness is read in blocks from a small fixed pool of {@link SecureRandom}s of the configured algorithm
+ * (DRBG by default), one per core, so threads rarely contend on one generator, virtual threads reuse the
+ * same few instances, and a character costs about one byte of entropy.
+ * Indexes are drawn by rejection sampling, which keeps every choice uniform. Policy rules are met by
+ * construction rather than by generating and retrying: required classes get reserved positions, and a
+ * character that would make a run too long is left out of the draw for that position.
+ */
 @Component
 public class PasswordGenerator {
 
     private static final String UPPERCASE = "ABCDEFGHIJKLMNOPQRSTUVWXYZ";
     private static final String LOWERCASE = "abcdefghijklmnopqrstuvwxyz";
     private static final String NUMBERS = "0123456789";
-    private static final String SYMBOLS = "!@#$%^&*()_+-=[]{}|;:,.<>?";
+    private static final String CONSONANTS = "bcdfghjklmnprstvz";
+    private static final String VOWELS = "aeiou";
+
+    private static final int BLOCK_SIZE = 256;
+    // Below this many passwords a parallel stream costs more than it saves
+    private static final int PARALLEL_THRESHOLD = 256;
+
+    // The policies used by the menus, compiled once
+    private static final Map<PasswordPolicy, Charset> PRESETS = Map.of(
+            new PasswordPolicy(16, true), new Charset(new PasswordPolicy(16, true)),
+            new PasswordPolicy(16, false), new Charset(new PasswordPolicy(16, false)));
+
+    @Value("${passvault.generator.random-algorithm:DRBG}")
+    private String randomAlgorithm = "DRBG";
+
+    @Value("${passvault.generator.max-count:10000}")
+    private int maxCount = 10000;
+
+    // A power of two at least the core count; a thread starts at the generator its id selects
+    private final RandomBlock[] random = IntStream
+            .range(0, Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() * 2 - 1)))
+            .mapToObj(i -> new RandomBlock(this::newRandom))
+            .toArray(RandomBlock[]::new);
+
+    public PasswordGenerator() {
+    }
 
-    private final SecureRandom random = new SecureRandom();
+    /**
+     * @param randomAlgorithm {@link SecureRandom} algorithm of the pooled generators, e.g. DRBG or NativePRNGNonBlocking
+     */
+    public PasswordGenerator(String randomAlgorithm) {
+        this.randomAlgorithm = randomAlgorithm;
+    }
 
     public String generatePassword(int length, boolean includeSymbols) {
-        if (length < 8) {
-            throw new IllegalArgumentException("Password length must be at least 8 characters");
+        return generate(new PasswordPolicy(length, includeSymbols));
+    }
+
+    /**
+     * Generates one password
+     * @param policy Mode, length and character rules
+     * @return A password with at least one character of every required class and none of the forbidden ones
+     */
+    public String generate(PasswordPolicy policy) {
+        return generate(policy, charset(policy));
+    }
+
+    /**
+     * Generates many passwords at once; large batches are spread over the common pool, the
+     * workers drawing from different random generators
+     * @param count Number of passwords, up to {@code passvault.generator.max-count}
+     * @param policy Mode, length and character rules
+     * @return The passwords
+     */
+    public List<String> generate(int count, PasswordPolicy policy) {
+        if (count < 1 || count > maxCount) {
+            throw new IllegalArgumentException("Count must be between 1 and " + maxCount);
+        }
+        Charset charset = charset(policy);
+        IntStream indexes = IntStream.range(0, count);
+        if (count >= PARALLEL_THRESHOLD) {
+            indexes = indexes.parallel();
         }
+        return indexes.mapToObj(i -> generate(policy, charset)).toList();
+    }
 
-        StringBuilder charset = new StringBuilder();
-        charset.append(UPPERCASE).append(LOWERCASE).append(NUMBERS);
+    private String generate(PasswordPolicy policy, Charset charset) {
+        RandomBlock block = acquire();
+        try {
+            return switch (policy.mode()) {
+                case RANDOM -> randomPassword(policy, charset, block);
+                case PRONOUNCEABLE -> pronounceablePassword(policy, charset, block);
+                case PASSPHRASE -> passphrase(policy, charset, block);
+            };
+        } finally {
+            block.lock.unlock();
+        }
+    }
 
-        if (includeSymbols) {
-            charset.append(SYMBOLS);
+    /**
+     * Locks a generator: the first free one from the slot of this thread, or that slot once it is released
+     */
+    private RandomBlock acquire() {
+        int mask = random.length - 1;
+        int start = (int) Thread.currentThread().threadId() & mask;
+        for (int i = 0; i < random.length; i++) {
+            RandomBlock block = random[(start + i) & mask];
+            if (block.lock.tryLock()) {
+                return block;
+            }
         }
+        RandomBlock block = random[start];
+        block.lock.lock();
+        return block;
+    }
 
-        StringBuilder password = new StringBuilder();
+    private static String randomPassword(PasswordPolicy policy, Charset charset, RandomBlock block) {
+        char[] password = new char[policy.length()];
+        placeRequired(password, charset.required, block);
+
+        int maxRepeats = policy.maxRepeats();
+        for (int i = 0; i < password.length; i++) {
+            if (password[i] != 0) {
+                continue;
+            }
+            if (maxRepeats == 0) {
+                password[i] = pick(block, charset.all);
+                continue;
+            }
+            // At most two characters can complete a run that is too long: the one before this
+            // position and the reserved one after it
+            char before = i > 0 ? password[i - 1] : 0;
+            char after = i + 1 < password.length ? password[i + 1] : 0;
+            int excludedBefore = before != 0 && run(password, i, before) + 1 + (after == before ? 1 : 0) > maxRepeats
+                    ? charset.indexOf(before) : -1;
+            int excludedAfter = after != 0 && after != before && 1 + 1 > maxRepeats
+                    ? charset.indexOf(after) : -1;
+            password[i] = pickExcluding(block, charset.all, excludedBefore, excludedAfter);
+        }
+        return new String(password);
+    }
 
-        // Ensure at least one character from each category
-        password.append(UPPERCASE.charAt(random.nextInt(UPPERCASE.length())));
-        password.append(LOWERCASE.charAt(random.nextInt(LOWERCASE.length())));
-        password.append(NUMBERS.charAt(random.nextInt(NUMBERS.length())));
+    private static String pronounceablePassword(PasswordPolicy policy, Charset charset, RandomBlock block) {
+        char[] password = new char[policy.length()];
+        placeRequired(password, charset.required, block);
 
-        if (includeSymbols) {
-            password.append(SYMBOLS.charAt(random.nextInt(SYMBOLS.length())));
+        // Consonants and vowels alternate over the free positions, so letters never repeat
+        int letters = 0;
+        for (int i = 0; i < password.length; i++) {
+            if (password[i] == 0) {
+                password[i] = pick(block, letters++ % 2 == 0 ? charset.consonants : charset.vowels);
+            }
         }
+        boolean upperOnly = !policy.allows(PasswordPolicy.CharClass.LOWER);
+        boolean oneUpper = !upperOnly && policy.required().contains(PasswordPolicy.CharClass.UPPER);
+        int upper = oneUpper ? block.nextInt(letters) : -1;
+        for (int i = 0, letter = 0; i < password.length; i++) {
+            char c = password[i];
+            if (c >= 'a' && c <= 'z') {
+                if (upperOnly || letter == upper) {
+                    password[i] = (char) (c - ('a' - 'A'));
+                }
+                letter++;
+            }
+        }
+        return new String(password);
+    }
 
-        // Fill the rest randomly
-        for (int i = password.length(); i < length; i++) {
-            password.append(charset.charAt(random.nextInt(charset.length())));
+    private static String passphrase(PasswordPolicy policy, Charset charset, RandomBlock block) {
+        Wordlist wordlist = Wordlist.bundled();
+        boolean upperCase = !policy.allows(PasswordPolicy.CharClass.LOWER);
+        boolean capitalize = policy.required().contains(PasswordPolicy.CharClass.UPPER);
+        // A required digit or symbol is appended to a random word
+        int digitWord = policy.required().contains(PasswordPolicy.CharClass.DIGIT) ? block.nextInt(policy.words()) : -1;
+        int symbolWord = policy.required().contains(PasswordPolicy.CharClass.SYMBOL) ? block.nextInt(policy.words()) : -1;
+
+        StringBuilder passphrase = new StringBuilder(policy.words() * 10);
+        for (int word = 0; word < policy.words(); word++) {
+            if (word > 0) {
+                passphrase.append(policy.separator());
+            }
+            wordlist.appendTo(block.nextInt(wordlist.size()), passphrase, capitalize, upperCase);
+            if (word == digitWord) {
+                passphrase.append(pick(block, charset.digits));
+            }
+            if (word == symbolWord) {
+                passphrase.append(pick(block, charset.symbols));
+            }
         }
+        return passphrase.toString();
+    }
 
-        // Shuffle the password
-        return shuffleString(password.toString());
+    /**
+     * Puts one character of each required class at distinct random positions
+     */
+    private static void placeRequired(char[] password, char[][] required, RandomBlock block) {
+        // Taken positions, kept sorted
+        int[] taken = new int[required.length];
+        for (int r = 0; r < required.length; r++) {
+            // Draw among the free positions, then step over the taken ones below it
+            int position = block.nextInt(password.length - r);
+            int slot = 0;
+            while (slot < r && taken[slot] <= position) {
+                position++;
+                slot++;
+            }
+            System.arraycopy(taken, slot, taken, slot + 1, r - slot);
+            taken[slot] = position;
+            password[position] = pick(block, required[r]);
+        }
     }
 
-    private String shuffleString(String input) {
-        char[] chars = input.toCharArray();
-        for (int i = chars.length - 1; i > 0; i--) {
-            int j = random.nextInt(i + 1);
-            char temp = chars[i];
-            chars[i] = chars[j];
-            chars[j] = temp;
+    /**
+     * Length of the run of {@code c} that ends just before {@code position}
+     */
+    private static int run(char[] password, int position, char c) {
+        int length = 0;
+        for (int i = position - 1; i >= 0 && password[i] == c; i--) {
+            length++;
+        }
+        return length;
+    }
+
+    private static char pick(RandomBlock block, char[] chars) {
+        return chars[block.nextInt(chars.length)];
+    }
+
+    /**
+     * Picks uniformly among the characters other than the two excluded indexes (-1 for none)
+     */
+    private static char pickExcluding(RandomBlock block, char[] chars, int excludedA, int excludedB) {
+        int low = Math.min(excludedA, excludedB);
+        int high = Math.max(excludedA, excludedB);
+        int excluded = (low >= 0 ? 1 : 0) + (high >= 0 ? 1 : 0);
+        int index = block.nextInt(chars.length - excluded);
+        if (low >= 0 && index >= low) {
+            index++;
+        }
+        if (high >= 0 && index >= high) {
+            index++;
+        }
+        return chars[index];
+    }
+
+    private static Charset charset(PasswordPolicy policy) {
+        Charset preset = PRESETS.get(policy);
+        return preset != null ? preset : new Charset(policy);
+    }
+
+    private SecureRandom newRandom() {
+        try {
+            return SecureRandom.getInstance(randomAlgorithm);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Unsupported random algorithm: " + randomAlgorithm, e);
+        }
+    }
+
+    /**
+     * The character tables of one policy
+     */
+    private static final class Charset {
+
+        private final char[] all;
+        private final char[][] required;
+        private final char[] digits;
+        private final char[] symbols;
+        private final char[] consonants;
+        private final char[] vowels;
+        private final int[] indexes = new int[128];
+
+        Charset(PasswordPolicy policy) {
+            StringBuilder all = new StringBuilder();
+            if (policy.allows(PasswordPolicy.CharClass.UPPER)) {
+                all.append(UPPERCASE);
+            }
+            if (policy.allows(PasswordPolicy.CharClass.LOWER)) {
+                all.append(LOWERCASE);
+            }
+            if (policy.allows(PasswordPolicy.CharClass.DIGIT)) {
+                all.append(NUMBERS);
+            }
+            if (policy.allows(PasswordPolicy.CharClass.SYMBOL)) {
+                all.append(policy.symbols());
+            }
+            this.all = all.toString().toCharArray();
+            this.digits = NUMBERS.toCharArray();
+            this.symbols = policy.symbols().toCharArray();
+            this.consonants = CONSONANTS.toCharArray();
+            this.vowels = VOWELS.toCharArray();
+
+            Arrays.fill(indexes, -1);
+            for (int i = 0; i < this.all.length; i++) {
+                indexes[this.all[i]] = i;
+            }
+
+            // Pronounceable passwords and passphrases get their letters from the syllables or words
+            boolean letters = policy.mode() != PasswordPolicy.Mode.RANDOM;
+            this.required = policy.required().stream()
+                    .sorted()
+                    .filter(charClass -> !letters
+                            || charClass == PasswordPolicy.CharClass.DIGIT || charClass == PasswordPolicy.CharClass.SYMBOL)
+                    .map(charClass -> switch (charClass) {
+                        case UPPER -> UPPERCASE.toCharArray();
+                        case LOWER -> LOWERCASE.toCharArray();
+                        case DIGIT -> digits;
+                        case SYMBOL -> symbols;
+                    })
+                    .toArray(char[][]::new);
+        }
+
+        int indexOf(char c) {
+            return indexes[c];
+        }
+    }
+
+    /**
+     * Random bytes of one pooled generator, fetched {@link #BLOCK_SIZE} at a time; used only while locked
+     */
+    private static final class RandomBlock {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Supplier<SecureRandom> factory;
+        private final byte[] bytes = new byte[BLOCK_SIZE];
+        private SecureRandom random;
+        private int position = BLOCK_SIZE;
+
+        RandomBlock(Supplier<SecureRandom> factory) {
+            this.factory = factory;
+        }
+
+        /**
+         * @return A uniform value in [0, bound); bound is at most 65536
+         */
+        int nextInt(int bound) {
+            if (bound <= 256) {
+                // Drop the top 256 % bound byte values, which would favour the low indexes
+                int limit = 256 - 256 % bound;
+                int value;
+                do {
+                    value = nextByte();
+                } while (value >= limit);
+                return value % bound;
+            }
+            int limit = 65536 - 65536 % bound;
+            int value;
+            do {
+                value = (nextByte() << 8) | nextByte();
+            } while (value >= limit);
+            return value % bound;
+        }
+
+        private int nextByte() {
+            if (position == BLOCK_SIZE) {
+                if (random == null) {
+                    // Created on first use, once the configured algorithm has been injected
+                    random = factory.get();
+                }
+                random.nextBytes(bytes);
+                position = 0;
+            }
+            return bytes[position++] & 0xFF;
         }
-        return new String(chars);
     }
 }
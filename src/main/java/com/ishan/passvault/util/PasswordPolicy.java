@@ -0,0 +1,136 @@
+package com.ishan.passvault.util;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * What a generated password has to look like
+ * @param mode Random characters, pronounceable syllables or a passphrase of dictionary words
+ * @param length Number of characters, 8 to 1000; ignored for passphrases
+ * @param words Number of words of a passphrase, 3 to 20; ignored otherwise
+ * @param required Character classes that must appear at least once
+ * @param forbidden Character classes that must not appear
+ * @param symbols The symbols a site accepts, drawn from when symbols are allowed
+ * @param maxRepeats Longest run of one repeated character, 0 for no limit
+ * @param separator Text between the words of a passphrase
+ */
+public record PasswordPolicy(Mode mode, int length, int words, Set<CharClass> required, Set<CharClass> forbidden,
+                             String symbols, int maxRepeats, String separator) {
+
+    public static final int MIN_LENGTH = 8;
+    public static final int MAX_LENGTH = 1000;
+    public static final int MIN_WORDS = 3;
+    public static final int MAX_WORDS = 20;
+    public static final String DEFAULT_SYMBOLS = "!@#$%^&*()_+-=[]{}|;:,.<>?";
+    public static final String DEFAULT_SEPARATOR = "-";
+    public static final int DEFAULT_WORDS = 6;
+
+    public enum Mode {
+        RANDOM,
+        PRONOUNCEABLE,
+        PASSPHRASE
+    }
+
+    public enum CharClass {
+        UPPER,
+        LOWER,
+        DIGIT,
+        SYMBOL;
+
+        public static CharClass of(char c) {
+            if (c >= 'A' && c <= 'Z') {
+                return UPPER;
+            }
+            if (c >= 'a' && c <= 'z') {
+                return LOWER;
+            }
+            if (c >= '0' && c <= '9') {
+                return DIGIT;
+            }
+            return SYMBOL;
+        }
+    }
+
+    public PasswordPolicy {
+        if (mode == null) {
+            throw new IllegalArgumentException("Password mode is required");
+        }
+        required = required == null ? Set.of() : Set.copyOf(required);
+        forbidden = forbidden == null ? Set.of() : Set.copyOf(forbidden);
+        symbols = symbols == null || symbols.isEmpty() ? DEFAULT_SYMBOLS : symbols;
+        separator = separator == null ? DEFAULT_SEPARATOR : separator;
+
+        for (CharClass charClass : required) {
+            if (forbidden.contains(charClass)) {
+                throw new IllegalArgumentException("Character class " + charClass + " cannot be both required and forbidden");
+            }
+        }
+        if (forbidden.size() == CharClass.values().length) {
+            throw new IllegalArgumentException("At least one character class must be allowed");
+        }
+        for (int i = 0; i < symbols.length(); i++) {
+            char c = symbols.charAt(i);
+            if (c <= ' ' || c >= 127 || CharClass.of(c) != CharClass.SYMBOL || symbols.indexOf(c) != i) {
+                throw new IllegalArgumentException("Symbols must be distinct printable ASCII characters other than letters and digits");
+            }
+        }
+        if (maxRepeats < 0) {
+            throw new IllegalArgumentException("Max repeats cannot be negative");
+        }
+
+        if (mode == Mode.PASSPHRASE) {
+            if (words < MIN_WORDS || words > MAX_WORDS) {
+                throw new IllegalArgumentException("A passphrase must have " + MIN_WORDS + " to " + MAX_WORDS + " words");
+            }
+            if (forbidden.contains(CharClass.LOWER) && forbidden.contains(CharClass.UPPER)) {
+                throw new IllegalArgumentException("A passphrase needs letters");
+            }
+            for (int i = 0; i < separator.length(); i++) {
+                if (forbidden.contains(CharClass.of(separator.charAt(i)))) {
+                    throw new IllegalArgumentException("The separator uses a forbidden character class");
+                }
+            }
+        } else {
+            if (length < MIN_LENGTH) {
+                throw new IllegalArgumentException("Password length must be at least " + MIN_LENGTH + " characters");
+            }
+            if (length > MAX_LENGTH) {
+                throw new IllegalArgumentException("Password length must be at most " + MAX_LENGTH + " characters");
+            }
+            if (mode == Mode.PRONOUNCEABLE && forbidden.contains(CharClass.LOWER) && forbidden.contains(CharClass.UPPER)) {
+                throw new IllegalArgumentException("A pronounceable password needs letters");
+            }
+            // Every run needs a different character to break it, and up to two neighbours can be excluded
+            if (mode == Mode.RANDOM && maxRepeats > 0 && allowedCharacters(forbidden, symbols) < 3) {
+                throw new IllegalArgumentException("Too few allowed characters to limit repeats");
+            }
+        }
+    }
+
+    /**
+     * The classic policy: letters and digits, optionally symbols, one of each class at least
+     */
+    public PasswordPolicy(int length, boolean includeSymbols) {
+        this(Mode.RANDOM, length, 0,
+                includeSymbols ? EnumSet.allOf(CharClass.class) : EnumSet.of(CharClass.UPPER, CharClass.LOWER, CharClass.DIGIT),
+                includeSymbols ? Set.of() : Set.of(CharClass.SYMBOL),
+                DEFAULT_SYMBOLS, 0, DEFAULT_SEPARATOR);
+    }
+
+    public static PasswordPolicy passphrase(int words, String separator) {
+        return new PasswordPolicy(Mode.PASSPHRASE, 0, words, Set.of(), Set.of(), DEFAULT_SYMBOLS, 0, separator);
+    }
+
+    public boolean allows(CharClass charClass) {
+        return !forbidden.contains(charClass);
+    }
+
+    private static int allowedCharacters(Set<CharClass> forbidden, String symbols) {
+        int count = 0;
+        count += forbidden.contains(CharClass.UPPER) ? 0 : 26;
+        count += forbidden.contains(CharClass.LOWER) ? 0 : 26;
+        count += forbidden.contains(CharClass.DIGIT) ? 0 : 10;
+        count += forbidden.contains(CharClass.SYMBOL) ? 0 : symbols.length();
+        return count;
+    }
+}
@@ -0,0 +1,33 @@
+package com.ishan.passvault.util;
+
+import jakarta.validation.Constraint;
+import jakarta.validation.Payload;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Bean Validation constraint backed by {@link InputScanner}: the value is scanned once and
+ * rejected if it breaks any of the listed rule classes. Null values are valid; combine with
+ * {@code @NotBlank} where the field is required.
+ */
+@Documented
+@Constraint(validatedBy = SafeInputValidator.class)
+@Target({ElementType.FIELD, ElementType.PARAMETER, ElementType.RECORD_COMPONENT})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface SafeInput {
+
+    String message() default "Input contains invalid characters";
+
+    /**
+     * Rule classes that make the value invalid
+     */
+    InputScanner.Violation[] reject() default {InputScanner.Violation.XSS, InputScanner.Violation.NULL_BYTE};
+
+    Class<?>[] groups() default {};
+
+    Class<? extends Payload>[] payload() default {};
+}
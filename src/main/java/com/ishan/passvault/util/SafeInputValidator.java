@@ -0,0 +1,25 @@
+package com.ishan.passvault.util;
+
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+
+/**
+ * Validator of {@link SafeInput}
+ */
+public class SafeInputValidator implements ConstraintValidator<SafeInput, CharSequence> {
+
+    private int rejected;
+
+    @Override
+    public void initialize(SafeInput constraint) {
+        rejected = 0;
+        for (InputScanner.Violation violation : constraint.reject()) {
+            rejected |= violation.bit();
+        }
+    }
+
+    @Override
+    public boolean isValid(CharSequence value, ConstraintValidatorContext context) {
+        return value == null || (InputScanner.scan(value) & rejected) == 0;
+    }
+}
@@ -2,6 +2,7 @@ package com.ishan.passvault.util;
 
 import java.io.Console;
 import java.io.IOException;
+import java.nio.CharBuffer;
 import java.util.Arrays;
 import java.util.Scanner;
 
@@ -149,40 +150,19 @@ public class SecurePasswordInput {
     /**
      * Gets password strength description
      * @param password The password to analyze
-     * @return Strength description
+     * @return Strength description, from the score of {@link StrengthEstimator}
      */
     public static String getPasswordStrength(char[] password) {
-        if (password == null || password.length < 8) {
+        if (password == null || password.length == 0) {
             return "Very Weak";
         }
         
-        int score = 0;
-        boolean hasUpper = false, hasLower = false, hasDigit = false, hasSpecial = false;
-        
-        for (char c : password) {
-            if (Character.isUpperCase(c)) hasUpper = true;
-            else if (Character.isLowerCase(c)) hasLower = true;
-            else if (Character.isDigit(c)) hasDigit = true;
-            else hasSpecial = true;
-        }
-        
-        if (hasUpper) score++;
-        if (hasLower) score++;
-        if (hasDigit) score++;
-        if (hasSpecial) score++;
-        
-        if (password.length >= 12) score++;
-        if (password.length >= 16) score++;
-        
-        switch (score) {
-            case 0:
-            case 1: return "Very Weak";
-            case 2: return "Weak";
-            case 3: return "Fair";
-            case 4: return "Good";
-            case 5: return "Strong";
-            case 6: return "Very Strong";
-            default: return "Excellent";
+        switch (StrengthEstimator.standard().estimate(CharBuffer.wrap(password)).score()) {
+            case 0: return "Very Weak";
+            case 1: return "Weak";
+            case 2: return "Fair";
+            case 3: return "Good";
+            default: return "Strong";
         }
     }
     
@@ -0,0 +1,705 @@
+package com.ishan.passvault.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Year;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Estimates how many guesses an attacker needs for a password, in the manner of zxcvbn. The password
+ * is searched for common passwords and dictionary words (also reversed and with l33t substitutions),
+ * keyboard walks, sequences, repeats and years; the cheapest way to cover it with those matches and
+ * brute force for the rest gives the estimate. The dictionaries are bundled resources packed into
+ * array-based tries, loaded once on first use.
+ */
+public final class StrengthEstimator {
+
+    public enum Pattern {
+        DICTIONARY,
+        SPATIAL,
+        SEQUENCE,
+        REPEAT,
+        YEAR
+    }
+
+    /**
+     * One weakness found in the password
+     * @param start First character of the match
+     * @param end End of the match, exclusive
+     * @param log2Guesses Guesses needed for this part alone, as bits
+     * @param reversed Dictionary match spelled backwards
+     * @param l33t Dictionary match with substitutions such as 0 for o
+     */
+    public record Match(Pattern pattern, int start, int end, double log2Guesses, boolean reversed, boolean l33t) {
+    }
+
+    /**
+     * @param entropyBits log2 of the estimated number of guesses
+     * @param score 0 (too guessable) to 4 (very unguessable), on zxcvbn's thresholds
+     * @param matches The weaknesses on the cheapest path, in password order
+     */
+    public record Estimate(double entropyBits, int score, List<Match> matches) {
+
+        // Offline attack against a slow hash, zxcvbn's reference scenario
+        private static final double GUESSES_PER_SECOND = 1e4;
+
+        public double log10Guesses() {
+            return entropyBits * Math.log10(2);
+        }
+
+        public String crackTimeDisplay() {
+            double seconds = Math.pow(2, entropyBits) / GUESSES_PER_SECOND;
+            if (seconds < 1) {
+                return "less than a second";
+            }
+            double[] units = {60, 60, 24, 31, 12, 100};
+            String[] names = {"second", "minute", "hour", "day", "month", "year"};
+            double value = seconds;
+            for (int i = 0; i < units.length; i++) {
+                if (value < units[i]) {
+                    long rounded = Math.round(value);
+                    return rounded + " " + names[i] + (rounded == 1 ? "" : "s");
+                }
+                value /= units[i];
+            }
+            return "centuries";
+        }
+
+        public List<String> feedback() {
+            Set<String> feedback = new LinkedHashSet<>();
+            for (Match match : matches) {
+                switch (match.pattern()) {
+                    case DICTIONARY -> {
+                        feedback.add("Contains a common password or dictionary word");
+                        if (match.reversed()) {
+                            feedback.add("Reversed words aren't much harder to guess");
+                        }
+                        if (match.l33t()) {
+                            feedback.add("Predictable substitutions like '@' instead of 'a' don't help much");
+                        }
+                    }
+                    case SPATIAL -> feedback.add("Contains a keyboard pattern");
+                    case SEQUENCE -> feedback.add("Contains a sequence like abc or 6543");
+                    case REPEAT -> feedback.add("Contains repeated characters or blocks");
+                    case YEAR -> feedback.add("Contains a year, which is easy to guess");
+                }
+            }
+            if (score < 3) {
+                feedback.add("Add more words or characters that don't follow a pattern");
+            }
+            return List.copyOf(feedback);
+        }
+    }
+
+    private static final int REFERENCE_YEAR = Year.now().getValue();
+    private static final int MIN_YEAR_SPACE = 20;
+    private static final int MIN_MATCH_LENGTH = 3;
+    // Guess floor for a match that only covers part of the password
+    private static final double MIN_SUBMATCH_LOG2 = log2(50);
+    private static final int MAX_SEQUENCE_DELTA = 5;
+    // Longer passwords are estimated on this prefix alone, as in zxcvbn
+    private static final int MAX_ANALYSED_LENGTH = 100;
+
+    // Number of guesses, as log10, at which each score starts
+    private static final double[] SCORE_THRESHOLDS = {3, 6, 8, 10};
+
+    private static final char[] L33T = new char[128];
+
+    static {
+        String[][] substitutions = {{"4@", "a"}, {"8", "b"}, {"(", "c"}, {"3", "e"}, {"6", "g"}, {"1!|", "i"},
+                {"0", "o"}, {"5$", "s"}, {"7+", "t"}, {"2", "z"}};
+        for (String[] substitution : substitutions) {
+            for (char c : substitution[0].toCharArray()) {
+                L33T[c] = substitution[1].charAt(0);
+            }
+        }
+    }
+
+    // Common passwords first, so a word in both lists gets its (usually lower) password rank
+    private final Trie[] dictionaries;
+    private final Keyboard qwerty;
+    private final Keyboard keypad;
+
+    private StrengthEstimator(Trie commonPasswords, Trie words) {
+        this.dictionaries = new Trie[]{commonPasswords, words};
+        this.qwerty = Keyboard.slanted(new String[]{"`1234567890-=", "qwertyuiop[]\\", "asdfghjkl;'", "zxcvbnm,./"},
+                new String[]{"~!@#$%^&*()_+", "QWERTYUIOP{}|", "ASDFGHJKL:\"", "ZXCVBNM<>?"});
+        this.keypad = Keyboard.grid(new String[]{"/*-", "789", "456", "123", "0."});
+    }
+
+    public static StrengthEstimator standard() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Estimates the strength of a password; a few microseconds for typical lengths. Only the first
+     * {@value #MAX_ANALYSED_LENGTH} characters are considered.
+     * @param password The password, not retained
+     * @return The estimate
+     */
+    public Estimate estimate(CharSequence password) {
+        int length = Math.min(password.length(), MAX_ANALYSED_LENGTH);
+        if (length == 0) {
+            return new Estimate(0, 0, List.of());
+        }
+        char[] chars = new char[length];
+        char[] lower = new char[length];
+        for (int i = 0; i < length; i++) {
+            char c = password.charAt(i);
+            chars[i] = c;
+            lower[i] = c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+        }
+
+        List<Match> candidates = new ArrayList<>();
+        matchDictionaries(chars, lower, candidates);
+        matchSpatial(chars, qwerty, candidates);
+        matchSpatial(chars, keypad, candidates);
+        matchSequences(chars, candidates);
+        matchRepeats(chars, candidates);
+        matchYears(chars, candidates);
+
+        Estimate estimate = cheapestCover(chars, candidates);
+        Arrays.fill(chars, '\0');
+        Arrays.fill(lower, '\0');
+        return estimate;
+    }
+
+    /**
+     * Covers the password with matches and single brute-forced characters at the lowest total
+     * cost. As in zxcvbn, each extra match adds the log of the match count, since an attacker
+     * also has to guess how the patterns are combined.
+     */
+    private static Estimate cheapestCover(char[] chars, List<Match> candidates) {
+        int length = chars.length;
+        List<List<Match>> endingAt = new ArrayList<>(length + 1);
+        for (int i = 0; i <= length; i++) {
+            endingAt.add(null);
+        }
+        for (Match match : candidates) {
+            List<Match> list = endingAt.get(match.end());
+            if (list == null) {
+                list = new ArrayList<>(2);
+                endingAt.set(match.end(), list);
+            }
+            list.add(match);
+        }
+
+        double[] cost = new double[length + 1];
+        int[] count = new int[length + 1];
+        Match[] last = new Match[length + 1];
+        for (int end = 1; end <= length; end++) {
+            cost[end] = cost[end - 1] + log2(cardinality(chars[end - 1]));
+            count[end] = count[end - 1];
+            last[end] = null;
+            List<Match> matches = endingAt.get(end);
+            if (matches == null) {
+                continue;
+            }
+            for (Match match : matches) {
+                double guesses = match.start() == 0 && match.end() == length
+                        ? match.log2Guesses()
+                        : Math.max(match.log2Guesses(), MIN_SUBMATCH_LOG2);
+                double total = cost[match.start()] + guesses + log2(count[match.start()] + 1);
+                if (total < cost[end]) {
+                    cost[end] = total;
+                    count[end] = count[match.start()] + 1;
+                    last[end] = match;
+                }
+            }
+        }
+
+        List<Match> path = new ArrayList<>();
+        for (int end = length; end > 0; ) {
+            Match match = last[end];
+            if (match == null) {
+                end--;
+            } else {
+                path.add(match);
+                end = match.start();
+            }
+        }
+        Collections.reverse(path);
+
+        double bits = cost[length];
+        double log10 = bits * Math.log10(2);
+        int score = 0;
+        while (score < SCORE_THRESHOLDS.length && log10 >= SCORE_THRESHOLDS[score]) {
+            score++;
+        }
+        return new Estimate(bits, score, List.copyOf(path));
+    }
+
+    private void matchDictionaries(char[] chars, char[] lower, List<Match> out) {
+        int length = lower.length;
+        char[] reversed = new char[length];
+        char[] unleet = new char[length];
+        boolean leet = false;
+        for (int i = 0; i < length; i++) {
+            reversed[i] = lower[length - 1 - i];
+            char c = lower[i];
+            unleet[i] = c < 128 && L33T[c] != 0 ? L33T[c] : c;
+            leet |= unleet[i] != c;
+        }
+
+        for (int start = 0; start < length; start++) {
+            matchWords(chars, lower, lower, start, false, false, out);
+            matchWords(chars, reversed, lower, start, true, false, out);
+            if (leet) {
+                matchWords(chars, unleet, lower, start, false, true, out);
+            }
+        }
+        Arrays.fill(reversed, '\0');
+        Arrays.fill(unleet, '\0');
+    }
+
+    private void matchWords(char[] chars, char[] text, char[] lower, int start, boolean reversed, boolean leet,
+                            List<Match> out) {
+        for (Trie trie : dictionaries) {
+            int node = Trie.ROOT;
+            for (int i = start; i < text.length; i++) {
+                node = trie.child(node, text[i]);
+                if (node < 0) {
+                    break;
+                }
+                int rank = trie.rank(node);
+                int end = i + 1;
+                if (rank == 0 || end - start < MIN_MATCH_LENGTH) {
+                    continue;
+                }
+                // Positions in the password; a reversed match was found in the reversed text
+                int matchStart = reversed ? text.length - end : start;
+                int matchEnd = reversed ? text.length - start : end;
+                int substitutions = 0;
+                if (leet) {
+                    for (int k = matchStart; k < matchEnd; k++) {
+                        if (text[k] != lower[k]) {
+                            substitutions++;
+                        }
+                    }
+                    if (substitutions == 0) {
+                        continue;
+                    }
+                }
+                double guesses = log2(rank) + log2(uppercaseVariations(chars, matchStart, matchEnd))
+                        + substitutions + (reversed ? 1 : 0);
+                out.add(new Match(Pattern.DICTIONARY, matchStart, matchEnd, guesses, reversed, leet));
+            }
+        }
+    }
+
+    private static double uppercaseVariations(char[] chars, int start, int end) {
+        int upper = 0;
+        int lower = 0;
+        for (int i = start; i < end; i++) {
+            char c = chars[i];
+            if (c >= 'A' && c <= 'Z') {
+                upper++;
+            } else if (c >= 'a' && c <= 'z') {
+                lower++;
+            }
+        }
+        if (upper == 0) {
+            return 1;
+        }
+        boolean firstOnly = upper == 1 && chars[start] >= 'A' && chars[start] <= 'Z';
+        boolean lastOnly = upper == 1 && chars[end - 1] >= 'A' && chars[end - 1] <= 'Z';
+        if (lower == 0 || firstOnly || lastOnly) {
+            return 2;
+        }
+        double variations = 0;
+        for (int i = 1; i <= Math.min(upper, lower); i++) {
+            variations += binomial(upper + lower, i);
+        }
+        return variations;
+    }
+
+    private static void matchSpatial(char[] chars, Keyboard keyboard, List<Match> out) {
+        int start = 0;
+        while (start < chars.length - 1) {
+            int end = start + 1;
+            int turns = 0;
+            int lastDirection = -1;
+            int shifted = keyboard.isShifted(chars[start]) ? 1 : 0;
+            while (end < chars.length) {
+                int direction = keyboard.direction(chars[end - 1], chars[end]);
+                if (direction < 0) {
+                    break;
+                }
+                if (direction != lastDirection) {
+                    turns++;
+                    lastDirection = direction;
+                }
+                if (keyboard.isShifted(chars[end])) {
+                    shifted++;
+                }
+                end++;
+            }
+            if (end - start >= MIN_MATCH_LENGTH) {
+                out.add(new Match(Pattern.SPATIAL, start, end,
+                        keyboard.log2Guesses(end - start, turns, shifted), false, false));
+                start = end - 1;
+            } else {
+                start++;
+            }
+        }
+    }
+
+    private static void matchSequences(char[] chars, List<Match> out) {
+        int start = 0;
+        while (start < chars.length - 1) {
+            int delta = chars[start + 1] - chars[start];
+            int end = start + 1;
+            if (delta != 0 && Math.abs(delta) <= MAX_SEQUENCE_DELTA) {
+                while (end < chars.length && chars[end] - chars[end - 1] == delta
+                        && sameClass(chars[start], chars[end])) {
+                    end++;
+                }
+            }
+            if (end - start >= MIN_MATCH_LENGTH) {
+                char first = chars[start];
+                double base = "aAzZ019".indexOf(first) >= 0 ? 4 : first >= '0' && first <= '9' ? 10 : 26;
+                double guesses = log2(base) + log2(end - start) + (delta < 0 ? 1 : 0);
+                out.add(new Match(Pattern.SEQUENCE, start, end, guesses, false, false));
+                start = end - 1;
+            } else {
+                start++;
+            }
+        }
+    }
+
+    private void matchRepeats(char[] chars, List<Match> out) {
+        int length = chars.length;
+        int start = 0;
+        while (start < length - 1) {
+            // The block repeating furthest from here; no repeat is searched again from inside it
+            int bestEnd = start;
+            int bestPeriod = 0;
+            for (int period = 1; start + 2 * period <= length; period++) {
+                int end = start + period;
+                while (end + period <= length && Arrays.equals(chars, start, start + period, chars, end, end + period)) {
+                    end += period;
+                }
+                if (end - start > period && end - start >= MIN_MATCH_LENGTH && end > bestEnd) {
+                    bestEnd = end;
+                    bestPeriod = period;
+                }
+            }
+            if (bestPeriod == 0) {
+                start++;
+                continue;
+            }
+            // The block itself is estimated like a password, then multiplied by the repeat count
+            double block = bestPeriod == 1
+                    ? log2(cardinality(chars[start]))
+                    : estimate(new String(chars, start, bestPeriod)).entropyBits();
+            int repeats = (bestEnd - start) / bestPeriod;
+            out.add(new Match(Pattern.REPEAT, start, bestEnd, block + log2(repeats), false, false));
+            start = bestEnd;
+        }
+    }
+
+    private static void matchYears(char[] chars, List<Match> out) {
+        for (int start = 0; start + 4 <= chars.length; start++) {
+            int year = 0;
+            boolean digits = true;
+            for (int i = start; i < start + 4 && digits; i++) {
+                digits = chars[i] >= '0' && chars[i] <= '9';
+                year = year * 10 + (chars[i] - '0');
+            }
+            if (digits && year >= 1900 && year <= 2039) {
+                double guesses = log2(Math.max(Math.abs(year - REFERENCE_YEAR), MIN_YEAR_SPACE));
+                out.add(new Match(Pattern.YEAR, start, start + 4, guesses, false, false));
+            }
+        }
+    }
+
+    private static boolean sameClass(char a, char b) {
+        return (Character.isLowerCase(a) && Character.isLowerCase(b))
+                || (Character.isUpperCase(a) && Character.isUpperCase(b))
+                || (Character.isDigit(a) && Character.isDigit(b));
+    }
+
+    private static int cardinality(char c) {
+        if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z')) {
+            return 26;
+        }
+        if (c >= '0' && c <= '9') {
+            return 10;
+        }
+        return c < 128 ? 33 : 100;
+    }
+
+    private static double binomial(int n, int k) {
+        double result = 1;
+        for (int i = 1; i <= k; i++) {
+            result = result * (n - k + i) / i;
+        }
+        return result;
+    }
+
+    private static double log2(double value) {
+        return Math.log(value) / Math.log(2);
+    }
+
+    /**
+     * A trie packed into parallel arrays: the children of a node are contiguous and sorted, so
+     * a step is a binary search over at most a few dozen labels
+     */
+    static final class Trie {
+
+        static final int ROOT = 0;
+
+        private final char[] labels;
+        private final int[] firstChild;
+        private final int[] childCount;
+        private final int[] ranks;
+
+        private Trie(char[] labels, int[] firstChild, int[] childCount, int[] ranks) {
+            this.labels = labels;
+            this.firstChild = firstChild;
+            this.childCount = childCount;
+            this.ranks = ranks;
+        }
+
+        /**
+         * @param words Words in rank order; a word's rank is its position, starting at 1, or
+         *              {@code fixedRank} for unranked lists when it is positive
+         */
+        static Trie of(List<String> words, int fixedRank) {
+            // Build with maps, then lay out breadth-first so siblings sit next to each other
+            record Node(TreeMap<Character, Node> children, int[] rank) {
+            }
+            Node root = new Node(new TreeMap<>(), new int[1]);
+            int nodes = 1;
+            for (int i = 0; i < words.size(); i++) {
+                Node node = root;
+                for (char c : words.get(i).toCharArray()) {
+                    Node child = node.children().get(c);
+                    if (child == null) {
+                        child = new Node(new TreeMap<>(), new int[1]);
+                        node.children().put(c, child);
+                        nodes++;
+                    }
+                    node = child;
+                }
+                if (node.rank()[0] == 0) {
+                    node.rank()[0] = fixedRank > 0 ? fixedRank : i + 1;
+                }
+            }
+
+            char[] labels = new char[nodes];
+            int[] firstChild = new int[nodes];
+            int[] childCount = new int[nodes];
+            int[] ranks = new int[nodes];
+            Queue<Node> queue = new ArrayDeque<>();
+            queue.add(root);
+            int index = 0;
+            int next = 1;
+            while (!queue.isEmpty()) {
+                Node node = queue.remove();
+                ranks[index] = node.rank()[0];
+                firstChild[index] = next;
+                childCount[index] = node.children().size();
+                for (Map.Entry<Character, Node> child : node.children().entrySet()) {
+                    labels[next++] = child.getKey();
+                    queue.add(child.getValue());
+                }
+                index++;
+            }
+            return new Trie(labels, firstChild, childCount, ranks);
+        }
+
+        /**
+         * @return The child of node labelled c, or -1
+         */
+        int child(int node, char c) {
+            int low = firstChild[node];
+            int high = low + childCount[node] - 1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                char label = labels[middle];
+                if (label < c) {
+                    low = middle + 1;
+                } else if (label > c) {
+                    high = middle - 1;
+                } else {
+                    return middle;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * @return The rank of the word ending at node, or 0 if no word ends there
+         */
+        int rank(int node) {
+            return ranks[node];
+        }
+    }
+
+    /**
+     * Key adjacency of one keyboard layout, as a direction table over ASCII pairs
+     */
+    private static final class Keyboard {
+
+        private final byte[] directions = new byte[128 * 128];
+        private final boolean[] shifted = new boolean[128];
+        private final double log2Keys;
+        private final double averageDegree;
+
+        private Keyboard(int[][] positions, String[] rows, String[] shiftedRows, int[][] offsets) {
+            int keys = 0;
+            int links = 0;
+            for (int row = 0; row < rows.length; row++) {
+                for (int column = 0; column < rows[row].length(); column++) {
+                    int x = positions[row][column];
+                    keys++;
+                    for (int direction = 0; direction < offsets.length; direction++) {
+                        int neighbourRow = row + offsets[direction][0];
+                        if (neighbourRow < 0 || neighbourRow >= rows.length) {
+                            continue;
+                        }
+                        for (int neighbour = 0; neighbour < rows[neighbourRow].length(); neighbour++) {
+                            if (positions[neighbourRow][neighbour] == x + offsets[direction][1]) {
+                                links++;
+                                link(rows, shiftedRows, row, column, neighbourRow, neighbour, direction);
+                            }
+                        }
+                    }
+                }
+            }
+            if (shiftedRows != null) {
+                for (String row : shiftedRows) {
+                    for (char c : row.toCharArray()) {
+                        shifted[c] = true;
+                    }
+                }
+            }
+            this.log2Keys = log2(shiftedRows != null ? keys * 2 : keys);
+            this.averageDegree = (double) links / keys;
+        }
+
+        private void link(String[] rows, String[] shiftedRows, int row, int column, int neighbourRow, int neighbour,
+                          int direction) {
+            char[] from = shiftedRows != null
+                    ? new char[]{rows[row].charAt(column), shiftedRows[row].charAt(column)}
+                    : new char[]{rows[row].charAt(column)};
+            char[] to = shiftedRows != null
+                    ? new char[]{rows[neighbourRow].charAt(neighbour), shiftedRows[neighbourRow].charAt(neighbour)}
+                    : new char[]{rows[neighbourRow].charAt(neighbour)};
+            for (char a : from) {
+                for (char b : to) {
+                    directions[a * 128 + b] = (byte) (direction + 1);
+                }
+            }
+        }
+
+        /**
+         * Typewriter layout: each row is shifted by half a key against the one above
+         */
+        static Keyboard slanted(String[] rows, String[] shiftedRows) {
+            int[] rowShift = {0, 3, 4, 5};
+            int[][] positions = new int[rows.length][];
+            for (int row = 0; row < rows.length; row++) {
+                positions[row] = new int[rows[row].length()];
+                for (int column = 0; column < rows[row].length(); column++) {
+                    positions[row][column] = rowShift[row] + 2 * column;
+                }
+            }
+            // Left, right, up-left, up-right, down-left, down-right in half-key units
+            int[][] offsets = {{0, -2}, {0, 2}, {-1, -1}, {-1, 1}, {1, -1}, {1, 1}};
+            return new Keyboard(positions, rows, shiftedRows, offsets);
+        }
+
+        /**
+         * Keypad layout: keys in a square grid, diagonals included
+         */
+        static Keyboard grid(String[] rows) {
+            int[][] positions = new int[rows.length][];
+            for (int row = 0; row < rows.length; row++) {
+                positions[row] = new int[rows[row].length()];
+                for (int column = 0; column < rows[row].length(); column++) {
+                    positions[row][column] = column;
+                }
+            }
+            int[][] offsets = {{0, -1}, {0, 1}, {-1, -1}, {-1, 0}, {-1, 1}, {1, -1}, {1, 0}, {1, 1}};
+            return new Keyboard(positions, rows, null, offsets);
+        }
+
+        /**
+         * @return The direction from a to b, or -1 if the keys are not adjacent
+         */
+        int direction(char a, char b) {
+            if (a >= 128 || b >= 128) {
+                return -1;
+            }
+            return directions[a * 128 + b] - 1;
+        }
+
+        boolean isShifted(char c) {
+            return c < 128 && shifted[c];
+        }
+
+        /**
+         * zxcvbn's count of keyboard walks of this length with at most this many turns
+         */
+        double log2Guesses(int length, int turns, int shiftedCount) {
+            double guesses = 0;
+            for (int i = 2; i <= length; i++) {
+                for (int j = 1; j <= Math.min(turns, i - 1); j++) {
+                    guesses += binomial(i - 1, j - 1) * Math.pow(2, log2Keys) * Math.pow(averageDegree, j);
+                }
+            }
+            int unshifted = length - shiftedCount;
+            double shiftVariations = 1;
+            if (shiftedCount > 0) {
+                shiftVariations = 0;
+                if (unshifted == 0) {
+                    shiftVariations = 2;
+                } else {
+                    for (int i = 1; i <= Math.min(shiftedCount, unshifted); i++) {
+                        shiftVariations += binomial(shiftedCount + unshifted, i);
+                    }
+                }
+            }
+            return log2(guesses) + log2(shiftVariations);
+        }
+    }
+
+    private static final class Holder {
+
+        private static final StrengthEstimator INSTANCE = load();
+
+        private static StrengthEstimator load() {
+            List<String> passwords = readLines("/common-passwords.txt");
+            List<String> dictionary = readLines(Wordlist.RESOURCE);
+            // The word list is not ranked by frequency, so every word counts as an average one
+            return new StrengthEstimator(Trie.of(passwords, 0), Trie.of(dictionary, dictionary.size() / 2));
+        }
+
+        private static List<String> readLines(String resource) {
+            try (InputStream in = StrengthEstimator.class.getResourceAsStream(resource)) {
+                if (in == null) {
+                    throw new IllegalStateException("Missing resource " + resource);
+                }
+                return new String(in.readAllBytes(), StandardCharsets.US_ASCII).lines()
+                        .map(String::trim)
+                        .filter(line -> !line.isEmpty())
+                        .toList();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not read " + resource, e);
+            }
+        }
+    }
+}
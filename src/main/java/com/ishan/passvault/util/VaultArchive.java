@@ -0,0 +1,289 @@
+package com.ishan.passvault.util;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Encrypted vault backup format. A plain header (magic, version, KDF salt) is followed by
+ * chunks of records, each sealed with AES-GCM under a key derived from the export passphrase.
+ * Every chunk authenticates the header, its own index and whether it is the last one, so
+ * reordered, dropped or truncated chunks are rejected. Writer and reader only ever hold
+ * one chunk, which keeps memory constant regardless of the vault size.
+ * <pre>
+ * header: "PVLT" | version (1 byte) | salt (32 bytes)
+ * chunk:  length (int) | IV (12 bytes) | AES-GCM(records, aad = header | index (long) | last (byte))
+ * records: count (int) | { serviceName, username, password, notes?, category?, createdAt?, updatedAt? }*
+ * </pre>
+ */
+public final class VaultArchive {
+
+    public static final int SALT_LENGTH = 32;
+
+    private static final byte[] MAGIC = {'P', 'V', 'L', 'T'};
+    private static final byte VERSION = 1;
+    private static final int HEADER_LENGTH = MAGIC.length + 1 + SALT_LENGTH;
+    private static final int GCM_IV_LENGTH = 12;
+    private static final int GCM_TAG_BITS = 128;
+    private static final int MAX_CHUNK_BYTES = 64 * 1024 * 1024;
+
+    private VaultArchive() {
+    }
+
+    /**
+     * One exported password entry, in plain text inside the encrypted chunk
+     */
+    public record Record(String serviceName, String username, String password, String notes, String category,
+                         LocalDateTime createdAt, LocalDateTime updatedAt) {
+    }
+
+    /**
+     * Reads and checks the header of an archive, leaving the stream positioned at the first chunk
+     * @param in The archive stream
+     * @return The header bytes, needed to open a {@link Reader}
+     * @throws IOException if the stream is not a vault archive
+     */
+    public static byte[] readHeader(InputStream in) throws IOException {
+        byte[] header = in.readNBytes(HEADER_LENGTH);
+        if (header.length < HEADER_LENGTH || !Arrays.equals(Arrays.copyOf(header, MAGIC.length), MAGIC)) {
+            throw new IOException("Not a PassVault export file");
+        }
+        if (header[MAGIC.length] != VERSION) {
+            throw new IOException("Unsupported export file version: " + header[MAGIC.length]);
+        }
+        return header;
+    }
+
+    /**
+     * Extracts the KDF salt from a header read by {@link #readHeader(InputStream)}
+     * @param header The header bytes
+     * @return The 32-byte salt
+     */
+    public static byte[] saltOf(byte[] header) {
+        return Arrays.copyOfRange(header, MAGIC.length + 1, HEADER_LENGTH);
+    }
+
+    public static final class Writer implements Closeable {
+
+        private final DataOutputStream out;
+        private final SecretKey key;
+        private final byte[] header;
+        private final int chunkRecords;
+        private final SecureRandom secureRandom = new SecureRandom();
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        private DataOutputStream records = new DataOutputStream(buffer);
+        private int recordsInChunk;
+        private long chunkIndex;
+        private long written;
+        private boolean finished;
+
+        /**
+         * Writes the header and prepares the first chunk
+         * @param out Destination, closed together with the writer; call {@link #finish()} before closing
+         * @param key Key derived from the export passphrase and {@code salt}
+         * @param salt The salt the key was derived with, stored in the header
+         * @param chunkRecords Records per chunk
+         */
+        public Writer(OutputStream out, SecretKey key, byte[] salt, int chunkRecords) throws IOException {
+            if (salt.length != SALT_LENGTH) {
+                throw new IllegalArgumentException("Salt must be exactly " + SALT_LENGTH + " bytes");
+            }
+            this.out = new DataOutputStream(out);
+            this.key = key;
+            this.chunkRecords = chunkRecords;
+            this.header = ByteBuffer.allocate(HEADER_LENGTH).put(MAGIC).put(VERSION).put(salt).array();
+            this.out.write(header);
+        }
+
+        public void write(Record record) throws IOException {
+            if (finished) {
+                throw new IllegalStateException("Archive is already finished");
+            }
+            writeRequired(records, record.serviceName());
+            writeRequired(records, record.username());
+            writeRequired(records, record.password());
+            writeOptional(records, record.notes());
+            writeOptional(records, record.category());
+            writeTime(records, record.createdAt());
+            writeTime(records, record.updatedAt());
+            recordsInChunk++;
+            written++;
+            if (recordsInChunk == chunkRecords) {
+                sealChunk(false);
+            }
+        }
+
+        public long getWritten() {
+            return written;
+        }
+
+        /**
+         * Seals the remaining records as the last chunk. An archive closed without it reads
+         * as truncated, so a failed export can never pass for a complete one.
+         */
+        public void finish() throws IOException {
+            if (finished) {
+                return;
+            }
+            sealChunk(true);
+            finished = true;
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+
+        private void sealChunk(boolean last) throws IOException {
+            records.flush();
+            byte[] plain = ByteBuffer.allocate(Integer.BYTES + buffer.size())
+                    .putInt(recordsInChunk).put(buffer.toByteArray()).array();
+            byte[] iv = new byte[GCM_IV_LENGTH];
+            secureRandom.nextBytes(iv);
+            try {
+                Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+                cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(GCM_TAG_BITS, iv));
+                cipher.updateAAD(chunkAad(header, chunkIndex, last));
+                byte[] sealed = cipher.doFinal(plain);
+                out.writeInt(GCM_IV_LENGTH + sealed.length);
+                out.write(iv);
+                out.write(sealed);
+            } catch (GeneralSecurityException e) {
+                throw new IOException("Export chunk encryption failed", e);
+            } finally {
+                Arrays.fill(plain, (byte) 0);
+            }
+            buffer.reset();
+            records = new DataOutputStream(buffer);
+            recordsInChunk = 0;
+            chunkIndex++;
+        }
+    }
+
+    public static final class Reader {
+
+        private final DataInputStream in;
+        private final SecretKey key;
+        private final byte[] header;
+        private long chunkIndex;
+        private boolean finished;
+
+        /**
+         * @param in Stream positioned after the header
+         * @param key Key derived from the export passphrase and the header salt
+         * @param header The header returned by {@link #readHeader(InputStream)}
+         */
+        public Reader(InputStream in, SecretKey key, byte[] header) {
+            this.in = new DataInputStream(in);
+            this.key = key;
+            this.header = header;
+        }
+
+        /**
+         * Decrypts the next chunk
+         * @return Its records, or null after the last chunk
+         * @throws IOException if the file is truncated, tampered with or the passphrase is wrong
+         */
+        public List<Record> nextChunk() throws IOException {
+            if (finished) {
+                return null;
+            }
+            int length;
+            try {
+                length = in.readInt();
+            } catch (EOFException e) {
+                throw new IOException("Export file is truncated", e);
+            }
+            if (length <= GCM_IV_LENGTH || length > MAX_CHUNK_BYTES) {
+                throw new IOException("Export file is corrupted");
+            }
+            byte[] sealed = in.readNBytes(length);
+            if (sealed.length < length) {
+                throw new IOException("Export file is truncated");
+            }
+
+            byte[] plain = open(sealed, false);
+            if (plain == null) {
+                // Only the last chunk authenticates with the final flag set
+                plain = open(sealed, true);
+                if (plain == null) {
+                    throw new IOException("Export file could not be decrypted - wrong passphrase or corrupted file");
+                }
+                finished = true;
+            }
+            chunkIndex++;
+
+            DataInputStream records = new DataInputStream(new ByteArrayInputStream(plain));
+            int count = records.readInt();
+            List<Record> chunk = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                chunk.add(new Record(records.readUTF(), records.readUTF(), records.readUTF(),
+                        readOptional(records), readOptional(records), readTime(records), readTime(records)));
+            }
+            Arrays.fill(plain, (byte) 0);
+            return chunk;
+        }
+
+        private byte[] open(byte[] sealed, boolean last) throws IOException {
+            try {
+                Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+                cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(GCM_TAG_BITS, sealed, 0, GCM_IV_LENGTH));
+                cipher.updateAAD(chunkAad(header, chunkIndex, last));
+                return cipher.doFinal(sealed, GCM_IV_LENGTH, sealed.length - GCM_IV_LENGTH);
+            } catch (javax.crypto.AEADBadTagException e) {
+                return null;
+            } catch (GeneralSecurityException e) {
+                throw new IOException("Export chunk decryption failed", e);
+            }
+        }
+    }
+
+    private static byte[] chunkAad(byte[] header, long index, boolean last) {
+        return ByteBuffer.allocate(header.length + Long.BYTES + 1)
+                .put(header).putLong(index).put((byte) (last ? 1 : 0)).array();
+    }
+
+    private static void writeRequired(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            throw new IllegalArgumentException("Export record is missing a required field");
+        }
+        out.writeUTF(value);
+    }
+
+    private static void writeOptional(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readOptional(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeTime(DataOutputStream out, LocalDateTime value) throws IOException {
+        writeOptional(out, value != null ? value.toString() : null);
+    }
+
+    private static LocalDateTime readTime(DataInputStream in) throws IOException {
+        String value = readOptional(in);
+        return value != null ? LocalDateTime.parse(value) : null;
+    }
+}
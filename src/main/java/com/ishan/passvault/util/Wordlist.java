@@ -0,0 +1,91 @@
+package com.ishan.passvault.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * The passphrase wordlist bundled as {@value #RESOURCE}: one lowercase ASCII word per line. The words
+ * are packed into a single byte array with an offset table, loaded on first use.
+ */
+public final class Wordlist {
+
+    static final String RESOURCE = "/passphrase-words.txt";
+
+    private final byte[] letters;
+    private final int[] offsets;
+
+    private Wordlist(byte[] letters, int[] offsets) {
+        this.letters = letters;
+        this.offsets = offsets;
+    }
+
+    public static Wordlist bundled() {
+        return Holder.INSTANCE;
+    }
+
+    public int size() {
+        return offsets.length - 1;
+    }
+
+    /**
+     * Appends one word, upper-cased as asked, without building a String for it
+     * @param index Word number, from 0 to {@link #size()} - 1
+     * @param out Where to append the word
+     * @param capitalize Upper-case the first letter
+     * @param upperCase Upper-case every letter
+     */
+    public void appendTo(int index, StringBuilder out, boolean capitalize, boolean upperCase) {
+        int start = offsets[index];
+        int end = offsets[index + 1];
+        for (int i = start; i < end; i++) {
+            char c = (char) letters[i];
+            out.append(upperCase || (capitalize && i == start) ? (char) (c - ('a' - 'A')) : c);
+        }
+    }
+
+    static Wordlist parse(byte[] content) {
+        byte[] letters = new byte[content.length];
+        int[] offsets = new int[content.length / 2 + 2];
+        int length = 0;
+        int count = 0;
+        int wordStart = 0;
+        for (byte b : content) {
+            if (b == '\n' || b == '\r') {
+                if (length > wordStart) {
+                    offsets[++count] = length;
+                    wordStart = length;
+                }
+            } else if (b >= 'a' && b <= 'z') {
+                letters[length++] = b;
+            } else {
+                throw new IllegalStateException("Wordlist may only contain lowercase ASCII words");
+            }
+        }
+        if (length > wordStart) {
+            offsets[++count] = length;
+        }
+        if (count < 2) {
+            throw new IllegalStateException("Wordlist needs at least two words");
+        }
+        return new Wordlist(Arrays.copyOf(letters, length), Arrays.copyOf(offsets, count + 1));
+    }
+
+    private static final class Holder {
+
+        private static final Wordlist INSTANCE = load();
+
+        private static Wordlist load() {
+            try (InputStream in = Wordlist.class.getResourceAsStream(RESOURCE)) {
+                if (in == null) {
+                    throw new IllegalStateException("Missing wordlist resource " + RESOURCE);
+                }
+                return parse(in.readAllBytes());
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not read wordlist " + RESOURCE, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.ishan.passvault.repository.embedded;
+
+import com.ishan.passvault.repository.embedded.VaultRecords.EntryRow;
+import com.ishan.passvault.repository.embedded.VaultRecords.UserRow;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EmbeddedVaultStoreTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void committedChangesSurviveReopen() throws IOException {
+        Path file = dir.resolve("vault.pvdb");
+        try (EmbeddedVaultStore store = new EmbeddedVaultStore(file, true)) {
+            store.putUser(user(1, "alice"));
+            store.begin();
+            store.putEntry(entry(1, 1, "github"));
+            store.putEntry(entry(2, 1, "gitlab"));
+            store.commit();
+        }
+
+        try (EmbeddedVaultStore store = new EmbeddedVaultStore(file, true)) {
+            assertEquals("alice", store.user(1).username());
+            assertEquals(2, store.countEntries(1));
+            assertEquals("gitlab", store.entry(2).serviceName());
+            assertEquals(3, store.nextEntryId());
+        }
+    }
+
+    @Test
+    void rollbackUndoesChangesAndWritesNothing() throws IOException {
+        Path file = dir.resolve("vault.pvdb");
+        try (EmbeddedVaultStore store = new EmbeddedVaultStore(file, true)) {
+            store.putUser(user(1, "alice"));
+            store.putEntry(entry(1, 1, "github"));
+            long size = Files.size(file);
+
+            store.begin();
+            store.updateEntry(1, row -> row.withEncryptedPassword("changed", null));
+            store.putEntry(entry(2, 1, "gitlab"));
+            store.deleteEntry(1);
+            store.rollback();
+
+            assertEquals("secret", store.entry(1).encryptedPassword());
+            assertNull(store.entry(2));
+            assertEquals(1, store.countEntries(1));
+            assertEquals(size, Files.size(file));
+        }
+
+        try (EmbeddedVaultStore store = new EmbeddedVaultStore(file, true)) {
+            assertEquals("secret", store.entry(1).encryptedPassword());
+            assertNull(store.entry(2));
+        }
+    }
+
+    @Test
+    void tornCommitIsDiscardedAsAWhole() throws IOException {
+        Path file = dir.resolve("vault.pvdb");
+        long committed;
+        try (EmbeddedVaultStore store = new EmbeddedVaultStore(file, true)) {
+            store.putUser(user(1, "alice"));
+            store.putEntry(entry(1, 1, "github"));
+            committed = Files.size(file);
+            store.begin();
+            store.putEntry(entry(2, 1, "gitlab"));
+            store.putEntry(entry(3, 1, "bitbucket"));
+            store.commit();
+        }
+        // A crash that wrote the first record of the commit but not the second
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 10));
+
+        try (EmbeddedVaultStore store = new EmbeddedVaultStore(file, true)) {
+            assertNotNull(store.entry(1));
+            assertNull(store.entry(2));
+            assertNull(store.entry(3));
+            assertEquals(committed, Files.size(file));
+
+            // The store stays writable after cutting the torn frame off
+            store.putEntry(entry(4, 1, "gitea"));
+        }
+        try (EmbeddedVaultStore store = new EmbeddedVaultStore(file, true)) {
+            assertNotNull(store.entry(4));
+        }
+    }
+
+    @Test
+    void zeroFilledTailIsDiscarded() throws IOException {
+        Path file = dir.resolve("vault.pvdb");
+        try (EmbeddedVaultStore store = new EmbeddedVaultStore(file, true)) {
+            store.putUser(user(1, "alice"));
+        }
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length + 64));
+
+        try (EmbeddedVaultStore store = new EmbeddedVaultStore(file, true)) {
+            assertEquals("alice", store.user(1).username());
+        }
+        assertArrayEquals(bytes, Files.readAllBytes(file));
+    }
+
+    @Test
+    void damagedLengthBeforeTheLastFrameRefusesToOpen() throws IOException {
+        Path file = dir.resolve("vault.pvdb");
+        int second = writeThreeCommits(file);
+        byte[] bytes = Files.readAllBytes(file);
+        // Shrink the length of the second frame so replay would otherwise stop there
+        bytes[second + 3] = 1;
+        Files.write(file, bytes);
+
+        assertThrows(IOException.class, () -> new EmbeddedVaultStore(file, true));
+        assertEquals(bytes.length, Files.size(file));
+    }
+
+    @Test
+    void damagedBodyBeforeTheLastFrameRefusesToOpen() throws IOException {
+        Path file = dir.resolve("vault.pvdb");
+        int second = writeThreeCommits(file);
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[second + 20] ^= 0x5a;
+        Files.write(file, bytes);
+
+        assertThrows(IOException.class, () -> new EmbeddedVaultStore(file, true));
+        assertEquals(bytes.length, Files.size(file));
+    }
+
+    @Test
+    void supersededRecordsAreCompactedOnOpen() throws IOException {
+        Path file = dir.resolve("vault.pvdb");
+        try (EmbeddedVaultStore store = new EmbeddedVaultStore(file, false)) {
+            store.putUser(user(1, "alice"));
+            store.putEntry(entry(1, 1, "github"));
+            store.putEntry(entry(2, 1, "gitlab"));
+            for (int i = 0; i < 12_000; i++) {
+                LocalDateTime accessed = NOW.plusSeconds(i);
+                store.updateEntry(1, row -> row.withLastAccessed(accessed));
+            }
+            store.deleteEntry(2);
+        }
+        long before = Files.size(file);
+
+        try (EmbeddedVaultStore store = new EmbeddedVaultStore(file, false)) {
+            assertTrue(Files.size(file) < before / 100);
+            assertEquals(NOW.plusSeconds(11_999), store.entry(1).lastAccessed());
+            assertNull(store.entry(2));
+            store.putEntry(entry(3, 1, "gitea"));
+        }
+
+        try (EmbeddedVaultStore store = new EmbeddedVaultStore(file, false)) {
+            assertEquals(NOW.plusSeconds(11_999), store.entry(1).lastAccessed());
+            assertEquals(2, store.countEntries(1));
+        }
+    }
+
+    /**
+     * @return The offset of the second frame
+     */
+    private int writeThreeCommits(Path file) throws IOException {
+        int second;
+        try (EmbeddedVaultStore store = new EmbeddedVaultStore(file, true)) {
+            store.putUser(user(1, "alice"));
+            second = (int) Files.size(file);
+            store.putEntry(entry(1, 1, "github"));
+            store.putEntry(entry(2, 1, "gitlab"));
+        }
+        return second;
+    }
+
+    private static UserRow user(long id, String username) {
+        return new UserRow(id, username, "hash", "salt", null, NOW, null, true);
+    }
+
+    private static EntryRow entry(long id, long userId, String serviceName) {
+        return new EntryRow(id, userId, serviceName, "user", "secret", null, null, NOW, NOW, null, null);
+    }
+}
@@ -0,0 +1,142 @@
+package com.ishan.passvault.util;
+
+import com.ishan.passvault.util.InputScanner.Violation;
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks {@link InputScanner} against the regular expressions it replaced in {@link InputValidator}
+ */
+class InputScannerTest {
+
+    // The patterns of InputValidator before the scanner, verbatim
+    private static final Pattern SQL_INJECTION_PATTERN = Pattern.compile(
+        "(?i)(SELECT|INSERT|UPDATE|DELETE|DROP|CREATE|ALTER|EXEC|UNION|WHERE|OR|AND|--|;|'|\"|\\/\\*|\\*\\/|xp_|sp_)"
+    );
+    private static final Pattern XSS_PATTERN = Pattern.compile(
+        "(?i)(<script|javascript:|vbscript:|onload=|onerror=|onclick=|<iframe|<object|<embed|<form|<input|<textarea|<select|<button|<link|<meta|<style)"
+    );
+    private static final Pattern HTML_INJECTION_PATTERN = Pattern.compile(
+        "(?i)(<[^>]*>|&[a-zA-Z]+;|&#[0-9]+;)"
+    );
+    private static final Pattern PATH_TRAVERSAL_PATTERN = Pattern.compile(
+        "(\\.\\.\\/|\\.\\.\\\\)"
+    );
+    private static final Pattern COMMAND_INJECTION_PATTERN = Pattern.compile(
+        "(?i)(\\||&|;|`|\\$|\\(|\\)|\\{|\\}|\\[|\\]|<|>|\\?)"
+    );
+    private static final Pattern NULL_BYTE_PATTERN = Pattern.compile(
+        "\\x00"
+    );
+    // The field formats without their length bounds, which InputValidator checks separately
+    private static final Pattern USERNAME_CHARS = Pattern.compile("[a-zA-Z0-9_-]*");
+    private static final Pattern SERVICE_NAME_CHARS = Pattern.compile("[a-zA-Z0-9\\s._-]*");
+    private static final Pattern CATEGORY_CHARS = Pattern.compile("[a-zA-Z0-9\\s_-]*");
+
+    private static final List<String> EDGE_CASES = List.of(
+            "",
+            "plain",
+            "github.com",
+            "my_user-01",
+            "Work Accounts",
+            // Case folding: (?i) folds ASCII only, so look-alike letters must not match
+            "SeLeCt", "DROP", "Union", "xP_cmd", "SP_who",
+            "ſelect", "İnsert", "orıgin", "Key", "café", "сelect",
+            "oR", "Or", "AnD", "password", "store", "brand",
+            // Keywords overlapping each other or split by other characters
+            "selec", "sel ect", "deleteupdate", "ununion", "wher", "anorak",
+            // Comments and quotes
+            "--", "-", "/*", "*/", "*/*", "/**/", "it's", "say \"hi\"",
+            // XSS
+            "<SCRIPT>", "<scrip", "JavaScript:alert(1)", "javascript", "vbscript:", "OnLoad=", "onload =",
+            "<iframe", "<IFRAME", "< iframe", "<textarea", "<select", "<styles", "<met", "onclick=x",
+            // Tags: any '<' with a '>' after it
+            "<>", "<a>", "a<b>c", "a>b<c", "<<>", "< >", "<\n>", "<", ">", "x < y", "a<b<c>", ">>",
+            // Entities
+            "&amp;", "&AMP;", "&#38;", "&#;", "&;", "&amp", "&a1;", "&&amp;", "&#x26;", "&#38", "&#3a;",
+            "& amp;", "&amp ;", "&#&#1;", "&ab&cd;", "a&b;c", "&é;", "&aé;", "&#1é;",
+            // Path traversal
+            "../", "..\\", ".../", "..", "./", "a/../b", "..//", ". ./",
+            // Command characters
+            "a|b", "a&b", "`id`", "$HOME", "(x)", "{x}", "[x]", "why?",
+            // Null byte and control characters
+            "a\0b", "\0", "tab\there", "line\nbreak", "\u000B", "\f", "\r", "\u001F", "\u007F",
+            // Non-ASCII and surrogate pairs
+            "üser", "🔑key", "\u00A0", "\u2009", "\u3000"
+    );
+
+    @Test
+    void matchesTheRegularExpressionsOnEdgeCases() {
+        for (String input : EDGE_CASES) {
+            assertEquals(expected(input), Violation.of(InputScanner.scan(input)), () -> "input: " + escape(input));
+        }
+    }
+
+    @Test
+    void matchesTheRegularExpressionsOnRandomInput() {
+        // Fragments of every rule, mixed with separators and non-ASCII look-alikes
+        String[] fragments = {
+            "s", "S", "e", "l", "c", "t", "o", "O", "r", "a", "n", "d", "u", "i", "x", "p", "_", "-", "*", "/",
+            ";", "'", "\"", "<", ">", "&", "#", "1", "9", ".", "\\", "|", "`", "$", "(", "{", "[", "?", ":",
+            "=", " ", "\t", "\0", "ſ", "İ", "K", "é", "🔑",
+            "select", "SCRIPT", "<script", "onload=", "javascript:", "&amp;", "&#60;", "../", "..\\", "xp_",
+            "sp_", "--", "/*", "*/", "amp", "or", "and"
+        };
+        Random random = new Random(42);
+        for (int i = 0; i < 50_000; i++) {
+            StringBuilder input = new StringBuilder();
+            int parts = random.nextInt(8);
+            for (int part = 0; part < parts; part++) {
+                input.append(fragments[random.nextInt(fragments.length)]);
+            }
+            String text = input.toString();
+            assertEquals(expected(text), Violation.of(InputScanner.scan(text)), () -> "input: " + escape(text));
+        }
+    }
+
+    private static EnumSet<Violation> expected(String input) {
+        EnumSet<Violation> violations = EnumSet.noneOf(Violation.class);
+        if (SQL_INJECTION_PATTERN.matcher(input).find()) {
+            violations.add(Violation.SQL_INJECTION);
+        }
+        if (XSS_PATTERN.matcher(input).find()) {
+            violations.add(Violation.XSS);
+        }
+        if (HTML_INJECTION_PATTERN.matcher(input).find()) {
+            violations.add(Violation.HTML_INJECTION);
+        }
+        if (PATH_TRAVERSAL_PATTERN.matcher(input).find()) {
+            violations.add(Violation.PATH_TRAVERSAL);
+        }
+        if (COMMAND_INJECTION_PATTERN.matcher(input).find()) {
+            violations.add(Violation.COMMAND_INJECTION);
+        }
+        if (NULL_BYTE_PATTERN.matcher(input).find() || input.contains("\0")) {
+            violations.add(Violation.NULL_BYTE);
+        }
+        if (!USERNAME_CHARS.matcher(input).matches()) {
+            violations.add(Violation.NOT_USERNAME_CHARS);
+        }
+        if (!SERVICE_NAME_CHARS.matcher(input).matches()) {
+            violations.add(Violation.NOT_SERVICE_NAME_CHARS);
+        }
+        if (!CATEGORY_CHARS.matcher(input).matches()) {
+            violations.add(Violation.NOT_CATEGORY_CHARS);
+        }
+        return violations;
+    }
+
+    private static String escape(String input) {
+        StringBuilder escaped = new StringBuilder();
+        for (char c : input.toCharArray()) {
+            escaped.append(c >= 0x20 && c < 0x7F ? String.valueOf(c) : String.format("\\u%04X", (int) c));
+        }
+        return escaped.toString();
+    }
+}
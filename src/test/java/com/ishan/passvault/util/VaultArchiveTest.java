@@ -0,0 +1,175 @@
+package com.ishan.passvault.util;
+
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VaultArchiveTest {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final int HEADER_LENGTH = 5 + VaultArchive.SALT_LENGTH;
+
+    private final SecretKey key = randomKey();
+    private final byte[] salt = randomBytes(VaultArchive.SALT_LENGTH);
+
+    @Test
+    void roundTripsRecordsAcrossChunks() throws IOException {
+        List<VaultArchive.Record> records = records(5);
+        byte[] archive = write(records, 2);
+
+        assertEquals(3, chunkOffsets(archive).size());
+        assertEquals(records, read(archive, key));
+        assertArrayEquals(salt, VaultArchive.saltOf(VaultArchive.readHeader(new ByteArrayInputStream(archive))));
+    }
+
+    @Test
+    void roundTripsAnEmptyVault() throws IOException {
+        assertEquals(List.of(), read(write(List.of(), 2), key));
+    }
+
+    @Test
+    void rejectsAWrongPassphrase() throws IOException {
+        byte[] archive = write(records(3), 2);
+
+        assertThrows(IOException.class, () -> read(archive, randomKey()));
+    }
+
+    @Test
+    void rejectsAModifiedChunk() throws IOException {
+        byte[] archive = write(records(3), 2);
+        archive[archive.length - 20] ^= 0x01;
+
+        assertThrows(IOException.class, () -> read(archive, key));
+    }
+
+    @Test
+    void rejectsAModifiedHeader() throws IOException {
+        byte[] archive = write(records(3), 2);
+        // The salt is not secret, but every chunk authenticates it
+        archive[HEADER_LENGTH - 1] ^= 0x01;
+
+        assertThrows(IOException.class, () -> read(archive, key));
+    }
+
+    @Test
+    void rejectsAnArchiveCutAtAChunkBoundary() throws IOException {
+        byte[] archive = write(records(5), 2);
+        List<Integer> chunks = chunkOffsets(archive);
+        byte[] withoutLastChunk = Arrays.copyOf(archive, chunks.get(chunks.size() - 1));
+
+        IOException e = assertThrows(IOException.class, () -> read(withoutLastChunk, key));
+        assertTrue(e.getMessage().contains("truncated"));
+    }
+
+    @Test
+    void rejectsAnArchiveCutInsideAChunk() throws IOException {
+        byte[] archive = write(records(5), 2);
+
+        IOException e = assertThrows(IOException.class, () -> read(Arrays.copyOf(archive, archive.length - 1), key));
+        assertTrue(e.getMessage().contains("truncated"));
+    }
+
+    @Test
+    void rejectsAnArchiveThatWasNeverFinished() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        VaultArchive.Writer writer = new VaultArchive.Writer(out, key, salt, 2);
+        for (VaultArchive.Record record : records(4)) {
+            writer.write(record);
+        }
+        writer.close();
+
+        assertThrows(IOException.class, () -> read(out.toByteArray(), key));
+    }
+
+    @Test
+    void rejectsReorderedChunks() throws IOException {
+        byte[] archive = write(records(5), 2);
+        List<Integer> chunks = chunkOffsets(archive);
+        ByteArrayOutputStream swapped = new ByteArrayOutputStream();
+        swapped.write(archive, 0, HEADER_LENGTH);
+        swapped.write(archive, chunks.get(1), chunks.get(2) - chunks.get(1));
+        swapped.write(archive, chunks.get(0), chunks.get(1) - chunks.get(0));
+        swapped.write(archive, chunks.get(2), archive.length - chunks.get(2));
+
+        assertThrows(IOException.class, () -> read(swapped.toByteArray(), key));
+    }
+
+    @Test
+    void rejectsOtherFiles() {
+        byte[] other = "PK\u0003\u0004 not a vault archive at all".getBytes();
+
+        assertThrows(IOException.class, () -> VaultArchive.readHeader(new ByteArrayInputStream(other)));
+    }
+
+    private byte[] write(List<VaultArchive.Record> records, int chunkRecords) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (VaultArchive.Writer writer = new VaultArchive.Writer(out, key, salt, chunkRecords)) {
+            for (VaultArchive.Record record : records) {
+                writer.write(record);
+            }
+            writer.finish();
+        }
+        return out.toByteArray();
+    }
+
+    private static List<VaultArchive.Record> read(byte[] archive, SecretKey key) throws IOException {
+        InputStream in = new ByteArrayInputStream(archive);
+        VaultArchive.Reader reader = new VaultArchive.Reader(in, key, VaultArchive.readHeader(in));
+        List<VaultArchive.Record> records = new ArrayList<>();
+        List<VaultArchive.Record> chunk;
+        while ((chunk = reader.nextChunk()) != null) {
+            records.addAll(chunk);
+        }
+        return records;
+    }
+
+    private static List<Integer> chunkOffsets(byte[] archive) {
+        List<Integer> offsets = new ArrayList<>();
+        ByteBuffer buffer = ByteBuffer.wrap(archive);
+        int offset = HEADER_LENGTH;
+        while (offset < archive.length) {
+            offsets.add(offset);
+            offset += Integer.BYTES + buffer.getInt(offset);
+        }
+        return offsets;
+    }
+
+    private static List<VaultArchive.Record> records(int count) {
+        LocalDateTime created = LocalDateTime.of(2024, 1, 1, 12, 0);
+        List<VaultArchive.Record> records = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            // Alternate optional fields between present and absent
+            boolean full = i % 2 == 0;
+            records.add(new VaultArchive.Record("service-" + i, "user" + i, "pässwörd-" + i,
+                    full ? "notes " + i : null, full ? "work" : null,
+                    full ? created.plusDays(i) : null, full ? created.plusDays(i + 1) : null));
+        }
+        return records;
+    }
+
+    private static SecretKey randomKey() {
+        return new SecretKeySpec(randomBytes(32), "AES");
+    }
+
+    private static byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        RANDOM.nextBytes(bytes);
+        return bytes;
+    }
+}